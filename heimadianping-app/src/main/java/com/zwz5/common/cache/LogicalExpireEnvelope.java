@@ -0,0 +1,71 @@
+package com.zwz5.common.cache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 逻辑过期缓存结构 {"expireTime": ..., "data": {...}} 的流式解析
+ * 只读取 expireTime 并定位 data 在原始字节中的起止位置，不构建对象树，
+ * 命中时可以把 data 的字节原样拼进响应，省去反序列化再序列化。
+ */
+public final class LogicalExpireEnvelope {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private LogicalExpireEnvelope() {
+    }
+
+    /**
+     * 解析结果
+     *
+     * @param expireTime 逻辑过期时间
+     * @param dataOffset data 的起始字节位置
+     * @param dataLength data 的字节长度
+     */
+    public record Parsed(LocalDateTime expireTime, int dataOffset, int dataLength) {
+
+        public boolean isValid(LocalDateTime now) {
+            return expireTime.isAfter(now);
+        }
+    }
+
+    /**
+     * 解析逻辑过期结构
+     *
+     * @return 结构不完整（缺少 expireTime、data 不是对象或数组）或格式无法识别时返回 null，调用方走常规反序列化
+     */
+    public static Parsed parse(byte[] json) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            LocalDateTime expireTime = null;
+            int start = -1;
+            int end = -1;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if ("expireTime".equals(name) && token == JsonToken.VALUE_STRING) {
+                    expireTime = LocalDateTime.parse(parser.getText());
+                } else if ("data".equals(name) && (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY)) {
+                    start = (int) parser.currentTokenLocation().getByteOffset();
+                    parser.skipChildren();
+                    end = (int) parser.currentLocation().getByteOffset();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (expireTime == null || start < 0 || end <= start) {
+                return null;
+            }
+            return new Parsed(expireTime, start, end - start);
+        } catch (IOException | DateTimeParseException e) {
+            return null;
+        }
+    }
+}
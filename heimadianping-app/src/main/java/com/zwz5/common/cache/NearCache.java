@@ -0,0 +1,133 @@
+package com.zwz5.common.cache;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 进程内近端缓存
+ * 保存从 Redis 读到的字符串值，由 Redis 的失效通知（CLIENT TRACKING）删除条目，TTL 只是通知丢失时的兜底。
+ * 加载期间收到任何失效通知，加载结果都不保留：无法确定读到的是通知之前还是之后的值。
+ * 条目数达到上限时按 CLOCK 算法淘汰一个条目（近似 LRU）：命中时设置访问标记，时钟指针循环扫描，
+ * 过期或没有访问标记的条目被淘汰，有标记的清除标记后跳过；每次淘汰只扫描常数个条目，不遍历整个缓存。
+ */
+public class NearCache {
+
+    // 单次淘汰最多扫描的条目数，超过后直接淘汰当前条目
+    private static final int MAX_CLOCK_STEPS = 16;
+
+    private static final class Entry {
+        private final String value;
+        private final long expireAt;
+        // 上次被时钟指针扫过之后是否命中过
+        private volatile boolean referenced;
+
+        private Entry(String value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // 时钟指针，ConcurrentHashMap 的迭代器不会因并发修改失败，扫到末尾后从头开始
+    private Iterator<Map.Entry<String, Entry>> clockHand;
+    // 失效序号，每次失效加一，用于判断加载期间是否发生过失效
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    public NearCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * 读取，未命中时用 loader 加载，null 不缓存
+     */
+    public String get(String key, Function<String, String> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (now < entry.expireAt) {
+                hits.increment();
+                if (!entry.referenced) {
+                    entry.referenced = true;
+                }
+                return entry.value;
+            }
+            entries.remove(key, entry);
+        }
+        misses.increment();
+        long version = invalidations.get();
+        String value = loader.apply(key);
+        if (value != null) {
+            put(key, new Entry(value, now + ttlMillis), version, now);
+        }
+        return value;
+    }
+
+    /**
+     * 删除指定 key，先增加失效序号再删除，与 put 的顺序相反，保证并发加载的旧值不会留下
+     */
+    public void invalidate(Collection<String> keys) {
+        invalidations.incrementAndGet();
+        keys.forEach(entries::remove);
+    }
+
+    /**
+     * 清空，连接断开或服务端要求全部失效（FLUSHALL）时调用
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private void put(String key, Entry entry, long version, long now) {
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            evictOne(now);
+        }
+        entries.put(key, entry);
+        if (invalidations.get() != version) {
+            entries.remove(key, entry);
+        }
+    }
+
+    /**
+     * 淘汰一个条目，只在写入时加锁，读取不受影响
+     */
+    private synchronized void evictOne(long now) {
+        for (int step = 0; step < MAX_CLOCK_STEPS; step++) {
+            if (clockHand == null || !clockHand.hasNext()) {
+                clockHand = entries.entrySet().iterator();
+                if (!clockHand.hasNext()) {
+                    return;
+                }
+            }
+            Map.Entry<String, Entry> candidate = clockHand.next();
+            Entry entry = candidate.getValue();
+            if (now >= entry.expireAt || !entry.referenced || step == MAX_CLOCK_STEPS - 1) {
+                entries.remove(candidate.getKey(), entry);
+                return;
+            }
+            entry.referenced = false;
+        }
+    }
+}
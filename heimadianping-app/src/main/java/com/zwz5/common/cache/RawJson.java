@@ -0,0 +1,11 @@
+package com.zwz5.common.cache;
+
+/**
+ * 原始 JSON 字节片段，可以指向更大数组中的一段
+ */
+public record RawJson(byte[] bytes, int offset, int length) {
+
+    public static RawJson of(byte[] bytes) {
+        return new RawJson(bytes, 0, bytes.length);
+    }
+}
@@ -1,6 +1,10 @@
 package com.zwz5.common.cache;
 
+import com.zwz5.common.metrics.CacheMetrics;
+import com.zwz5.common.metrics.LockMetrics;
 import com.zwz5.common.redis.RedisData;
+import com.zwz5.common.redis.RedisNearCache;
+import com.zwz5.common.redis.RedisReadRouter;
 import com.zwz5.common.utils.JsonUtils;
 import com.zwz5.exception.LockException;
 import com.zwz5.exception.NullException;
@@ -10,14 +14,23 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,6 +41,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import static com.baomidou.mybatisplus.extension.toolkit.Db.getById;
+import static com.zwz5.common.metrics.CacheMetrics.Result.*;
 import static com.zwz5.constants.RedisConstants.*;
 
 /**
@@ -44,6 +58,14 @@ public class RedisCacheClient implements CacheClient {
     // 避免使用公共 ForkJoinPool，异步任务有自己可观测、可限流的线程池
     private final Executor cacheOpsExecutor;
 
+    private final CacheMetrics cacheMetrics;
+
+    // 允许读旧的读取走 Redis 副本
+    private final RedisReadRouter redisReadRouter;
+
+    // 热点 key 的进程内近端缓存，由 Redis 失效通知保证新鲜
+    private final RedisNearCache redisNearCache;
+
     @Override
     public <T> void set(String key, T value) {
         set(key, value, null, null);
@@ -85,7 +107,7 @@ public class RedisCacheClient implements CacheClient {
     public String get(String key) {
         Objects.requireNonNull(key, "key must not be null");
         try {
-            return stringRedisTemplate.opsForValue().get(key);
+            return redisNearCache.get(key, redisReadRouter::get);
         } catch (DataAccessException ex) {
             log.warn("Read cache failed. key={}", key, ex);
             return null;
@@ -117,13 +139,17 @@ public class RedisCacheClient implements CacheClient {
         String jsonStr = stringRedisTemplate.opsForValue().get(key);
         // 命中cache，反序列化为对象返回
         if (StringUtils.hasText(jsonStr)) {
+            cacheMetrics.record(prefix, HIT);
             return jsonUtils.jsonToBean(jsonStr, type);
         }
         // 命中empty cache
         if (jsonStr != null && jsonStr.isEmpty()) {
+            cacheMetrics.record(prefix, NULL_HIT);
             return null;
         }
+        cacheMetrics.record(prefix, MISS);
         // 未命中查询db
+        long rebuildStart = System.nanoTime();
         R r = (R) dbFallback.apply(id);
         // TTL抖动
         long jitterMinutes = ThreadLocalRandom.current().nextLong(1, 3);
@@ -131,9 +157,11 @@ public class RedisCacheClient implements CacheClient {
         if (r == null) {
             // 构建empty cache 为短TTL
             this.set(key, "", expire / 10, timeUnit);
+            cacheMetrics.recordRebuild(prefix, rebuildStart);
             return null;
         }
         this.set(key, r, expire, timeUnit);
+        cacheMetrics.recordRebuild(prefix, rebuildStart);
         return r;
     }
 
@@ -151,12 +179,15 @@ public class RedisCacheClient implements CacheClient {
         String jsonStr = stringRedisTemplate.opsForValue().get(key);
         // 命中有效缓存，反序列化为对象返回
         if (StringUtils.hasText(jsonStr)) {
+            cacheMetrics.record(prefix, HIT);
             return jsonUtils.jsonToBean(jsonStr, type);
         }
         // 命中empty cache
         if (jsonStr != null && jsonStr.isEmpty()) {
+            cacheMetrics.record(prefix, NULL_HIT);
             return null;
         }
+        cacheMetrics.record(prefix, MISS);
         // 未命中 互斥锁重建缓存
         // 有限次自旋 + 指数退避（避免热点轮询压垮 Redis）
         String token = null;
@@ -173,24 +204,22 @@ public class RedisCacheClient implements CacheClient {
                 long jitter = ThreadLocalRandom.current().nextLong(0, backoff / 3 + 1);
                 Thread.sleep(backoff + jitter);
                 if (++attempts >= maxAttempts) {
-                    long waitMs = (System.nanoTime() - lockWaitStart) / 1_000_000;
-                    log.warn("shopId={} 获取锁超时，等待{}毫秒，尝试{}次\n", id, waitMs, attempts);
+                    LockMetrics.recordAcquire(CACHE_REBUILD_LOCK, false, lockWaitStart);
+                    log.warn("key={} 获取重建锁超时，尝试{}次", key, attempts);
                     throw new LockException("锁占用，请稍后重试");
                 }
                 backoff = Math.min(backoff * 2, maxBackoff);
                 // 每轮重查一次缓存，避免无意义等待
                 jsonStr = stringRedisTemplate.opsForValue().get(key);
+                // 等待期间缓存已被其他线程填充
                 if (StringUtils.hasText(jsonStr)) {
-                    long waitedMs = (System.nanoTime() - lockWaitStart) / 1_000_000;
-                    log.info("shopId={} 获取锁前缓存已被其他线程填充，等待{}毫秒，尝试{}次\n", id, waitedMs, attempts);
                     return jsonUtils.jsonToBean(jsonStr, type);
                 }
                 if (jsonStr != null && jsonStr.isEmpty()) {
                     return null;
                 }
             }
-            long lockCostMs = (System.nanoTime() - lockWaitStart) / 1_000_000;
-            log.info("shopId={} 成功获取锁，用时{}毫秒，尝试{}次\n", id, lockCostMs, attempts);
+            LockMetrics.recordAcquire(CACHE_REBUILD_LOCK, true, lockWaitStart);
             // 获取锁成功，double check 缓存是否命中，命中则直接返回
             jsonStr = stringRedisTemplate.opsForValue().get(key);
             if (StringUtils.hasText(jsonStr)) {
@@ -206,8 +235,7 @@ public class RedisCacheClient implements CacheClient {
             // 数据库没有数据：解决缓存穿透，将空值缓存（短 TTL）
             if (r == null) {
                 stringRedisTemplate.opsForValue().set(key, "", CACHE_NULL_TTL, timeUnit);
-                long rebuildMs = (System.nanoTime() - rebuildStart) / 1_000_000;
-                log.info("shopId={} 缓存重建结果为空, 用时{}毫秒\n", id, rebuildMs);
+                cacheMetrics.recordRebuild(prefix, rebuildStart);
                 return null;
             }
             // 写入有效缓存（业务 TTL + 随机抖动）
@@ -218,8 +246,7 @@ public class RedisCacheClient implements CacheClient {
                     expire + jitterMinutes,
                     timeUnit
             );
-            long rebuildMs = (System.nanoTime() - rebuildStart) / 1_000_000;
-            log.info("shopId={} 缓存重建完成\n, cost={}ms ttl={}min(+{}jitter)", id, rebuildMs, expire, jitterMinutes);
+            cacheMetrics.recordRebuild(prefix, rebuildStart);
             return r;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -229,7 +256,7 @@ public class RedisCacheClient implements CacheClient {
             // 仅在持有锁的情况下按 token 释放，避免误删他人锁
             if (token != null) {
                 boolean unlocked = unlock(lockKey, token);
-                log.debug("shopId={} 释放锁结果={}\n", id, unlocked);
+                log.debug("key={} 释放锁结果={}", key, unlocked);
             }
         }
     }
@@ -248,9 +275,11 @@ public class RedisCacheClient implements CacheClient {
         Objects.requireNonNull(id, "key must not be null");
         String key = prefix + id;
         long jitterMinutes = ThreadLocalRandom.current().nextLong(1, 3);
-        String jsonStr = stringRedisTemplate.opsForValue().get(key);
+        // 热点 key 优先读近端缓存，过期后的 double check 仍读 Redis
+        String jsonStr = redisNearCache.get(key, stringRedisTemplate.opsForValue()::get);
         // 命中empty cache
         if (jsonStr != null && jsonStr.isEmpty()) {
+            cacheMetrics.record(prefix, NULL_HIT);
             return null;
         }
         // 命中cache,解析逻辑过期结构
@@ -260,8 +289,10 @@ public class RedisCacheClient implements CacheClient {
             // 缓存仍有效直接返回
             LocalDateTime expireTime = redisData.getExpireTime();
             if (expireTime != null && expireTime.isAfter(LocalDateTime.now())) {
+                cacheMetrics.record(prefix, HIT);
                 return r;
             }
+            cacheMetrics.record(prefix, STALE);
             // 缓存已过期则尝试获取互斥锁
             final String lockKey = LOCK_SHOP_KEY + id;
             String token = null;
@@ -280,6 +311,7 @@ public class RedisCacheClient implements CacheClient {
                     }
                     // 异步重建缓存
                     CompletableFuture.runAsync(() -> {
+                        long rebuildStart = System.nanoTime();
                         // 从db查询最新
                         R latest = (R) dbFallback.apply(id);
                         if (latest == null) {
@@ -291,6 +323,7 @@ public class RedisCacheClient implements CacheClient {
                                     jsonUtils.beanToJson(RedisData.builder().data(latest).expireTime(LocalDateTime.now().plusMinutes(expire + jitterMinutes)).build())
                             );
                         }
+                        cacheMetrics.recordRebuild(prefix, rebuildStart);
                     }, cacheOpsExecutor);
                 } catch (Exception e) {
                     // 记录日志
@@ -306,10 +339,13 @@ public class RedisCacheClient implements CacheClient {
         }
 
         // 缓存未命中则回源数据库并写入逻辑过期结构
+        cacheMetrics.record(prefix, MISS);
+        long rebuildStart = System.nanoTime();
         // 从数据库查询最新 Shop
         R r =  (R) dbFallback.apply(id);
         if (r == null) {
             stringRedisTemplate.opsForValue().set(key, "", CACHE_NULL_TTL + jitterMinutes, timeUnit);
+            cacheMetrics.recordRebuild(prefix, rebuildStart);
             return null;
         }
         // 写入新的逻辑过期数据
@@ -317,10 +353,224 @@ public class RedisCacheClient implements CacheClient {
                 key,
                 jsonUtils.beanToJson(RedisData.builder().data(r).expireTime(LocalDateTime.now().plusMinutes(expire + jitterMinutes)).build())
         );
+        cacheMetrics.recordRebuild(prefix, rebuildStart);
         return r;
     }
 
 
+    /**
+     * 逻辑过期缓存的原始字节读取
+     * 命中且未过期时只做流式解析，直接返回缓存中 data 部分的字节，不反序列化为对象；
+     * 空值缓存返回 null；未命中、已过期或结构无法识别时走 queryWithLogicalExpire，再把结果序列化为字节。
+     * key 由近端缓存覆盖时从近端缓存读取字符串再编码为字节，否则直接按字节读取 Redis。
+     *
+     * @return data 的 JSON 字节，数据不存在时返回 null
+     */
+    public <T, R> RawJson queryRawWithLogicalExpire(String prefix, T id, Class<R> type, Function<T, R> dbFallback, Long expire, TimeUnit timeUnit) {
+        Objects.requireNonNull(id, "key must not be null");
+        String key = prefix + id;
+        byte[] json;
+        if (redisNearCache.covers(key)) {
+            String cached = redisNearCache.get(key, stringRedisTemplate.opsForValue()::get);
+            json = cached == null ? null : cached.getBytes(StandardCharsets.UTF_8);
+        } else {
+            byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+            json = stringRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(rawKey));
+        }
+        // 命中empty cache
+        if (json != null && json.length == 0) {
+            cacheMetrics.record(prefix, NULL_HIT);
+            return null;
+        }
+        if (json != null) {
+            LogicalExpireEnvelope.Parsed parsed = LogicalExpireEnvelope.parse(json);
+            if (parsed != null && parsed.isValid(LocalDateTime.now())) {
+                cacheMetrics.record(prefix, HIT);
+                return new RawJson(json, parsed.dataOffset(), parsed.dataLength());
+            }
+        }
+        R r = queryWithLogicalExpire(prefix, id, type, dbFallback, expire, timeUnit);
+        return r == null ? null : RawJson.of(jsonUtils.beanToJson(r).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 批量读取缓存（MGET），未命中的 id 一次性批量回源数据库并回写缓存
+     * 1. 一次 MGET 读取全部 key，空串为空值缓存，直接跳过。
+     * 2. 未命中的 id 交给 dbFallback 批量查询，数据库不存在的 id 写入短 TTL 空值，防止穿透。
+     * 3. 回写使用 pipeline，一次往返写入全部 key。
+     *
+     * @param dbFallback 批量查询数据库，返回 id -> 数据
+     * @return 按 ids 顺序排列的结果，不存在的数据不出现在结果中
+     */
+    public <T, R> List<R> queryBatch(String prefix, List<T> ids, Class<R> type, Function<List<T>, Map<T, R>> dbFallback, Long expire, TimeUnit timeUnit) {
+        Objects.requireNonNull(ids, "ids must not be null");
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> keys = ids.stream().map(id -> prefix + id).toList();
+        List<String> values = redisReadRouter.multiGet(keys);
+        Map<T, R> hits = new HashMap<>(ids.size());
+        List<T> misses = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String jsonStr = values == null ? null : values.get(i);
+            if (StringUtils.hasText(jsonStr)) {
+                hits.put(ids.get(i), jsonUtils.jsonToBean(jsonStr, type));
+            } else if (jsonStr == null) {
+                misses.add(ids.get(i));
+            }
+        }
+        cacheMetrics.record(prefix, HIT, hits.size());
+        cacheMetrics.record(prefix, NULL_HIT, ids.size() - hits.size() - misses.size());
+        cacheMetrics.record(prefix, MISS, misses.size());
+        // 未命中批量回源
+        if (!misses.isEmpty()) {
+            long rebuildStart = System.nanoTime();
+            Map<T, R> loaded = dbFallback.apply(misses);
+            long jitterMinutes = ThreadLocalRandom.current().nextLong(1, 3);
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    ValueOperations<String, String> ops = (ValueOperations<String, String>) operations.opsForValue();
+                    for (T id : misses) {
+                        R r = loaded.get(id);
+                        if (r == null) {
+                            ops.set(prefix + id, "", CACHE_NULL_TTL, timeUnit);
+                        } else {
+                            ops.set(prefix + id, jsonUtils.beanToJson(r), expire + jitterMinutes, timeUnit);
+                        }
+                    }
+                    return null;
+                }
+            });
+            cacheMetrics.recordRebuild(prefix, rebuildStart);
+            hits.putAll(loaded);
+        }
+        List<R> result = new ArrayList<>(hits.size());
+        for (T id : ids) {
+            R r = hits.get(id);
+            if (r != null) {
+                result.add(r);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量读取逻辑过期缓存（MGET）
+     * 1. 命中且未过期直接使用；命中但已过期先返回旧值，并在线程池中逐个异步重建。
+     * 2. 未命中的 id 一次性批量回源数据库，pipeline 写回逻辑过期结构，数据库不存在的写入空值。
+     *
+     * @param lockPrefix 异步重建互斥锁前缀，与单条查询使用同一把锁
+     * @param dbFallback 批量查询数据库，返回 id -> 数据
+     * @return 按 ids 顺序排列的结果，不存在的数据不出现在结果中
+     */
+    public <T, R> List<R> queryBatchWithLogicalExpire(String prefix, String lockPrefix, List<T> ids, Class<R> type, Function<List<T>, Map<T, R>> dbFallback, Long expire, TimeUnit timeUnit) {
+        Objects.requireNonNull(ids, "ids must not be null");
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> values = redisReadRouter.multiGet(ids.stream().map(id -> prefix + id).toList());
+        Map<T, R> hits = new HashMap<>(ids.size());
+        List<T> misses = new ArrayList<>();
+        int nullHits = 0;
+        int stale = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ids.size(); i++) {
+            T id = ids.get(i);
+            String jsonStr = values == null ? null : values.get(i);
+            if (jsonStr == null) {
+                misses.add(id);
+                continue;
+            }
+            // 命中empty cache
+            if (jsonStr.isEmpty()) {
+                nullHits++;
+                continue;
+            }
+            RedisData redisData = jsonUtils.jsonToBean(jsonStr, RedisData.class);
+            hits.put(id, jsonUtils.convertValue(redisData.getData(), type));
+            LocalDateTime expireTime = redisData.getExpireTime();
+            if (expireTime == null || !expireTime.isAfter(now)) {
+                stale++;
+                rebuildAsync(prefix, lockPrefix + id, id, key -> dbFallback.apply(List.of(key)).get(key), expire);
+            }
+        }
+        cacheMetrics.record(prefix, HIT, hits.size() - stale);
+        cacheMetrics.record(prefix, STALE, stale);
+        cacheMetrics.record(prefix, NULL_HIT, nullHits);
+        cacheMetrics.record(prefix, MISS, misses.size());
+        // 未命中批量回源
+        if (!misses.isEmpty()) {
+            long rebuildStart = System.nanoTime();
+            Map<T, R> loaded = dbFallback.apply(misses);
+            long jitterMinutes = ThreadLocalRandom.current().nextLong(1, 3);
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    ValueOperations<String, String> ops = (ValueOperations<String, String>) operations.opsForValue();
+                    for (T id : misses) {
+                        R r = loaded.get(id);
+                        if (r == null) {
+                            ops.set(prefix + id, "", CACHE_NULL_TTL + jitterMinutes, timeUnit);
+                        } else {
+                            ops.set(prefix + id, jsonUtils.beanToJson(RedisData.builder().data(r).expireTime(LocalDateTime.now().plusMinutes(expire + jitterMinutes)).build()));
+                        }
+                    }
+                    return null;
+                }
+            });
+            cacheMetrics.recordRebuild(prefix, rebuildStart);
+            hits.putAll(loaded);
+        }
+        List<R> result = new ArrayList<>(hits.size());
+        for (T id : ids) {
+            R r = hits.get(id);
+            if (r != null) {
+                result.add(r);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取互斥锁后在线程池中重建单个逻辑过期缓存，重建完成后才释放锁
+     */
+    private <T, R> void rebuildAsync(String prefix, String lockKey, T id, Function<T, R> dbFallback, Long expire) {
+        final String key = prefix + id;
+        String token = tryLock(lockKey, LOCK_SHOP_TTL);
+        if (token == null) {
+            return;
+        }
+        try {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    long rebuildStart = System.nanoTime();
+                    long jitterMinutes = ThreadLocalRandom.current().nextLong(1, 3);
+                    R latest = dbFallback.apply(id);
+                    if (latest == null) {
+                        stringRedisTemplate.opsForValue().set(key, "", CACHE_NULL_TTL + jitterMinutes, TimeUnit.MINUTES);
+                    } else {
+                        stringRedisTemplate.opsForValue().set(
+                                key,
+                                jsonUtils.beanToJson(RedisData.builder().data(latest).expireTime(LocalDateTime.now().plusMinutes(expire + jitterMinutes)).build())
+                        );
+                    }
+                    cacheMetrics.recordRebuild(prefix, rebuildStart);
+                } catch (Exception e) {
+                    log.error("async rebuild cache failed, key={}", key, e);
+                } finally {
+                    unlock(lockKey, token);
+                }
+            }, cacheOpsExecutor);
+        } catch (RuntimeException e) {
+            // 线程池拒绝时释放锁，下次请求再尝试
+            unlock(lockKey, token);
+            log.warn("submit rebuild cache task failed, key={}", key, e);
+        }
+    }
+
     private <T> String convertToString(T value) {
         if (value instanceof String str) {
             return str;
@@ -341,6 +591,11 @@ public class RedisCacheClient implements CacheClient {
         return (ok != null && ok) ? token : null;
     }
 
+    /**
+     * 缓存重建锁在 lock.acquire 指标中的名称
+     */
+    private static final String CACHE_REBUILD_LOCK = "cache-rebuild";
+
     private static final String UNLOCK_LUA =
             "if redis.call('get', KEYS[1]) == ARGV[1] then " +
                     "  return redis.call('del', KEYS[1]) " +
@@ -1,6 +1,9 @@
 package com.zwz5.common.cache;
 
+import com.zwz5.common.metrics.CacheMetrics;
 import com.zwz5.common.redis.RedisData;
+import com.zwz5.common.redis.RedisNearCache;
+import com.zwz5.common.redis.RedisReadRouter;
 import com.zwz5.common.utils.JsonUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +23,7 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+import static com.zwz5.common.metrics.CacheMetrics.Result.*;
 import static com.zwz5.constants.RedisConstants.CACHE_NULL_TTL;
 
 
@@ -36,6 +40,14 @@ public class RedissonCacheClient implements CacheClient {
     // 避免使用公共 ForkJoinPool，异步任务有自己可观测、可限流的线程池
     private final Executor cacheOpsExecutor;
 
+    private final CacheMetrics cacheMetrics;
+
+    // 允许读旧的读取走 Redis 副本
+    private final RedisReadRouter redisReadRouter;
+
+    // 热点 key 的进程内近端缓存，由 Redis 失效通知保证新鲜
+    private final RedisNearCache redisNearCache;
+
     @Override
     public <T> void set(String key, T value) {
         set(key, value, null, null);
@@ -77,7 +89,7 @@ public class RedissonCacheClient implements CacheClient {
     public String get(String key) {
         Objects.requireNonNull(key, "key must not be null");
         try {
-            return stringRedisTemplate.opsForValue().get(key);
+            return redisNearCache.get(key, redisReadRouter::get);
         } catch (DataAccessException ex) {
             log.warn("Read cache failed. key={}", key, ex);
             return null;
@@ -116,9 +128,10 @@ public class RedissonCacheClient implements CacheClient {
         // 统一锁前缀
         String lockKey = buildLockKey(key);
 
-        // 命中空值缓存，预防缓存穿透
-        String jsonStr = stringRedisTemplate.opsForValue().get(key);
+        // 命中空值缓存，预防缓存穿透；热点 key 优先读近端缓存
+        String jsonStr = redisNearCache.get(key, stringRedisTemplate.opsForValue()::get);
         if (jsonStr != null && jsonStr.isEmpty()) {
+            cacheMetrics.record(prefix, NULL_HIT);
             return null;
         }
 
@@ -129,15 +142,18 @@ public class RedissonCacheClient implements CacheClient {
                 return null;
             }
             if (logicalValue.expireTime() != null && logicalValue.expireTime().isAfter(LocalDateTime.now())) {
+                cacheMetrics.record(prefix, HIT);
                 return logicalValue.value();
             }
             // 已过期：异步重建，但先返回旧值保证可用性
-            triggerAsyncRebuild(key, lockKey, id, dbFallback, dataTtl, nullTtl, timeUnit, type);
+            cacheMetrics.record(prefix, STALE);
+            triggerAsyncRebuild(prefix, key, lockKey, id, dbFallback, dataTtl, nullTtl, timeUnit, type);
             return logicalValue.value();
         }
 
         // 未命中：串行重建（竞争失败则短暂等待他人构建）
-        return rebuildOnMiss(key, lockKey, id, dbFallback, dataTtl, nullTtl, timeUnit, type);
+        cacheMetrics.record(prefix, MISS);
+        return rebuildOnMiss(prefix, key, lockKey, id, dbFallback, dataTtl, nullTtl, timeUnit, type);
     }
 
 
@@ -173,7 +189,8 @@ public class RedissonCacheClient implements CacheClient {
     }
 
     // 异步重建：仅在拿到锁后回源并 double check，避免重复重建
-    private <T, R> void triggerAsyncRebuild(String key,
+    private <T, R> void triggerAsyncRebuild(String prefix,
+                                            String key,
                                             String lockKey,
                                             T id,
                                             Function<T, R> dbFallback,
@@ -196,12 +213,14 @@ public class RedissonCacheClient implements CacheClient {
                     return;
                 }
 
+                long rebuildStart = System.nanoTime();
                 R latestData = dbFallback.apply(id);
                 if (latestData == null) {
                     stringRedisTemplate.opsForValue().set(key, "", nullTtl, timeUnit);
-                    return;
+                } else {
+                    writeLogicalValue(key, latestData, dataTtl, timeUnit);
                 }
-                writeLogicalValue(key, latestData, dataTtl, timeUnit);
+                cacheMetrics.recordRebuild(prefix, rebuildStart);
             } catch (Exception e) {
                 log.error("async rebuild cache failed, key={}", key, e);
             } finally {
@@ -213,7 +232,8 @@ public class RedissonCacheClient implements CacheClient {
     }
 
     // 缓存未命中时的串行重建逻辑，没拿到锁会短暂等待他人重建
-    private <T, R> R rebuildOnMiss(String key,
+    private <T, R> R rebuildOnMiss(String prefix,
+                                   String key,
                                    String lockKey,
                                    T id,
                                    Function<T, R> dbFallback,
@@ -240,12 +260,14 @@ public class RedissonCacheClient implements CacheClient {
                 }
                 return null;
             }
+            long rebuildStart = System.nanoTime();
             R latest = dbFallback.apply(id);
             if (latest == null) {
                 stringRedisTemplate.opsForValue().set(key, "", nullTtl, timeUnit);
-                return null;
+            } else {
+                writeLogicalValue(key, latest, dataTtl, timeUnit);
             }
-            writeLogicalValue(key, latest, dataTtl, timeUnit);
+            cacheMetrics.recordRebuild(prefix, rebuildStart);
             return latest;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -0,0 +1,82 @@
+package com.zwz5.common.cache;
+
+import org.springframework.util.DigestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内 HTTP 响应缓存
+ * 以 "路径?排序后的参数" 为 key 保存序列化好的响应字节，ETag 为响应字节的摘要。
+ * 条目按 TTL 过期；条目数达到上限时先清理过期条目，仍然满则不再写入，避免内存无限增长。
+ */
+public class ResponseCache {
+
+    /**
+     * 缓存条目
+     *
+     * @param body        响应字节
+     * @param contentType 响应类型
+     * @param etag        带双引号的 ETag
+     * @param expireAt    过期时间戳（毫秒）
+     */
+    public record Entry(byte[] body, String contentType, String etag, long expireAt) {
+
+        boolean isExpired(long now) {
+            return now >= expireAt;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    public ResponseCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public static String etagOf(byte[] body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    public Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @return 写入的条目；缓存已满时返回 null
+     */
+    public Entry put(String key, byte[] body, String contentType, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            entries.values().removeIf(e -> e.isExpired(now));
+            if (entries.size() >= maxEntries) {
+                return null;
+            }
+        }
+        Entry entry = new Entry(body, contentType, etagOf(body), now + ttlMillis);
+        entries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * 删除某个路径下所有参数组合的缓存
+     */
+    public void evict(String path) {
+        String prefix = path + "?";
+        entries.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.zwz5.common.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.DigestUtils;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 进程内只读参考数据目录
+ * 适用于很少变化的字典类数据（如商铺类型）：加载一次后以不可变快照常驻内存，
+ * 同时保存序列化好的响应字节和 ETag，读取时不需要访问 Redis，也不需要重复序列化。
+ * 刷新时只有内容变化才发布新版本，读线程通过 volatile 引用看到完整的新快照。
+ *
+ * @param <T> 数据类型，调用方应保证其不可变
+ */
+@Slf4j
+public class ReferenceCatalog<T> {
+
+    /**
+     * 目录快照
+     *
+     * @param version 版本号，内容每变化一次加一
+     * @param data    数据
+     * @param body    预先序列化的响应字节
+     * @param etag    响应字节的摘要，带双引号，可直接写入响应头
+     */
+    public record Snapshot<T>(long version, T data, byte[] body, String etag) {
+    }
+
+    private final String name;
+    private final Supplier<T> loader;
+    private final Function<T, byte[]> serializer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Snapshot<T> snapshot;
+
+    public ReferenceCatalog(String name, Supplier<T> loader, Function<T, byte[]> serializer) {
+        this.name = name;
+        this.loader = loader;
+        this.serializer = serializer;
+    }
+
+    /**
+     * 获取当前快照，首次访问时同步加载
+     */
+    public Snapshot<T> get() {
+        Snapshot<T> current = snapshot;
+        if (current == null) {
+            lock.lock();
+            try {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 重新加载数据，内容变化时发布新版本
+     *
+     * @return 是否发布了新版本
+     */
+    public boolean refresh() {
+        // 加载过程会访问 DB，使用 ReentrantLock 而不是 synchronized，虚拟线程等待时不会固定载体线程
+        lock.lock();
+        try {
+            T data = loader.get();
+            byte[] body = serializer.apply(data);
+            String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+            Snapshot<T> old = snapshot;
+            if (old != null && old.etag().equals(etag)) {
+                return false;
+            }
+            long version = old == null ? 1 : old.version() + 1;
+            snapshot = new Snapshot<>(version, data, body, etag);
+            log.info("reference catalog {} refreshed, version={}", name, version);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
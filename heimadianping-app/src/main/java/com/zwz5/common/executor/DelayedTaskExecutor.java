@@ -0,0 +1,58 @@
+package com.zwz5.common.executor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 延迟任务执行器
+ * 延迟双删这类"过一会儿再执行"的任务交给定时线程，等待期间不占用任何线程。
+ * 不暴露为 TaskScheduler/ScheduledExecutorService 类型的 bean，避免影响 @Scheduled 使用的调度器。
+ */
+@Slf4j
+public class DelayedTaskExecutor {
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public DelayedTaskExecutor(String name, int poolSize, MeterRegistry meterRegistry) {
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + seq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+        this.rejected = Counter.builder("executor.rejected").tag("name", name).register(meterRegistry);
+        Gauge.builder("executor.queue.depth", executor, e -> e.getQueue().size())
+                .tag("name", name).register(meterRegistry);
+    }
+
+    /**
+     * 延迟执行任务，任务异常只记录日志
+     */
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        try {
+            executor.schedule(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error("delayed task failed", e);
+                }
+            }, delay, unit);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("delayed task rejected", e);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
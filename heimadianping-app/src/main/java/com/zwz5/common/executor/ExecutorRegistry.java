@@ -0,0 +1,167 @@
+package com.zwz5.common.executor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按业务隔离的线程池注册表
+ * 每类任务使用独立的线程池（舱壁），某一类任务积压不会拖垮其他任务。注册的线程池统一提供：
+ * 1. 指标：排队耗时 executor.task.wait、执行耗时 executor.task.duration、拒绝次数 executor.rejected、
+ *    队列深度 executor.queue.depth，按 name 打标签，通过 /actuator/prometheus 导出；
+ * 2. 运行时调整 core/max；
+ * 3. 自适应：队列持续积压时逐步调大 core，空闲时逐步回落到初始值。
+ */
+@Slf4j
+public class ExecutorRegistry {
+
+    /**
+     * 线程池配置
+     *
+     * @param coreSize      初始核心线程数，自适应调整的下限
+     * @param maxSize       最大线程数，自适应调整的上限
+     * @param queueCapacity 队列容量
+     */
+    public record PoolSpec(int coreSize, int maxSize, int queueCapacity) {
+    }
+
+    /**
+     * 线程池状态
+     */
+    public record PoolStatus(String name, int coreSize, int maxSize, int poolSize, int active,
+                             int queued, int queueCapacity, long completed, double rejected) {
+    }
+
+    private record Pool(ThreadPoolTaskExecutor executor, PoolSpec spec, Counter rejected) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    public ExecutorRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 创建并注册线程池
+     *
+     * @param decorator       任务装饰器（如传递登录用户），可为 null
+     * @param rejectionPolicy 拒绝策略，拒绝次数会先计入指标再交给该策略
+     */
+    public ThreadPoolTaskExecutor create(String name, PoolSpec spec, TaskDecorator decorator,
+                                         RejectedExecutionHandler rejectionPolicy) {
+        Counter rejected = Counter.builder("executor.rejected").tag("name", name).register(meterRegistry);
+        Timer wait = Timer.builder("executor.task.wait").tag("name", name)
+                .publishPercentiles(0.5, 0.99).register(meterRegistry);
+        Timer duration = Timer.builder("executor.task.duration").tag("name", name)
+                .publishPercentiles(0.5, 0.99).register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(spec.coreSize());
+        executor.setMaxPoolSize(spec.maxSize());
+        executor.setQueueCapacity(spec.queueCapacity());
+        executor.setThreadNamePrefix(name + "-");
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setTaskDecorator(task -> {
+            Runnable runnable = decorator == null ? task : decorator.decorate(task);
+            long submitted = System.nanoTime();
+            return () -> {
+                long start = System.nanoTime();
+                wait.record(start - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    runnable.run();
+                } finally {
+                    duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            };
+        });
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            rejectionPolicy.rejectedExecution(task, pool);
+        });
+        executor.initialize();
+
+        Gauge.builder("executor.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .tag("name", name).register(meterRegistry);
+        Gauge.builder("executor.active.threads", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("name", name).register(meterRegistry);
+        pools.put(name, new Pool(executor, spec, rejected));
+        return executor;
+    }
+
+    public Collection<String> names() {
+        return pools.keySet();
+    }
+
+    public Map<String, PoolStatus> status() {
+        Map<String, PoolStatus> result = new LinkedHashMap<>();
+        pools.forEach((name, pool) -> result.put(name, statusOf(name, pool)));
+        return result;
+    }
+
+    /**
+     * 运行时调整线程数
+     *
+     * @return 调整后的状态，线程池不存在时返回 null
+     */
+    public PoolStatus resize(String name, int coreSize, int maxSize) {
+        Pool pool = pools.get(name);
+        if (pool == null) {
+            return null;
+        }
+        if (coreSize < 1 || maxSize < coreSize) {
+            throw new IllegalArgumentException("线程数需满足 1 <= core <= max");
+        }
+        ThreadPoolTaskExecutor executor = pool.executor();
+        // 先调大 max 再调 core，避免 core > max 抛异常
+        if (maxSize >= executor.getMaxPoolSize()) {
+            executor.setMaxPoolSize(maxSize);
+            executor.setCorePoolSize(coreSize);
+        } else {
+            executor.setCorePoolSize(coreSize);
+            executor.setMaxPoolSize(maxSize);
+        }
+        log.info("executor {} resized, core={}, max={}", name, coreSize, maxSize);
+        return statusOf(name, pool);
+    }
+
+    /**
+     * 自适应调整核心线程数
+     * ThreadPoolExecutor 只有队列满了才会创建超过 core 的线程，队列有积压时任务只能排队；
+     * 这里在积压超过队列一半时把 core 加一，空闲时减一，范围为 [初始 core, max]。
+     */
+    public void adapt() {
+        pools.forEach((name, pool) -> {
+            ThreadPoolExecutor tpe = pool.executor().getThreadPoolExecutor();
+            int core = tpe.getCorePoolSize();
+            int queued = tpe.getQueue().size();
+            int capacity = queued + tpe.getQueue().remainingCapacity();
+            if (capacity > 0 && queued * 2 > capacity && core < tpe.getMaximumPoolSize()) {
+                pool.executor().setCorePoolSize(core + 1);
+                log.info("executor {} backlog {}/{}, core -> {}", name, queued, capacity, core + 1);
+            } else if (queued == 0 && tpe.getActiveCount() < core / 2 && core > pool.spec().coreSize()) {
+                pool.executor().setCorePoolSize(core - 1);
+            }
+        });
+    }
+
+    private PoolStatus statusOf(String name, Pool pool) {
+        ThreadPoolExecutor tpe = pool.executor().getThreadPoolExecutor();
+        return new PoolStatus(name, tpe.getCorePoolSize(), tpe.getMaximumPoolSize(), tpe.getPoolSize(),
+                tpe.getActiveCount(), tpe.getQueue().size(), pool.spec().queueCapacity(),
+                tpe.getCompletedTaskCount(), pool.rejected().count());
+    }
+}
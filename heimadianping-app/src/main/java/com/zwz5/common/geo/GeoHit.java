@@ -0,0 +1,16 @@
+package com.zwz5.common.geo;
+
+import java.util.Comparator;
+
+/**
+ * 地理查询命中结果
+ *
+ * @param id       店铺id
+ * @param distance 距离（米）
+ */
+public record GeoHit(long id, double distance) {
+
+    // 距离相同按 id 排序，保证分页顺序稳定
+    public static final Comparator<GeoHit> ORDER =
+            Comparator.comparingDouble(GeoHit::distance).thenComparingLong(GeoHit::id);
+}
@@ -0,0 +1,105 @@
+package com.zwz5.common.geo;
+
+/**
+ * 经纬度计算工具：球面距离与 geohash 编解码
+ */
+public final class GeoUtils {
+
+    // 与 Redis GEO 使用的地球半径保持一致，距离结果与 GEOSEARCH 对齐
+    public static final double EARTH_RADIUS_METERS = 6372797.560856;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private GeoUtils() {
+    }
+
+    /**
+     * 两点间球面距离（米），haversine 公式
+     */
+    public static double distance(double lon1, double lat1, double lon2, double lat2) {
+        double rLat1 = Math.toRadians(lat1);
+        double rLat2 = Math.toRadians(lat2);
+        double dLat = rLat2 - rLat1;
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(rLat1) * Math.cos(rLat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+    }
+
+    /**
+     * geohash 编码
+     *
+     * @param precision 字符数，6 位约 1.2km x 0.6km
+     */
+    public static String geohash(double lon, double lat, int precision) {
+        double minLon = -180, maxLon = 180, minLat = -90, maxLat = 90;
+        StringBuilder sb = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+        while (sb.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (lon >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                sb.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * geohash 对应的经纬度范围
+     *
+     * @return {minLon, minLat, maxLon, maxLat}
+     */
+    public static double[] bounds(String geohash) {
+        double minLon = -180, maxLon = 180, minLat = -90, maxLat = 90;
+        boolean evenBit = true;
+        for (int i = 0; i < geohash.length(); i++) {
+            int ch = BASE32.indexOf(geohash.charAt(i));
+            if (ch < 0) {
+                throw new IllegalArgumentException("invalid geohash: " + geohash);
+            }
+            for (int n = 4; n >= 0; n--) {
+                int bit = (ch >> n) & 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (bit == 1) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (bit == 1) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[]{minLon, minLat, maxLon, maxLat};
+    }
+}
@@ -0,0 +1,68 @@
+package com.zwz5.common.geo;
+
+import java.util.*;
+
+/**
+ * 进程内的经纬度网格索引
+ * 按固定经纬度步长把点划分到网格，查询时只遍历覆盖查询圆外接矩形的网格，再按精确距离过滤。
+ * 构建后不可变，更新时整体替换，读操作无锁。
+ */
+public final class GridIndex {
+
+    public record Point(long id, double x, double y) {
+    }
+
+    private final double cellDegrees;
+    private final Map<Long, List<Point>> cells;
+    private final int size;
+
+    public GridIndex(Collection<Point> points, double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        Map<Long, List<Point>> map = new HashMap<>();
+        for (Point p : points) {
+            map.computeIfAbsent(cellKey(index(p.x()), index(p.y())), k -> new ArrayList<>()).add(p);
+        }
+        this.cells = map;
+        this.size = points.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 查询距离 (x, y) 不超过 radius 米的点，按距离升序、id 升序排列
+     */
+    public List<GeoHit> within(double x, double y, double radius) {
+        double dLat = Math.toDegrees(radius / GeoUtils.EARTH_RADIUS_METERS);
+        double cos = Math.max(Math.cos(Math.toRadians(y)), 1e-6);
+        double dLon = Math.min(180, dLat / cos);
+        int minX = index(x - dLon), maxX = index(x + dLon);
+        int minY = index(y - dLat), maxY = index(y + dLat);
+        List<GeoHit> hits = new ArrayList<>();
+        for (int i = minX; i <= maxX; i++) {
+            for (int j = minY; j <= maxY; j++) {
+                List<Point> points = cells.get(cellKey(i, j));
+                if (points == null) {
+                    continue;
+                }
+                for (Point p : points) {
+                    double d = GeoUtils.distance(x, y, p.x(), p.y());
+                    if (d <= radius) {
+                        hits.add(new GeoHit(p.id(), d));
+                    }
+                }
+            }
+        }
+        hits.sort(GeoHit.ORDER);
+        return hits;
+    }
+
+    private int index(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(int xIndex, int yIndex) {
+        return ((long) xIndex << 32) | (yIndex & 0xFFFFFFFFL);
+    }
+}
@@ -1,5 +1,6 @@
 package com.zwz5.common.lock;
 
+import com.zwz5.common.metrics.LockMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -33,10 +34,13 @@ public class SimpleRedisLock implements Ilock {
 
     @Override
     public boolean tryLock(long timeout) {
+        long start = System.nanoTime();
         String threadId = ID_PREFIX + Thread.currentThread().getId();
         Boolean success = stringRedisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + name, threadId, timeout, TimeUnit.SECONDS);
         // 自动拆箱防止空异常 success != null && success：
-        return Boolean.TRUE.equals(success);
+        boolean acquired = Boolean.TRUE.equals(success);
+        LockMetrics.recordAcquire(name, acquired, start);
+        return acquired;
     }
 
     /**
@@ -0,0 +1,79 @@
+package com.zwz5.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存客户端指标
+ * - cache.requests{cache, result}：按缓存前缀统计 hit / miss / stale（逻辑过期）/ null（空值缓存）次数；
+ * - cache.rebuild{cache}：回源数据库并写回缓存的耗时。
+ * 前缀数量有限，Meter 按前缀缓存在 Map 中，热路径上只有一次 Map 查找和一次原子累加。
+ */
+@Component
+public class CacheMetrics {
+
+    public enum Result {
+        HIT("hit"), MISS("miss"), STALE("stale"), NULL_HIT("null");
+
+        private final String tag;
+
+        Result(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> rebuildTimers = new ConcurrentHashMap<>();
+
+    public CacheMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String prefix, Result result) {
+        record(prefix, result, 1);
+    }
+
+    public void record(String prefix, Result result, int count) {
+        if (count > 0) {
+            countersOf(prefix)[result.ordinal()].increment(count);
+        }
+    }
+
+    /**
+     * 记录一次缓存重建耗时
+     *
+     * @param startNanos System.nanoTime() 记录的开始时间
+     */
+    public void recordRebuild(String prefix, long startNanos) {
+        rebuildTimers.computeIfAbsent(prefix, p -> Timer.builder("cache.rebuild")
+                        .tag("cache", p)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Counter[] countersOf(String prefix) {
+        Counter[] array = counters.get(prefix);
+        if (array != null) {
+            return array;
+        }
+        return counters.computeIfAbsent(prefix, p -> {
+            Result[] results = Result.values();
+            Counter[] created = new Counter[results.length];
+            for (Result result : results) {
+                created[result.ordinal()] = Counter.builder("cache.requests")
+                        .tag("cache", p)
+                        .tag("result", result.tag)
+                        .register(meterRegistry);
+            }
+            return created;
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.zwz5.common.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式锁指标
+ * lock.acquire{lock, result}：获取锁的耗时分布，result 为 acquired / failed。
+ * SimpleRedisLock 在业务代码中直接 new，无法注入 MeterRegistry，这里使用 Spring Boot 绑定的全局注册表。
+ * lock 标签只取锁名第一个冒号前的部分（如 order:1001 记为 order），避免按用户id产生大量时间序列。
+ */
+public final class LockMetrics {
+
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    private LockMetrics() {
+    }
+
+    /**
+     * @param lockName   锁名称
+     * @param acquired   是否获取成功
+     * @param startNanos System.nanoTime() 记录的开始时间
+     */
+    public static void recordAcquire(String lockName, boolean acquired, long startNanos) {
+        String type = typeOf(lockName);
+        String key = acquired ? type : type + "#failed";
+        TIMERS.computeIfAbsent(key, k -> Timer.builder("lock.acquire")
+                        .tag("lock", type)
+                        .tag("result", acquired ? "acquired" : "failed")
+                        .publishPercentileHistogram()
+                        .register(Metrics.globalRegistry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    static String typeOf(String lockName) {
+        int idx = lockName.indexOf(':');
+        return idx < 0 ? lockName : lockName.substring(0, idx);
+    }
+}
@@ -0,0 +1,67 @@
+package com.zwz5.common.metrics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 慢 SQL 采样环形缓冲
+ * 固定容量，写满后覆盖最旧的记录；写入只有一次自增和一次数组写，不加锁。
+ */
+public class SlowQueryLog {
+
+    /**
+     * 慢 SQL 记录
+     *
+     * @param statement MappedStatement id（去掉包名）
+     * @param sql       压缩空白后的 SQL
+     * @param params    按占位符顺序的参数值
+     * @param elapsedMs 执行耗时
+     * @param rows      返回或影响的行数
+     * @param time      完成时间
+     * @param thread    执行线程
+     */
+    public record SlowQuery(String statement, String sql, List<String> params, long elapsedMs, long rows,
+                            Instant time, String thread) {
+    }
+
+    private final AtomicReferenceArray<SlowQuery> slots;
+    private final AtomicLong cursor = new AtomicLong();
+
+    public SlowQueryLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(SlowQuery query) {
+        long index = cursor.getAndIncrement();
+        slots.set((int) (index % slots.length()), query);
+    }
+
+    /**
+     * @return 缓冲中的记录，最新的在前
+     */
+    public List<SlowQuery> snapshot() {
+        long end = cursor.get();
+        int count = (int) Math.min(end, slots.length());
+        List<SlowQuery> result = new ArrayList<>(count);
+        for (long i = end - 1; i >= end - count; i--) {
+            SlowQuery query = slots.get((int) (i % slots.length()));
+            if (query != null) {
+                result.add(query);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return 累计采样次数，包括已被覆盖的
+     */
+    public long total() {
+        return cursor.get();
+    }
+}
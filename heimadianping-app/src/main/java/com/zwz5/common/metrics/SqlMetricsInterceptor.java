@@ -0,0 +1,186 @@
+package com.zwz5.common.metrics;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL 执行指标
+ * 拦截 StatementHandler 的 query / update，只统计真正发到数据库的语句（含分页插件的 count 查询），
+ * 不含一级缓存命中；获取连接的等待由 HikariCP 自带的 hikaricp.connections.acquire 统计。
+ * sql.statement{statement}：语句执行耗时分布
+ * sql.statement.rows{statement}：返回或影响的行数分布
+ * 执行抛出异常的语句（如锁等待超时）同样计时并进入慢 SQL 记录，行数只统计执行成功的语句。
+ * 耗时超过阈值的语句连同参数写入 SlowQueryLog，参数只在慢路径上解析；
+ * 参数可能包含手机号、验证码等敏感数据，默认只记录类型，show-params 开启后才记录取值。
+ * statement 标签为 Mapper 简单类名.方法名（如 UserMapper.selectById），数量与 Mapper 方法数一致。
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+@Slf4j
+public class SqlMetricsInterceptor implements Interceptor {
+
+    // 单个参数值的最大长度，避免大字段撑满缓冲
+    private static final int MAX_PARAM_LENGTH = 200;
+
+    private final MeterRegistry meterRegistry;
+    private final SlowQueryLog slowQueryLog;
+    private final long slowThresholdNanos;
+    private final boolean showParams;
+
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    private record Meters(Timer timer, DistributionSummary rows) {
+    }
+
+    public SqlMetricsInterceptor(MeterRegistry meterRegistry, SlowQueryLog slowQueryLog, long slowThresholdMs,
+                                 boolean showParams) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryLog = slowQueryLog;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.showParams = showParams;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        Object result = null;
+        boolean completed = false;
+        try {
+            result = invocation.proceed();
+            completed = true;
+            return result;
+        } finally {
+            try {
+                record(invocation, result, completed, System.nanoTime() - start);
+            } catch (RuntimeException e) {
+                // 统计失败不影响 SQL 执行结果，也不掩盖执行本身的异常
+                log.warn("record sql metrics failed", e);
+            }
+        }
+    }
+
+    /**
+     * @param completed false 表示执行抛出异常，只计时不统计行数
+     */
+    private void record(Invocation invocation, Object result, boolean completed, long elapsed) {
+        StatementHandler handler = PluginUtils.realTarget(invocation.getTarget());
+        PluginUtils.MPStatementHandler mpHandler = PluginUtils.mpStatementHandler(handler);
+        MappedStatement ms = mpHandler.mappedStatement();
+        String statement = shortId(ms.getId());
+        long rows = rows(result);
+        Meters m = meters.computeIfAbsent(statement, this::register);
+        m.timer().record(elapsed, TimeUnit.NANOSECONDS);
+        if (completed) {
+            m.rows().record(rows);
+        }
+        if (elapsed >= slowThresholdNanos) {
+            BoundSql boundSql = mpHandler.boundSql();
+            slowQueryLog.add(new SlowQueryLog.SlowQuery(
+                    statement,
+                    boundSql.getSql().replaceAll("\\s+", " ").trim(),
+                    params(ms.getConfiguration(), boundSql, showParams),
+                    TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    rows,
+                    Instant.now(),
+                    Thread.currentThread().getName()));
+        }
+    }
+
+    private Meters register(String statement) {
+        return new Meters(
+                Timer.builder("sql.statement")
+                        .tag("statement", statement)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry),
+                DistributionSummary.builder("sql.statement.rows")
+                        .tag("statement", statement)
+                        .register(meterRegistry));
+    }
+
+    /**
+     * com.zwz5.mapper.UserMapper.selectById -> UserMapper.selectById
+     * 分页插件生成的 count 语句保留 _mpCount 后缀
+     */
+    static String shortId(String id) {
+        int method = id.lastIndexOf('.');
+        if (method <= 0) {
+            return id;
+        }
+        int type = id.lastIndexOf('.', method - 1);
+        return id.substring(type + 1);
+    }
+
+    static long rows(Object result) {
+        if (result instanceof Collection<?> list) {
+            return list.size();
+        }
+        if (result instanceof Integer count) {
+            return count;
+        }
+        return 0;
+    }
+
+    /**
+     * 按 DefaultParameterHandler 的取值规则解析占位符参数
+     *
+     * @param showValues false 时只返回参数类型
+     */
+    static List<String> params(Configuration configuration, BoundSql boundSql, boolean showValues) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        List<String> values = new ArrayList<>(mappings.size());
+        Object parameterObject = boundSql.getParameterObject();
+        MetaObject metaObject = null;
+        for (ParameterMapping mapping : mappings) {
+            if (mapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameterObject == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                value = parameterObject;
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameterObject);
+                }
+                value = metaObject.getValue(property);
+            }
+            if (!showValues) {
+                values.add(value == null ? "null" : value.getClass().getSimpleName());
+                continue;
+            }
+            String text = String.valueOf(value);
+            values.add(text.length() > MAX_PARAM_LENGTH ? text.substring(0, MAX_PARAM_LENGTH) + "..." : text);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,41 @@
+package com.zwz5.common.redis;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Redis 节点地址映射
+ * Sentinel / 主节点 INFO 返回的是 Docker 内网地址（如 172.30.0.11:6381），本机运行应用时连不上，
+ * 需要映射成宿主机端口。配置格式：172.30.0.10:6380=127.0.0.1:6380,172.30.0.11:6381=127.0.0.1:6381
+ */
+public final class RedisAddressMappings {
+
+    private RedisAddressMappings() {
+    }
+
+    /**
+     * @return host:port -> host:port，配置为空时返回空 Map
+     */
+    public static Map<String, String> parse(String config) {
+        if (config == null || config.isBlank()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> mappings = new LinkedHashMap<>();
+        for (String item : config.split(",")) {
+            String[] pair = item.trim().split("=", 2);
+            if (pair.length != 2 || pair[0].isBlank() || pair[1].isBlank()) {
+                throw new IllegalArgumentException("Redis 地址映射格式错误：" + item);
+            }
+            mappings.put(pair[0].trim(), pair[1].trim());
+        }
+        return mappings;
+    }
+
+    /**
+     * 按映射转换地址，没有配置映射的地址原样返回
+     */
+    public static String map(Map<String, String> mappings, String host, int port) {
+        return mappings.getOrDefault(host + ":" + port, host + ":" + port);
+    }
+}
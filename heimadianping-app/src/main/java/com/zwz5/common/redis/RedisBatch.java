@@ -0,0 +1,91 @@
+package com.zwz5.common.redis;
+
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Redis 命令批量提交
+ * 收集一组相互独立的命令，flush 时通过一次 pipeline 发送，每条命令的结果由 add 返回的 CompletableFuture 获取。
+ * 命令数达到上限时自动提交一批，避免一次推送给大量粉丝时占用过多内存和 Redis 输出缓冲区。
+ * 非线程安全，在单个方法内创建和使用；多个线程的并发命令已由 Lettuce 共享连接自动流水线发送，不在这里合并。
+ */
+public class RedisBatch {
+
+    public static final int DEFAULT_MAX_COMMANDS = 1000;
+
+    private final StringRedisTemplate template;
+    private final int maxCommands;
+    private final List<Consumer<StringRedisConnection>> commands = new ArrayList<>();
+    private final List<CompletableFuture<Object>> results = new ArrayList<>();
+
+    public RedisBatch(StringRedisTemplate template, int maxCommands) {
+        this.template = template;
+        this.maxCommands = maxCommands;
+    }
+
+    public static RedisBatch of(StringRedisTemplate template) {
+        return new RedisBatch(template, DEFAULT_MAX_COMMANDS);
+    }
+
+    /**
+     * 在一个 pipeline 中执行 scope 内添加的全部命令
+     *
+     * @return 各命令的结果，顺序与添加顺序一致
+     */
+    public static List<Object> execute(StringRedisTemplate template, Consumer<RedisBatch> scope) {
+        RedisBatch batch = of(template);
+        scope.accept(batch);
+        return batch.flush();
+    }
+
+    /**
+     * 添加一条命令，pipeline 中命令的直接返回值总是 null，结果在 flush 后通过 future 获取
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> add(Consumer<StringRedisConnection> command) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        commands.add(command);
+        results.add(result);
+        if (commands.size() >= maxCommands) {
+            flush();
+        }
+        return (CompletableFuture<T>) result;
+    }
+
+    /**
+     * 发送尚未提交的命令，任一命令失败时所有 future 以同一个异常结束
+     *
+     * @return 本次发送的命令结果
+     */
+    public List<Object> flush() {
+        if (commands.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Consumer<StringRedisConnection>> pending = new ArrayList<>(commands);
+        List<CompletableFuture<Object>> futures = new ArrayList<>(results);
+        commands.clear();
+        results.clear();
+        List<Object> values;
+        try {
+            values = template.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                pending.forEach(command -> command.accept(conn));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            futures.forEach(future -> future.completeExceptionally(e));
+            throw e;
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            futures.get(i).complete(i < values.size() ? values.get(i) : null);
+        }
+        return values;
+    }
+}
@@ -1,5 +1,7 @@
 package com.zwz5.common.redis;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -8,6 +10,9 @@ import org.springframework.stereotype.Component;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
@@ -19,8 +24,13 @@ public class RedisIdWorker {
     private static final int bits = 32;
 
     private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // id.generate{prefix}：每次生成都要一次 INCR 往返，按业务前缀统计耗时
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
 
     public long nextId(String prefix) {
+        long start = System.nanoTime();
         // 1.生成时间戳
         LocalDateTime now = LocalDateTime.now();
         long now_second = now.toEpochSecond(ZoneOffset.UTC);
@@ -30,7 +40,17 @@ public class RedisIdWorker {
         String date = now.format(DateTimeFormatter.BASIC_ISO_DATE);
 
         Long count = stringRedisTemplate.opsForValue().increment("icr:" + prefix + ":" + date);
+        timers.computeIfAbsent(prefix, p -> Timer.builder("id.generate").tag("prefix", p).register(meterRegistry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         return timestamp << bits | count;
     }
 
+    /**
+     * id 生成至今经过的秒数，与 nextId 使用同一个时钟换算
+     */
+    public static long ageSeconds(long id) {
+        long nowSecond = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC) - BEGIN_TIMESTAMP;
+        return nowSecond - (id >>> bits);
+    }
+
 }
@@ -0,0 +1,121 @@
+package com.zwz5.common.redis;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 集群模式下的多 key 读取
+ * Redis Cluster 中 MGET 等多 key 命令要求所有 key 在同一个槽，跨槽会报 CROSSSLOT。
+ * 这里在客户端按槽分组，每组一次 MGET；同一节点上的各组顺序执行，不同节点并行执行，最后按原顺序合并。
+ * 单机、哨兵部署直接 MGET。
+ * 需要原子性的多 key 操作（Lua 脚本）应通过 {hashtag} 让 key 落在同一个槽，见 RedisConstants。
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisMultiKey {
+
+    private static final int SLOT_COUNT = 16384;
+
+    private final Executor cacheOpsExecutor;
+
+    /**
+     * 批量读取
+     *
+     * @return 与 keys 一一对应，不存在为 null
+     */
+    public List<String> multiGet(StringRedisTemplate template, List<String> keys) {
+        if (keys.isEmpty() || !isCluster(template)) {
+            return template.opsForValue().multiGet(keys);
+        }
+        // 1.按槽分组，记录每个 key 的原始位置
+        Map<Integer, List<Integer>> bySlot = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            bySlot.computeIfAbsent(slot(keys.get(i)), s -> new ArrayList<>()).add(i);
+        }
+        if (bySlot.size() == 1) {
+            return template.opsForValue().multiGet(keys);
+        }
+        // 2.槽按所在节点分组
+        Map<RedisClusterNode, List<List<Integer>>> byNode = new LinkedHashMap<>();
+        try (RedisClusterConnection connection = template.getRequiredConnectionFactory().getClusterConnection()) {
+            bySlot.forEach((slot, indexes) ->
+                    byNode.computeIfAbsent(connection.clusterGetNodeForSlot(slot), n -> new ArrayList<>()).add(indexes));
+        }
+        // 3.各节点并行，节点内逐槽 MGET
+        String[] result = new String[keys.size()];
+        List<CompletableFuture<Void>> futures = new ArrayList<>(byNode.size());
+        for (List<List<Integer>> groups : byNode.values()) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (List<Integer> indexes : groups) {
+                    List<String> values = template.opsForValue().multiGet(indexes.stream().map(keys::get).toList());
+                    for (int i = 0; values != null && i < indexes.size(); i++) {
+                        result[indexes.get(i)] = values.get(i);
+                    }
+                }
+            }, cacheOpsExecutor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        return Arrays.asList(result);
+    }
+
+    /**
+     * 是否连接的是 Redis Cluster
+     */
+    public boolean isCluster(StringRedisTemplate template) {
+        RedisConnectionFactory factory = template.getConnectionFactory();
+        return factory instanceof LettuceConnectionFactory lettuce && lettuce.isClusterAware();
+    }
+
+    /**
+     * key 所在的槽：有 {hashtag} 时只对花括号内的部分计算 CRC16
+     */
+    public static int slot(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        int start = 0;
+        int end = bytes.length;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '{') {
+                for (int j = i + 1; j < bytes.length; j++) {
+                    if (bytes[j] == '}') {
+                        // 空的 {} 不算 hashtag
+                        if (j > i + 1) {
+                            start = i + 1;
+                            end = j;
+                        }
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        return crc16(bytes, start, end) % SLOT_COUNT;
+    }
+
+    /**
+     * CRC16-CCITT (XMODEM)，与 Redis Cluster 使用的算法一致
+     */
+    private static int crc16(byte[] bytes, int start, int end) {
+        int crc = 0;
+        for (int i = start; i < end; i++) {
+            crc ^= (bytes[i] & 0xFF) << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+        }
+        return crc & 0xFFFF;
+    }
+}
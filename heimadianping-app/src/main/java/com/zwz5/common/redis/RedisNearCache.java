@@ -0,0 +1,216 @@
+package com.zwz5.common.redis;
+
+import com.zwz5.common.cache.NearCache;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 基于 RESP3 客户端缓存的近端缓存
+ * 开启 hmdp.redis.near-cache.enabled 后，单独建立一条到主节点的 RESP3 连接，以 BCAST 模式对配置的前缀开启
+ * CLIENT TRACKING：任何连接修改、删除或过期了这些前缀下的 key，Redis 都会推送 invalidate 消息，收到后删除本地条目。
+ * 1. 未命中时从主节点读取；副本可能落后于失效通知，从副本读取的旧值会在本地一直保留。
+ * 2. 连接断开期间收不到通知，断开时清空本地缓存并停止使用，重连后重新开启 tracking 再恢复。
+ * 3. 本地写入后的失效通知是异步到达的，同一实例写后立即读可能在通知到达前读到旧值。
+ * 未开启或 key 不在配置的前缀下时，直接使用调用方提供的读取方式。
+ * BCAST 按前缀推送失效通知，前缀之外的 key 不会产生通知流量：默认前缀为 cache:shop:1 ~ cache:shop:9，
+ * 只覆盖店铺详情 cache:shop:{id}，不包含同样以 cache:shop: 开头的 cache:shop:geo:*、cache:shop:voucher*。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisNearCache {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisProperties redisProperties;
+    private final ObjectProvider<ClientResources> clientResources;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${hmdp.redis.near-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${hmdp.redis.near-cache.prefixes:cache:shop:1,cache:shop:2,cache:shop:3,cache:shop:4,cache:shop:5,"
+            + "cache:shop:6,cache:shop:7,cache:shop:8,cache:shop:9}")
+    private String[] prefixes;
+
+    @Value("${hmdp.redis.near-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${hmdp.redis.near-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private RedisClient client;
+    private StatefulRedisConnection<String, String> connection;
+    private NearCache cache;
+    // 只有 tracking 处于开启状态时才使用本地缓存
+    private volatile boolean tracking;
+
+    @PostConstruct
+    private void init() {
+        if (!enabled) {
+            return;
+        }
+        cache = new NearCache(maxEntries, TimeUnit.SECONDS.toMillis(ttlSeconds));
+        ClientResources resources = clientResources.getIfAvailable();
+        client = resources == null ? RedisClient.create(redisUri()) : RedisClient.create(resources, redisUri());
+        client.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP3).build());
+        client.addListener(new RedisConnectionStateListener() {
+            @Override
+            public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress address) {
+                // 首次连接由 init 同步开启，这里只处理重连
+                if (connection != null) {
+                    enableTrackingAsync();
+                }
+            }
+
+            @Override
+            public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+                tracking = false;
+                cache.invalidateAll();
+            }
+        });
+        try {
+            connection = client.connect();
+            connection.addListener(this::onPushMessage);
+            connection.sync().clientTracking(trackingArgs());
+            tracking = true;
+        } catch (RedisException e) {
+            // Redis 6 以下不支持 RESP3 / CLIENT TRACKING，退化为直接读取
+            log.warn("enable redis client tracking failed, near cache disabled", e);
+            destroy();
+            return;
+        }
+
+        FunctionCounter.builder("near.cache.requests", cache, NearCache::hitCount)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("near.cache.requests", cache, NearCache::missCount)
+                .tag("result", "miss").register(meterRegistry);
+        Gauge.builder("near.cache.size", cache, NearCache::size).register(meterRegistry);
+        Gauge.builder("near.cache.tracking", this, c -> c.tracking ? 1 : 0).register(meterRegistry);
+        log.info("redis near cache enabled, prefixes={}", List.of(prefixes));
+    }
+
+    @PreDestroy
+    private void destroy() {
+        tracking = false;
+        if (connection != null) {
+            connection.close();
+        }
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    /**
+     * 读取字符串
+     *
+     * @param fallback 未开启近端缓存或 key 不在配置前缀下时的读取方式
+     */
+    public String get(String key, Function<String, String> fallback) {
+        if (!tracking || !matches(key)) {
+            return fallback.apply(key);
+        }
+        return cache.get(key, k -> stringRedisTemplate.opsForValue().get(k));
+    }
+
+    /**
+     * key 当前是否由近端缓存读取，调用方可据此选择绕开近端缓存的读取方式（如按字节读取）
+     */
+    public boolean covers(String key) {
+        return tracking && matches(key);
+    }
+
+    private boolean matches(String key) {
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * invalidate 消息内容为 ["invalidate", [key...]]，key 列表为 null 表示全部失效
+     */
+    @SuppressWarnings("unchecked")
+    private void onPushMessage(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        if (keys == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate((List<String>) keys);
+        }
+    }
+
+    private void enableTrackingAsync() {
+        connection.async().clientTracking(trackingArgs()).whenComplete((ok, e) -> {
+            if (e != null) {
+                log.warn("re-enable redis client tracking failed", e);
+                return;
+            }
+            // 断开期间可能漏收通知，恢复前再清空一次
+            cache.invalidateAll();
+            tracking = true;
+        });
+    }
+
+    private TrackingArgs trackingArgs() {
+        return TrackingArgs.Builder.enabled().bcast().prefixes(prefixes);
+    }
+
+    private RedisURI redisUri() {
+        RedisURI.Builder builder;
+        RedisProperties.Sentinel sentinel = redisProperties.getSentinel();
+        if (sentinel != null && sentinel.getMaster() != null) {
+            builder = RedisURI.builder().withSentinelMasterId(sentinel.getMaster());
+            for (String node : sentinel.getNodes()) {
+                String[] hostPort = node.trim().split(":");
+                RedisURI.Builder sentinelBuilder = RedisURI.builder()
+                        .withHost(hostPort[0]).withPort(Integer.parseInt(hostPort[1]));
+                if (sentinel.getPassword() != null) {
+                    sentinelBuilder.withPassword(sentinel.getPassword().toCharArray());
+                }
+                builder.withSentinel(sentinelBuilder.build());
+            }
+        } else {
+            builder = RedisURI.builder().withHost(redisProperties.getHost()).withPort(redisProperties.getPort());
+        }
+        if (redisProperties.getPassword() != null) {
+            builder.withPassword(redisProperties.getPassword().toCharArray());
+        }
+        builder.withDatabase(redisProperties.getDatabase());
+        builder.withTimeout(redisProperties.getTimeout() == null ? Duration.ofSeconds(60) : redisProperties.getTimeout());
+        return builder.build();
+    }
+}
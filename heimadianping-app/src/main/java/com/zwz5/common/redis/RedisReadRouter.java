@@ -0,0 +1,266 @@
+package com.zwz5.common.redis;
+
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Function;
+
+/**
+ * Redis 读写分离
+ * 默认的 stringRedisTemplate 始终连接主节点，写命令、Lua 脚本和锁都走它；
+ * 开启 hmdp.redis.replica-read.enabled 后，这里另建一个 ReadFrom.REPLICA_PREFERRED 的连接，
+ * 只承接允许短暂读旧的读请求（缓存读取、GEO 候选集、feed 的博客批量读取）。
+ * 读旧的兜底：
+ * 1. 副本未命中时再读一次主节点，避免刚写入、尚未同步的 key 被当作缓存未命中打到数据库；
+ * 2. 定时检查主节点 INFO replication，没有在线且延迟不超过 max-lag-seconds 的副本时，读请求全部回到主节点；
+ * 3. 副本读取异常时回退到主节点。
+ * 未开启时所有方法直接使用主节点。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisReadRouter {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisProperties redisProperties;
+    private final ObjectProvider<ClientResources> clientResources;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${hmdp.redis.replica-read.enabled:false}")
+    private boolean enabled;
+
+    // 非 Sentinel 部署时的副本地址，host:port 逗号分隔
+    @Value("${hmdp.redis.replica-read.nodes:}")
+    private String replicaNodes;
+
+    @Value("${hmdp.redis.replica-read.max-lag-seconds:2}")
+    private long maxLagSeconds;
+
+    private LettuceConnectionFactory replicaConnectionFactory;
+    private StringRedisTemplate replicaTemplate;
+    private volatile boolean replicaHealthy;
+
+    private Counter missFallback;
+    private Counter errorFallback;
+
+    @PostConstruct
+    private void init() {
+        if (!enabled) {
+            return;
+        }
+        RedisConfiguration configuration = replicaConfiguration();
+        if (configuration == null) {
+            log.warn("hmdp.redis.replica-read.enabled=true 但未配置 Sentinel 或副本节点，读请求仍走主节点");
+            return;
+        }
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder = LettuceClientConfiguration.builder()
+                .readFrom(ReadFrom.REPLICA_PREFERRED)
+                .commandTimeout(redisProperties.getTimeout() == null ? Duration.ofSeconds(60) : redisProperties.getTimeout());
+        // 复用应用的 ClientResources（事件循环与地址映射）
+        clientResources.ifAvailable(builder::clientResources);
+        replicaConnectionFactory = new LettuceConnectionFactory(configuration, builder.build());
+        replicaConnectionFactory.afterPropertiesSet();
+        replicaConnectionFactory.start();
+        replicaTemplate = new StringRedisTemplate(replicaConnectionFactory);
+        replicaHealthy = true;
+
+        missFallback = Counter.builder("redis.replica.fallback").tag("reason", "miss").register(meterRegistry);
+        errorFallback = Counter.builder("redis.replica.fallback").tag("reason", "error").register(meterRegistry);
+        Gauge.builder("redis.replica.healthy", this, r -> r.replicaHealthy ? 1 : 0).register(meterRegistry);
+    }
+
+    @PreDestroy
+    private void destroy() {
+        if (replicaConnectionFactory != null) {
+            replicaConnectionFactory.destroy();
+        }
+    }
+
+    /**
+     * 读取字符串，副本未命中或异常时读主节点
+     */
+    public String get(String key) {
+        StringRedisTemplate replica = replica();
+        if (replica == null) {
+            return stringRedisTemplate.opsForValue().get(key);
+        }
+        try {
+            String value = replica.opsForValue().get(key);
+            if (value != null) {
+                return value;
+            }
+            missFallback.increment();
+        } catch (DataAccessException e) {
+            errorFallback.increment();
+            log.debug("read replica failed, fallback to master, key={}", key, e);
+        }
+        return stringRedisTemplate.opsForValue().get(key);
+    }
+
+    /**
+     * 批量读取，副本中不存在的 key 再一次 MGET 主节点补齐
+     *
+     * @return 与 keys 一一对应，不存在为 null
+     */
+    public List<String> multiGet(List<String> keys) {
+        StringRedisTemplate replica = replica();
+        if (replica == null) {
+            return stringRedisTemplate.opsForValue().multiGet(keys);
+        }
+        List<String> values;
+        try {
+            values = replica.opsForValue().multiGet(keys);
+        } catch (DataAccessException e) {
+            errorFallback.increment();
+            log.debug("read replica failed, fallback to master, keys={}", keys.size(), e);
+            return stringRedisTemplate.opsForValue().multiGet(keys);
+        }
+        if (values == null) {
+            return stringRedisTemplate.opsForValue().multiGet(keys);
+        }
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) == null) {
+                missing.add(i);
+            }
+        }
+        if (missing.isEmpty()) {
+            return values;
+        }
+        missFallback.increment(missing.size());
+        List<String> fromMaster = stringRedisTemplate.opsForValue().multiGet(missing.stream().map(keys::get).toList());
+        if (fromMaster == null) {
+            return values;
+        }
+        List<String> merged = new ArrayList<>(values);
+        for (int i = 0; i < missing.size(); i++) {
+            merged.set(missing.get(i), fromMaster.get(i));
+        }
+        return merged;
+    }
+
+    /**
+     * 在副本上执行只读操作（如 GEOSEARCH），异常时在主节点重试
+     * 空结果不回退，调用方需能接受短暂读旧。
+     */
+    public <T> T read(Function<StringRedisTemplate, T> operation) {
+        StringRedisTemplate replica = replica();
+        if (replica == null) {
+            return operation.apply(stringRedisTemplate);
+        }
+        try {
+            return operation.apply(replica);
+        } catch (DataAccessException e) {
+            errorFallback.increment();
+            log.debug("read replica failed, fallback to master", e);
+            return operation.apply(stringRedisTemplate);
+        }
+    }
+
+    /**
+     * 定时检查副本复制延迟
+     */
+    @Scheduled(fixedDelayString = "${hmdp.redis.replica-read.lag-check-ms:1000}")
+    public void checkReplicationLag() {
+        if (replicaTemplate == null) {
+            return;
+        }
+        boolean healthy;
+        try {
+            Properties info = stringRedisTemplate.execute(
+                    (RedisCallback<Properties>) connection -> connection.serverCommands().info("replication"));
+            healthy = info != null && healthyReplicas(info, maxLagSeconds) > 0;
+        } catch (DataAccessException e) {
+            // 主节点不可达时保持原状态，由读请求自身的异常回退处理
+            log.warn("check replication lag failed", e);
+            return;
+        }
+        if (healthy != replicaHealthy) {
+            log.warn("replica read {}", healthy ? "resumed" : "suspended, replicas lagging or offline");
+            replicaHealthy = healthy;
+        }
+    }
+
+    /**
+     * 统计 INFO replication 中在线且延迟不超过 maxLagSeconds 的副本数
+     * 副本行格式：slave0:ip=172.30.0.11,port=6381,state=online,offset=1234,lag=0
+     */
+    static int healthyReplicas(Properties info, long maxLagSeconds) {
+        int count = 0;
+        for (String name : info.stringPropertyNames()) {
+            if (!name.matches("slave\\d+")) {
+                continue;
+            }
+            boolean online = false;
+            long lag = Long.MAX_VALUE;
+            for (String field : info.getProperty(name).split(",")) {
+                String[] kv = field.split("=", 2);
+                if (kv.length != 2) {
+                    continue;
+                }
+                if ("state".equals(kv[0])) {
+                    online = "online".equals(kv[1]);
+                } else if ("lag".equals(kv[0])) {
+                    lag = Long.parseLong(kv[1]);
+                }
+            }
+            if (online && lag <= maxLagSeconds) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private StringRedisTemplate replica() {
+        return replicaHealthy ? replicaTemplate : null;
+    }
+
+    private RedisConfiguration replicaConfiguration() {
+        RedisProperties.Sentinel sentinel = redisProperties.getSentinel();
+        if (sentinel != null && sentinel.getMaster() != null) {
+            RedisSentinelConfiguration configuration = new RedisSentinelConfiguration(
+                    sentinel.getMaster(), new HashSet<>(sentinel.getNodes()));
+            configuration.setPassword(redisProperties.getPassword());
+            configuration.setSentinelPassword(sentinel.getPassword());
+            configuration.setDatabase(redisProperties.getDatabase());
+            return configuration;
+        }
+        if (replicaNodes == null || replicaNodes.isBlank()) {
+            return null;
+        }
+        RedisStaticMasterReplicaConfiguration configuration =
+                new RedisStaticMasterReplicaConfiguration(redisProperties.getHost(), redisProperties.getPort());
+        for (String node : replicaNodes.split(",")) {
+            String[] hostPort = node.trim().split(":");
+            configuration.addNode(hostPort[0], Integer.parseInt(hostPort[1]));
+        }
+        configuration.setPassword(redisProperties.getPassword());
+        configuration.setDatabase(redisProperties.getDatabase());
+        return configuration;
+    }
+}
@@ -0,0 +1,28 @@
+package com.zwz5.common.redis;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.List;
+
+/**
+ * Lua 脚本加载
+ * 返回多值（数组回复）的脚本结果类型只能传 List.class，这里集中做一次类型转换，
+ * 调用方拿到 DefaultRedisScript<List<Object>>，不需要使用原始类型。
+ */
+public final class RedisScripts {
+
+    private RedisScripts() {
+    }
+
+    /**
+     * @param location classpath 下的脚本路径，如 lua/feed_page_script.lua
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static DefaultRedisScript<List<Object>> listScript(String location) {
+        DefaultRedisScript<List<Object>> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(location));
+        script.setResultType((Class<List<Object>>) (Class) List.class);
+        return script;
+    }
+}
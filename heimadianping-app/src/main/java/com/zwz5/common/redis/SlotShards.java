@@ -0,0 +1,118 @@
+package com.zwz5.common.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 按槽分片的待处理集合
+ * 集群模式下 Lua 脚本只能访问同一个槽的 key，全局的待处理集合无法和业务数据在同一个脚本里写入。
+ * 这里为每个槽固定一个 hashtag，业务脚本把待处理标记写入与数据 key 同槽的分片（前缀 + tagOf(数据key)），
+ * 标记和数据变更在同一个脚本内生效，不会出现数据已变更、标记却没写上的情况。
+ * 消费方不遍历全部 16384 个分片：写入方在脚本成功后把分片 tag 记入全局提示集合，消费方只处理提示中的分片；
+ * 提示只影响处理是否及时，写入失败时由 sweep 全量扫描补回。
+ */
+@Slf4j
+public final class SlotShards {
+
+    public static final int SLOT_COUNT = 16384;
+
+    // 槽 -> 落在该槽的 hashtag，取第一个 CRC16 落在该槽的数字，各进程计算结果一致
+    private static final String[] SLOT_TAGS = new String[SLOT_COUNT];
+
+    static {
+        int filled = 0;
+        for (int i = 0; filled < SLOT_COUNT; i++) {
+            String candidate = String.valueOf(i);
+            int slot = RedisMultiKey.slot(candidate);
+            if (SLOT_TAGS[slot] == null) {
+                SLOT_TAGS[slot] = "{" + candidate + "}";
+                filled++;
+            }
+        }
+    }
+
+    private SlotShards() {
+    }
+
+    /**
+     * 与数据 key 同槽的分片 tag，拼在分片前缀后面作为分片 key
+     */
+    public static String tagOf(String dataKey) {
+        return SLOT_TAGS[RedisMultiKey.slot(dataKey)];
+    }
+
+    /**
+     * 业务脚本写入分片后调用，把分片记入提示集合
+     * 失败只记录日志，分片中的标记由 sweep 补回
+     */
+    public static void hint(StringRedisTemplate template, String hintKey, String tag) {
+        try {
+            template.opsForSet().add(hintKey, tag);
+        } catch (RuntimeException e) {
+            log.warn("add slot shard hint failed, hintKey={}, tag={}", hintKey, tag, e);
+        }
+    }
+
+    /**
+     * 提示集合中待处理的分片 tag
+     */
+    public static Set<String> active(StringRedisTemplate template, String hintKey) {
+        Set<String> tags = template.opsForSet().members(hintKey);
+        return tags == null ? Collections.emptySet() : tags;
+    }
+
+    /**
+     * 分片处理完后从提示集合移除
+     * 先移除再检查分片是否仍有数据：在检查之前写入的标记会被检查发现，之后写入的标记由写入方重新提示，不会遗漏。
+     *
+     * @param prefixes 分片的全部 key 前缀（待处理、处理中），任一非空都说明分片仍有数据
+     */
+    public static void release(StringRedisTemplate template, String hintKey, String tag, String... prefixes) {
+        template.opsForSet().remove(hintKey, tag);
+        Long remain = template.countExistingKeys(keys(tag, prefixes));
+        if (remain != null && remain > 0) {
+            template.opsForSet().add(hintKey, tag);
+        }
+    }
+
+    /**
+     * 扫描全部分片，把有数据但不在提示集合中的分片补回，pipeline 批量执行 EXISTS
+     *
+     * @return 有数据的分片数
+     */
+    public static int sweep(StringRedisTemplate template, String hintKey, String... prefixes) {
+        RedisBatch batch = RedisBatch.of(template);
+        List<CompletableFuture<Long>> exists = new ArrayList<>(SLOT_COUNT);
+        for (String tag : SLOT_TAGS) {
+            // 同一分片的各个 key 同槽，一次 EXISTS
+            String[] keys = keys(tag, prefixes).toArray(new String[0]);
+            exists.add(batch.add(conn -> conn.exists(keys)));
+        }
+        batch.flush();
+        List<String> nonEmpty = new ArrayList<>();
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            Long count = exists.get(slot).join();
+            if (count != null && count > 0) {
+                nonEmpty.add(SLOT_TAGS[slot]);
+            }
+        }
+        if (!nonEmpty.isEmpty()) {
+            template.opsForSet().add(hintKey, nonEmpty.toArray(new String[0]));
+        }
+        return nonEmpty.size();
+    }
+
+    private static List<String> keys(String tag, String... prefixes) {
+        List<String> keys = new ArrayList<>(prefixes.length);
+        for (String prefix : prefixes) {
+            keys.add(prefix + tag);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,19 @@
+package com.zwz5.common.result;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果，cursor 为下一页游标，没有下一页时为 null
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorResult<T> {
+    private List<T> list;
+    private String cursor;
+    private Boolean hasMore;
+}
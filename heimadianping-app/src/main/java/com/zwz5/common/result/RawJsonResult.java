@@ -0,0 +1,31 @@
+package com.zwz5.common.result;
+
+import lombok.Getter;
+
+/**
+ * data 为预先序列化 JSON 字节的成功结果
+ * 由 RawJsonResultConverter 直接把字节拼进 {"success":true,"data":...}，不经过 Jackson 序列化。
+ * 字节可以是更大数组中的一段（如缓存结构中的 data 部分），避免再复制一次。
+ */
+@Getter
+public class RawJsonResult extends Result {
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    private RawJsonResult(byte[] bytes, int offset, int length) {
+        super(true, null, null, null);
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public static RawJsonResult ok(byte[] bytes) {
+        return new RawJsonResult(bytes, 0, bytes.length);
+    }
+
+    public static RawJsonResult ok(byte[] bytes, int offset, int length) {
+        return new RawJsonResult(bytes, offset, length);
+    }
+}
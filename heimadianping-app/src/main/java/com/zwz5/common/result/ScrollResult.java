@@ -7,6 +7,7 @@ import java.util.List;
 @Data
 public class ScrollResult {
     private List<?> list;
+    // 复合游标：上一页最后一条的 score 与 id，同分时按 id 继续向后读取
     private Long minTime;
-    private Integer offset;
+    private Long lastBlogId;
 }
@@ -0,0 +1,158 @@
+package com.zwz5.common.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 进程内倒排索引
+ * 每个文档由多个带权重的字段组成，词项的文档权重取包含该词的字段权重之和。
+ * 查询时全部词项都必须命中（AND），最后一个字母数字词按前缀展开；
+ * 得分为 Σ 文档权重 × idf，标题以查询串开头或完全相等时额外加分。
+ * 写少读多，使用读写锁保护。
+ */
+public class InvertedIndex {
+
+    // 前缀最多展开的词项数，避免单个字母展开过多
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final float TITLE_PREFIX_BOOST = 2.0f;
+    private static final float TITLE_EXACT_BOOST = 4.0f;
+
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> docTerms = new HashMap<>();
+    private final Map<Long, String> titles = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 新增或覆盖文档
+     *
+     * @param title  标题，参与前缀/完全匹配加分，同时也需要出现在 fields 中才会被检索
+     * @param fields 字段文本 -> 权重
+     */
+    public void upsert(long id, String title, Map<String, Float> fields) {
+        Map<String, Float> weights = new HashMap<>();
+        fields.forEach((text, weight) -> {
+            for (String token : Tokenizer.indexTokens(text)) {
+                weights.merge(token, weight, Float::sum);
+            }
+        });
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            weights.forEach((token, weight) -> postings.computeIfAbsent(token, k -> new HashMap<>()).put(id, weight));
+            docTerms.put(id, weights.keySet());
+            titles.put(id, title == null ? "" : title.toLowerCase());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询并按得分降序、id 升序返回全部命中的文档id
+     */
+    public List<Long> search(String text) {
+        Tokenizer.Query query = Tokenizer.queryTokens(text);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String normalized = text.trim().toLowerCase();
+        lock.readLock().lock();
+        try {
+            int n = Math.max(docTerms.size(), 1);
+            Map<Long, Float> scores = null;
+            // 1.精确词项逐个求交集
+            for (String term : query.terms()) {
+                Map<Long, Float> posting = postings.get(term);
+                if (posting == null) {
+                    return Collections.emptyList();
+                }
+                scores = intersect(scores, posting, idf(n, posting.size()));
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+            // 2.前缀词展开后取并集，再与前面的结果求交集
+            if (query.prefix() != null) {
+                Map<Long, Float> expanded = new HashMap<>();
+                int expansions = 0;
+                for (Map.Entry<String, Map<Long, Float>> e : postings.tailMap(query.prefix(), true).entrySet()) {
+                    if (!e.getKey().startsWith(query.prefix()) || expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    float idf = idf(n, e.getValue().size());
+                    e.getValue().forEach((id, w) -> expanded.merge(id, w * idf, Math::max));
+                }
+                scores = intersect(scores, expanded, 1.0f);
+            }
+            // 3.标题加分并排序
+            List<Map.Entry<Long, Float>> ranked = new ArrayList<>(scores.size());
+            for (Map.Entry<Long, Float> e : scores.entrySet()) {
+                String title = titles.getOrDefault(e.getKey(), "");
+                float score = e.getValue();
+                if (title.equals(normalized)) {
+                    score *= TITLE_EXACT_BOOST;
+                } else if (title.startsWith(normalized)) {
+                    score *= TITLE_PREFIX_BOOST;
+                }
+                ranked.add(Map.entry(e.getKey(), score));
+            }
+            ranked.sort(Map.Entry.<Long, Float>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+            return ranked.stream().map(Map.Entry::getKey).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<Long, Float> intersect(Map<Long, Float> scores, Map<Long, Float> posting, float idf) {
+        Map<Long, Float> result = new HashMap<>();
+        if (scores == null) {
+            posting.forEach((id, w) -> result.put(id, w * idf));
+            return result;
+        }
+        scores.forEach((id, s) -> {
+            Float w = posting.get(id);
+            if (w != null) {
+                result.put(id, s + w * idf);
+            }
+        });
+        return result;
+    }
+
+    private static float idf(int n, int df) {
+        return (float) Math.log(1 + (double) n / df);
+    }
+
+    private void removeInternal(long id) {
+        Set<String> terms = docTerms.remove(id);
+        titles.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
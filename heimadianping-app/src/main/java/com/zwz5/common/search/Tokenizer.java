@@ -0,0 +1,113 @@
+package com.zwz5.common.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 分词
+ * 中文按单字 + 相邻二元组（bigram）切分，字母数字按连续串切分并转小写，其余字符作为分隔符。
+ */
+public final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    /**
+     * 建索引用：中文输出全部单字与二元组
+     */
+    public static Set<String> indexTokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (Run run : runs(text)) {
+            if (run.cjk()) {
+                String s = run.text();
+                for (int i = 0; i < s.length(); i++) {
+                    tokens.add(s.substring(i, i + 1));
+                    if (i + 1 < s.length()) {
+                        tokens.add(s.substring(i, i + 2));
+                    }
+                }
+            } else {
+                tokens.add(run.text());
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 查询用：中文只输出二元组（单字输入输出单字），字母数字串原样输出
+     * 最后一个词为字母数字时标记为前缀，用于输入联想
+     */
+    public static Query queryTokens(String text) {
+        List<String> terms = new ArrayList<>();
+        String prefix = null;
+        List<Run> runs = runs(text);
+        for (int r = 0; r < runs.size(); r++) {
+            Run run = runs.get(r);
+            String s = run.text();
+            if (run.cjk()) {
+                if (s.length() == 1) {
+                    terms.add(s);
+                }
+                for (int i = 0; i + 1 < s.length(); i++) {
+                    terms.add(s.substring(i, i + 2));
+                }
+            } else if (r == runs.size() - 1) {
+                prefix = s;
+            } else {
+                terms.add(s);
+            }
+        }
+        return new Query(terms, prefix);
+    }
+
+    /**
+     * 查询词
+     *
+     * @param terms  需要精确命中的词
+     * @param prefix 需要按前缀匹配的最后一个词，可能为 null
+     */
+    public record Query(List<String> terms, String prefix) {
+        public boolean isEmpty() {
+            return terms.isEmpty() && prefix == null;
+        }
+    }
+
+    private record Run(String text, boolean cjk) {
+    }
+
+    private static List<Run> runs(String text) {
+        List<Run> runs = new ArrayList<>();
+        if (text == null) {
+            return runs;
+        }
+        String s = text.toLowerCase();
+        StringBuilder sb = new StringBuilder();
+        Boolean cjk = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            boolean isCjk = Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+            boolean isWord = Character.isLetterOrDigit(c) && !isCjk;
+            if (!isCjk && !isWord) {
+                flush(runs, sb, cjk);
+                cjk = null;
+                continue;
+            }
+            if (cjk != null && cjk != isCjk) {
+                flush(runs, sb, cjk);
+            }
+            cjk = isCjk;
+            sb.append(c);
+        }
+        flush(runs, sb, cjk);
+        return runs;
+    }
+
+    private static void flush(List<Run> runs, StringBuilder sb, Boolean cjk) {
+        if (sb.length() > 0) {
+            runs.add(new Run(sb.toString(), Boolean.TRUE.equals(cjk)));
+            sb.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.zwz5.common.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 签到位图计算
+ * 每月一个 bitmap，第 d 天对应 bit 偏移 d-1。统一用 BITFIELD GET u31 0 读取整月，
+ * 得到的整数中第 d 天位于 bit (31 - d)，tb_sign 中的 sign_bits/backup_bits 也采用同样的布局。
+ */
+public final class SignBits {
+
+    public static final int MONTH_BITS = 31;
+
+    private SignBits() {
+    }
+
+    /**
+     * 第 day 天对应的位
+     */
+    public static int dayMask(int day) {
+        return 1 << (MONTH_BITS - day);
+    }
+
+    /**
+     * 截止到第 day 天（含），从第 day 天向前连续签到的天数
+     */
+    public static int streakEndingAt(long bits, int day) {
+        long v = bits >>> (MONTH_BITS - day);
+        int count = 0;
+        while (count < day && (v & 1) == 1) {
+            count++;
+            v >>>= 1;
+        }
+        return count;
+    }
+
+    /**
+     * 跨月连续签到天数
+     *
+     * @param monthBits 从当月开始依次向前的每月位图
+     * @param monthDays 与 monthBits 对应的统计截止日：当月为今天，之前的月份为当月天数
+     * @return 连续签到天数；monthBits 全部签满时调用方需要继续读取更早的月份
+     */
+    public static int streak(long[] monthBits, int[] monthDays) {
+        int total = 0;
+        for (int i = 0; i < monthBits.length; i++) {
+            int s = streakEndingAt(monthBits[i], monthDays[i]);
+            total += s;
+            if (s < monthDays[i]) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 位图中签到的天数
+     */
+    public static int count(long bits) {
+        return Long.bitCount(bits & 0x7FFFFFFFL);
+    }
+
+    /**
+     * 位图中签到的日期（几号）
+     */
+    public static List<Integer> days(long bits) {
+        List<Integer> days = new ArrayList<>();
+        for (int day = 1; day <= MONTH_BITS; day++) {
+            if ((bits & dayMask(day)) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+}
@@ -1,26 +1,90 @@
 package com.zwz5.config;
 
+import com.zwz5.common.executor.DelayedTaskExecutor;
+import com.zwz5.common.executor.ExecutorRegistry;
+import com.zwz5.common.executor.ExecutorRegistry.PoolSpec;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
+/**
+ * 异步任务线程池
+ * 按任务类型隔离：
+ * - cacheOpsExecutor：缓存重建等短任务；
+ * - batchOpsExecutor：索引构建、全量重建等长时间批量任务；
+ * - orderConsumerExecutor：秒杀订单消费循环，独占一个线程；
+ * - cacheDelayExecutor：延迟双删等延迟任务，不在线程池中 sleep。
+ * spring.threads.virtual.enabled=true 且运行在 JDK 21+ 时，cacheOpsExecutor 使用虚拟线程，bean 名称不变。
+ */
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
 
+    @Value("${hmdp.executor.cache-ops.core-size:2}")
+    private int coreSize;
+    @Value("${hmdp.executor.cache-ops.max-size:8}")
+    private int maxSize;
+    @Value("${hmdp.executor.cache-ops.queue-capacity:200}")
+    private int queueCapacity;
+    // 虚拟线程模式下同时执行的任务上限，防止重建任务瞬间打满 DB 连接池
+    @Value("${hmdp.executor.cache-ops.virtual-concurrency-limit:64}")
+    private int virtualConcurrencyLimit;
+    @Value("${hmdp.executor.batch-ops.max-size:2}")
+    private int batchMaxSize;
+    @Value("${hmdp.executor.batch-ops.queue-capacity:16}")
+    private int batchQueueCapacity;
+    @Value("${hmdp.executor.delay.pool-size:1}")
+    private int delayPoolSize;
+
+    @Bean
+    public ExecutorRegistry executorRegistry(MeterRegistry meterRegistry) {
+        return new ExecutorRegistry(meterRegistry);
+    }
+
+    @Bean("cacheOpsExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Executor cacheOpsExecutor(ExecutorRegistry executorRegistry) {
+        // 队列满时由提交线程执行，缓存重建、异步任务不会被丢弃
+        return executorRegistry.create("cache-ops", new PoolSpec(coreSize, maxSize, queueCapacity),
+                new UserContextTaskDecorator(), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
     @Bean("cacheOpsExecutor")
-    public Executor cacheOpsExecutor() {
-        ThreadPoolTaskExecutor tp = new ThreadPoolTaskExecutor();
-        tp.setCorePoolSize(2);
-        tp.setMaxPoolSize(8);
-        tp.setQueueCapacity(200);
-        tp.setThreadNamePrefix("cache-ops-");
-        tp.setKeepAliveSeconds(60);
-        tp.setAllowCoreThreadTimeOut(true);
-        tp.initialize();
-        return tp;
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualCacheOpsExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("cache-ops-v-");
+        executor.setVirtualThreads(true);
+        // 达到上限时提交方阻塞等待，而不是拒绝任务
+        executor.setConcurrencyLimit(virtualConcurrencyLimit);
+        executor.setTaskDecorator(new UserContextTaskDecorator());
+        return executor;
+    }
+
+    @Bean("batchOpsExecutor")
+    public Executor batchOpsExecutor(ExecutorRegistry executorRegistry) {
+        // 批量任务可以稍后重试，队列满直接拒绝，不占用调用线程
+        return executorRegistry.create("batch-ops", new PoolSpec(1, batchMaxSize, batchQueueCapacity),
+                null, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Bean("orderConsumerExecutor")
+    public Executor orderConsumerExecutor(ExecutorRegistry executorRegistry) {
+        return executorRegistry.create("order-consumer", new PoolSpec(1, 1, 0),
+                null, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public DelayedTaskExecutor cacheDelayExecutor(MeterRegistry meterRegistry) {
+        return new DelayedTaskExecutor("cache-delay", delayPoolSize, meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.zwz5.config;
+
+import com.zwz5.common.executor.ExecutorRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 线程池查看与调整
+ * GET  /actuator/executors              查看所有线程池状态
+ * POST /actuator/executors/{name}       body: {"coreSize": 4, "maxSize": 16} 调整线程数
+ * 写操作可以改变线程池容量，端点只在 management.server 的独立端口上暴露，该端口默认只监听本机。
+ */
+@Component
+@Endpoint(id = "executors")
+@RequiredArgsConstructor
+public class ExecutorEndpoint {
+
+    private final ExecutorRegistry executorRegistry;
+
+    @ReadOperation
+    public Map<String, ExecutorRegistry.PoolStatus> executors() {
+        return executorRegistry.status();
+    }
+
+    @WriteOperation
+    public ExecutorRegistry.PoolStatus resize(@Selector String name, int coreSize, int maxSize) {
+        return executorRegistry.resize(name, coreSize, maxSize);
+    }
+}
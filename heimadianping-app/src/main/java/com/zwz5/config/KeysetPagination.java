@@ -0,0 +1,112 @@
+package com.zwz5.config;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.zwz5.common.result.CursorResult;
+import com.zwz5.exception.CursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标（keyset）分页
+ * 与 PaginationInnerInterceptor 的 COUNT + LIMIT offset 不同，按 (排序列, id) 记住上一页最后一行，
+ * 下一页用 WHERE 排序列 < ? OR (排序列 = ? AND id < ?) 直接定位，配合 (排序列, id) 索引翻到任意深度都只扫描一页数据。
+ * 游标对客户端不透明，内容为 base64url("排序值:id")。
+ */
+public final class KeysetPagination {
+
+    private static final String ID_COLUMN = "id";
+
+    private KeysetPagination() {
+    }
+
+    /**
+     * 排序方式
+     *
+     * @param column    排序列，为 null 时只按 id 排序
+     * @param sortValue 从实体取排序值
+     * @param idValue   从实体取 id
+     * @param desc      是否降序
+     */
+    public record Keyset<T>(String column, Function<T, Long> sortValue, Function<T, Long> idValue, boolean desc) {
+
+        public static <T> Keyset<T> byId(Function<T, Long> idValue, boolean desc) {
+            return new Keyset<>(null, null, idValue, desc);
+        }
+
+        public static <T> Keyset<T> by(String column, Function<T, Long> sortValue, Function<T, Long> idValue, boolean desc) {
+            return new Keyset<>(column, sortValue, idValue, desc);
+        }
+    }
+
+    /**
+     * 查询一页，不执行 COUNT，多取一条判断是否还有下一页
+     *
+     * @param wrapper 业务过滤条件，不要包含排序和 LIMIT
+     * @param cursor  上一页返回的游标，首页为空
+     */
+    public static <T> CursorResult<T> page(BaseMapper<T> mapper, QueryWrapper<T> wrapper, Keyset<T> keyset, String cursor, int size) {
+        long[] position = decode(cursor);
+        if (position != null) {
+            long sort = position[0];
+            long id = position[1];
+            if (keyset.column() == null) {
+                wrapper.apply(keyset.desc() ? "id < {0}" : "id > {0}", id);
+            } else if (keyset.desc()) {
+                wrapper.and(w -> w.lt(keyset.column(), sort)
+                        .or(o -> o.eq(keyset.column(), sort).lt(ID_COLUMN, id)));
+            } else {
+                wrapper.and(w -> w.gt(keyset.column(), sort)
+                        .or(o -> o.eq(keyset.column(), sort).gt(ID_COLUMN, id)));
+            }
+        }
+        if (keyset.column() != null) {
+            wrapper.orderBy(true, !keyset.desc(), keyset.column());
+        }
+        wrapper.orderBy(true, !keyset.desc(), ID_COLUMN);
+        wrapper.last("LIMIT " + (size + 1));
+
+        List<T> rows = mapper.selectList(wrapper);
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+        String next = null;
+        if (hasMore) {
+            T last = rows.get(rows.size() - 1);
+            long sortValue = keyset.sortValue() == null ? 0L : nullToZero(keyset.sortValue().apply(last));
+            next = encode(sortValue, keyset.idValue().apply(last));
+        }
+        return new CursorResult<>(rows, next, hasMore);
+    }
+
+    public static String encode(long sortValue, long id) {
+        String raw = sortValue + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @return {排序值, id}，游标为空时返回 null
+     */
+    public static long[] decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(':');
+            return new long[]{Long.parseLong(raw.substring(0, idx)), Long.parseLong(raw.substring(idx + 1))};
+        } catch (RuntimeException e) {
+            throw new CursorException("分页游标无效！");
+        }
+    }
+
+    private static long nullToZero(Long value) {
+        return value == null ? 0L : value;
+    }
+}
@@ -5,9 +5,12 @@ import com.zwz5.interceptor.RefreshTokenInterceptor;
 import jakarta.annotation.Resource;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class MvcConfig implements WebMvcConfigurer {
 
@@ -30,5 +33,15 @@ public class MvcConfig implements WebMvcConfigurer {
                         "/user/code",
                         "/user/login"
                 ).order(1);
+        // 店铺访问统计只对登录用户开放，/shop/** 整体放行，这里单独拦截
+        registry.addInterceptor(new LoginInterceptor())
+                .addPathPatterns("/shop/*/stats")
+                .order(1);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // 放在 Jackson 之前，RawJsonResult 直接输出预先序列化的字节
+        converters.add(0, new RawJsonResultConverter());
     }
 }
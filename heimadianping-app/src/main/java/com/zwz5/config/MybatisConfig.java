@@ -3,6 +3,10 @@ package com.zwz5.config;
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.zwz5.common.metrics.SlowQueryLog;
+import com.zwz5.common.metrics.SqlMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,4 +18,19 @@ public class MybatisConfig {
         interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
         return interceptor;
     }
+
+    @Bean
+    public SlowQueryLog slowQueryLog(@Value("${hmdp.sql.slow-log-size:200}") int size) {
+        return new SlowQueryLog(size);
+    }
+
+    /**
+     * SQL 执行指标与慢 SQL 采样，由 MyBatis 自动配置注册为插件
+     */
+    @Bean
+    public SqlMetricsInterceptor sqlMetricsInterceptor(MeterRegistry meterRegistry, SlowQueryLog slowQueryLog,
+                                                       @Value("${hmdp.sql.slow-threshold-ms:200}") long slowThresholdMs,
+                                                       @Value("${hmdp.sql.slow-log-show-params:false}") boolean showParams) {
+        return new SqlMetricsInterceptor(meterRegistry, slowQueryLog, slowThresholdMs, showParams);
+    }
 }
@@ -0,0 +1,54 @@
+package com.zwz5.config;
+
+import com.zwz5.common.result.RawJsonResult;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 输出 RawJsonResult：把预先序列化的 data 字节拼进 Result 信封
+ * 信封格式与全局 Jackson 配置（忽略 null 字段）下的 Result.ok(data) 一致。
+ */
+public class RawJsonResultConverter extends AbstractHttpMessageConverter<RawJsonResult> {
+
+    private static final byte[] PREFIX = "{\"success\":true,\"data\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "}".getBytes(StandardCharsets.UTF_8);
+
+    public RawJsonResultConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return RawJsonResult.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected RawJsonResult readInternal(Class<? extends RawJsonResult> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("RawJsonResult 只用于输出", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(RawJsonResult result, MediaType contentType) {
+        return (long) PREFIX.length + result.getLength() + SUFFIX.length;
+    }
+
+    @Override
+    protected void writeInternal(RawJsonResult result, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = outputMessage.getBody();
+        out.write(PREFIX);
+        out.write(result.getBytes(), result.getOffset(), result.getLength());
+        out.write(SUFFIX);
+    }
+}
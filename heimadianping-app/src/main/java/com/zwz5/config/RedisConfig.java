@@ -0,0 +1,34 @@
+package com.zwz5.config;
+
+import com.zwz5.common.redis.RedisAddressMappings;
+import io.lettuce.core.internal.HostAndPort;
+import io.lettuce.core.resource.DnsResolvers;
+import io.lettuce.core.resource.MappingSocketAddressResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Configuration
+public class RedisConfig {
+
+    /**
+     * Sentinel 返回 Docker 内网 Redis 地址时，Lettuce 连接前按 hmdp.redis.address-mappings 映射成本机可访问地址
+     */
+    @Bean
+    public ClientResourcesBuilderCustomizer redisAddressMappingCustomizer(
+            @Value("${hmdp.redis.address-mappings:}") String addressMappings) {
+        Map<String, String> mappings = RedisAddressMappings.parse(addressMappings);
+        return builder -> {
+            if (mappings.isEmpty()) {
+                return;
+            }
+            builder.socketAddressResolver(MappingSocketAddressResolver.create(DnsResolvers.UNRESOLVED, hostAndPort -> {
+                String mapped = RedisAddressMappings.map(mappings, hostAndPort.getHostText(), hostAndPort.getPort());
+                return HostAndPort.parseCompat(mapped);
+            }));
+        };
+    }
+}
@@ -1,23 +1,51 @@
 package com.zwz5.config;
 
+import com.zwz5.common.redis.RedisAddressMappings;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
+import org.redisson.config.ReadMode;
+import org.redisson.misc.RedisURI;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Map;
+
 @Configuration
 public class RedissonConfig {
 
     @Bean(destroyMethod = "shutdown")
-    public RedissonClient redissonClient() {
+    public RedissonClient redissonClient(RedisProperties redisProperties,
+                                         @Value("${hmdp.redis.address-mappings:}") String addressMappings) {
         Config config = new Config();
 
+        RedisProperties.Sentinel sentinel = redisProperties.getSentinel();
+        if (sentinel != null && sentinel.getMaster() != null) {
+            // 哨兵模式：锁的读写都必须在主节点上，不从副本读取
+            Map<String, String> mappings = RedisAddressMappings.parse(addressMappings);
+            config.useSentinelServers()
+                    .setMasterName(sentinel.getMaster())
+                    .addSentinelAddress(sentinel.getNodes().stream().map(node -> "redis://" + node).toArray(String[]::new))
+                    .setPassword(redisProperties.getPassword())
+                    .setSentinelPassword(sentinel.getPassword())
+                    .setDatabase(redisProperties.getDatabase())
+                    .setReadMode(ReadMode.MASTER)
+                    .setCheckSentinelsList(false)
+                    .setNatMapper(uri -> {
+                        String mapped = RedisAddressMappings.map(mappings, uri.getHost(), uri.getPort());
+                        return mapped.equals(uri.getHost() + ":" + uri.getPort())
+                                ? uri : new RedisURI(uri.getScheme() + "://" + mapped);
+                    });
+            return Redisson.create(config);
+        }
+
         // 单机模式
         config.useSingleServer()
-                .setAddress("redis://127.0.0.1:6379")
-                .setPassword(null)
-                .setDatabase(0);
+                .setAddress("redis://" + redisProperties.getHost() + ":" + redisProperties.getPort())
+                .setPassword(redisProperties.getPassword())
+                .setDatabase(redisProperties.getDatabase());
 
         return Redisson.create(config);
     }
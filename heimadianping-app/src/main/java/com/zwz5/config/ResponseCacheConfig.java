@@ -0,0 +1,57 @@
+package com.zwz5.config;
+
+import com.zwz5.filter.ResponseCacheFilter;
+import com.zwz5.manager.ResponseCacheManager;
+import com.zwz5.manager.ShopVisitManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 公开读接口的响应缓存规则
+ * 各接口的缓存时间按数据变化频率设置：店铺详情和类型列表变更时主动失效，
+ * 优惠券列表带实时库存、热门博客随点赞变化，只依靠较短的 TTL。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "hmdp.response-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    private static final Pattern SHOP_PATH = Pattern.compile("/shop/(\\d+)");
+
+    @Value("${hmdp.response-cache.max-age-seconds:5}")
+    private long maxAgeSeconds;
+    @Value("${hmdp.response-cache.shop-ttl-seconds:60}")
+    private long shopTtlSeconds;
+    @Value("${hmdp.response-cache.shop-type-ttl-seconds:300}")
+    private long shopTypeTtlSeconds;
+    @Value("${hmdp.response-cache.voucher-ttl-seconds:5}")
+    private long voucherTtlSeconds;
+    @Value("${hmdp.response-cache.blog-hot-ttl-seconds:10}")
+    private long blogHotTtlSeconds;
+
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(
+            ResponseCacheManager responseCacheManager, ShopVisitManager shopVisitManager) {
+        List<ResponseCacheFilter.Rule> rules = List.of(
+                // 命中缓存时仍需记录店铺访问，匿名访客以 ip 计
+                new ResponseCacheFilter.Rule(SHOP_PATH, shopTtlSeconds * 1000, request -> {
+                    var matcher = SHOP_PATH.matcher(request.getRequestURI());
+                    if (matcher.matches()) {
+                        shopVisitManager.record(Long.valueOf(matcher.group(1)), "ip:" + request.getRemoteAddr());
+                    }
+                }),
+                new ResponseCacheFilter.Rule(Pattern.compile("/shop-type/list"), shopTypeTtlSeconds * 1000, null),
+                new ResponseCacheFilter.Rule(Pattern.compile("/voucher/list/\\d+"), voucherTtlSeconds * 1000, null),
+                new ResponseCacheFilter.Rule(Pattern.compile("/blog/hot"), blogHotTtlSeconds * 1000, null)
+        );
+        FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(
+                new ResponseCacheFilter(responseCacheManager.getCache(), rules, maxAgeSeconds));
+        registration.addUrlPatterns("/shop/*", "/shop-type/*", "/voucher/*", "/blog/*");
+        return registration;
+    }
+}
@@ -0,0 +1,28 @@
+package com.zwz5.config;
+
+import com.zwz5.common.metrics.SlowQueryLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 慢 SQL 采样查看
+ * GET /actuator/slowqueries   最近的慢 SQL，最新的在前
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        List<SlowQueryLog.SlowQuery> queries = slowQueryLog.snapshot();
+        return Map.of("total", slowQueryLog.total(), "queries", queries);
+    }
+}
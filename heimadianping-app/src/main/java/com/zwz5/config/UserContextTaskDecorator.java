@@ -0,0 +1,35 @@
+package com.zwz5.config;
+
+import com.zwz5.common.utils.UserHolder;
+import com.zwz5.pojo.dto.UserDTO;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 把提交任务时的登录用户带到异步线程中
+ * UserHolder 基于 ThreadLocal，线程池线程或虚拟线程都拿不到请求线程的值；
+ * 任务结束后恢复线程原有的值：线程池线程恢复为空，避免复用时串用户；
+ * 队列满触发 CallerRunsPolicy 时任务在提交线程上执行，不能清掉提交线程自己的登录用户。
+ */
+public class UserContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        UserDTO user = UserHolder.getUser();
+        if (user == null) {
+            return runnable;
+        }
+        return () -> {
+            UserDTO previous = UserHolder.getUser();
+            UserHolder.saveUser(user);
+            try {
+                runnable.run();
+            } finally {
+                if (previous == null) {
+                    UserHolder.removeUser();
+                } else {
+                    UserHolder.saveUser(previous);
+                }
+            }
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package com.zwz5.config;
 
 import com.zwz5.common.result.Result;
+import com.zwz5.exception.CursorException;
 import com.zwz5.exception.LockException;
 import com.zwz5.exception.NullException;
 import lombok.extern.slf4j.Slf4j;
@@ -28,4 +29,10 @@ public class WebExceptionAdvice {
         log.warn(e.getMessage(), e);
         return Result.fail(e.getMessage());
     }
+
+    @ExceptionHandler(CursorException.class)
+    public Result CursorException(CursorException e) {
+        log.warn(e.getMessage());
+        return Result.fail(e.getMessage());
+    }
 }
@@ -0,0 +1,13 @@
+package com.zwz5.constants;
+
+/**
+ * 优惠券订单状态，对应 tb_voucher_order.status
+ */
+public class OrderStatusConstants {
+    public static final int UNPAID = 1;
+    public static final int PAID = 2;
+    public static final int USED = 3;
+    public static final int CANCELLED = 4;
+    public static final int REFUNDING = 5;
+    public static final int REFUNDED = 6;
+}
@@ -1,5 +1,11 @@
 package com.zwz5.constants;
 
+/**
+ * Redis key 定义
+ * 同一个 Lua 脚本或 RENAME 中一起操作的 key 用 {hashtag} 固定到同一个槽，保证 Redis Cluster 下仍是单槽原子操作：
+ * 按实体拆分的 key 写作 前缀 + tag(id)，如 seckill:stock:{10}、seckill:order:{10}、seckill:info:{10}。
+ * 跨实体的读取（共同关注、批量缓存）不依赖同槽，由 RedisMultiKey 在客户端按槽拆分。
+ */
 public class RedisConstants {
     public static final String LOGIN_CODE_KEY = "login:code:";
     public static final Long LOGIN_CODE_TTL = 30L;
@@ -13,18 +19,85 @@ public class RedisConstants {
     public static final Long CACHE_SHOP_VOUCHER_TTL = 30L;
     public static final String CACHE_SHOP_VOUCHER_KEY = "cache:shop:voucher";
 
-    public static final Long CACHE_SHOP_TYPE_TTL = 2L;
-    public static final String CACHE_SHOP_TYPE_KEY = "cache:shop_type";
+    // 商铺类型目录变更通知频道，类型列表本身缓存在进程内
+    public static final String CATALOG_SHOP_TYPE_CHANNEL = "catalog:shop_type";
+    // HTTP 响应缓存失效通知频道，消息内容为请求路径
+    public static final String RESPONSE_CACHE_EVICT_CHANNEL = "cache:response:evict";
+    // 店铺检索索引变更通知频道，消息内容为店铺id
+    public static final String SEARCH_SHOP_CHANNEL = "search:shop";
+
+    // 按 (typeId, geohash 网格) 缓存的附近店铺候选集
+    public static final String CACHE_SHOP_GEO_KEY = "cache:shop:geo:";
+
+    public static final Long CACHE_BLOG_TTL = 30L;
+    public static final String CACHE_BLOG_KEY = "cache:blog:";
+
+    // 用户公开资料（UserDTO），见 UserProfileCache
+    public static final Long CACHE_USER_TTL = 30L;
+    public static final String CACHE_USER_KEY = "cache:user:";
 
     public static final String LOCK_SHOP_KEY = "lock:shop:";
     public static final Long LOCK_SHOP_TTL = 3L;
 
     public static final String LOCK_ORDER_KEY = "lock:order:";
 
+    // 秒杀脚本同时读写库存、下单用户集合与活动信息，三者按 tag(voucherId) 同槽
     public static final String SECKILL_STOCK_KEY = "seckill:stock:";
+    public static final String SECKILL_ORDER_KEY = "seckill:order:";
     public static final String SECKILL_INFO_KEY = "seckill:info:";
+    // 已归还 Redis 库存的订单id（SET），与库存同槽，保证同一订单只归还一次；过期时间不短于库存 key，至少 1 天
+    public static final String SECKILL_RESTORED_KEY = "seckill:restored:";
+    public static final Long SECKILL_RESTORED_TTL = 1L;
+    // 未支付订单的超时队列（ZSET，score 为超时时间戳，成员为 orderId:voucherId:userId）
+    public static final String SECKILL_TIMEOUT_KEY = "seckill:timeout";
+    // 秒杀活动变更通知频道，消息内容为优惠券id
+    public static final String SECKILL_ACTIVITY_CHANNEL = "seckill:activity";
+    // 点赞脚本同时修改点赞集合与计数，按 tag(blogId) 同槽
     public static final String BLOG_LIKED_KEY = "blog:liked:";
+    public static final String BLOG_LIKE_COUNT_KEY = "blog:like:count:";
+    // 待回写 DB 的博客（ZSET，score 为首次变更时间），按槽分片：前缀 + SlotShards.tagOf(点赞集合key)，由点赞脚本写入
+    public static final String BLOG_LIKE_DIRTY_KEY = "blog:like:dirty:";
+    // 回写中的博客，DB 写入成功后才移除，用于崩溃后重放；与同一分片的待回写集合同槽
+    public static final String BLOG_LIKE_FLUSHING_KEY = "blog:like:flushing:";
+    // 有待回写博客的分片 tag（SET）
+    public static final String BLOG_LIKE_DIRTY_SLOTS_KEY = "blog:like:dirty:slots";
     public static final String FEED_KEY = "feed:";
+    // 收到新推送、等待裁剪的收件箱用户id（SET）
+    public static final String FEED_TRIM_PENDING_KEY = "feed:trim:pending";
+    // 关注集合与本人计数按 tag(userId) 同槽
+    public static final String FOLLOW_KEY = "follows:";
+    // 关注/粉丝计数（HASH：follows/fans）
+    public static final String FOLLOW_COUNT_KEY = "follow:count:";
+    // 关注集合或计数的变更版本号，增量写入时自增，全量重建时比对，版本变化则放弃覆盖
+    public static final String FOLLOW_VERSION_KEY = "follow:ver:";
+    // 粉丝数待重算的用户id（SET），按槽分片：前缀 + SlotShards.tagOf(关注者的关注集合key)，由关注脚本写入
+    public static final String FOLLOW_FANS_DIRTY_KEY = "follow:fans:dirty:";
+    // 重算中的用户id，写入成功后才移除；与同一分片的待重算集合同槽
+    public static final String FOLLOW_FANS_FLUSHING_KEY = "follow:fans:flushing:";
+    // 有待重算用户的分片 tag（SET）
+    public static final String FOLLOW_FANS_DIRTY_SLOTS_KEY = "follow:fans:dirty:slots";
     public static final String SHOP_GEO_KEY = "shop:geo:";
+    // 店铺访问 UV（HyperLogLog）与 PV，后缀 tag(shopId):yyyyMMdd / w{周} / m{yyyyMM}，同一店铺的日、周、月 key 同槽
+    public static final String SHOP_UV_KEY = "uv:shop:";
+    public static final String SHOP_PV_KEY = "pv:shop:";
+    // 当天有访问的店铺id（SET），用于周/月汇总
+    public static final String SHOP_VISITED_KEY = "uv:shop:visited:";
+    public static final Long SHOP_VISIT_DAY_TTL = 40L;
+    public static final Long SHOP_VISIT_ROLLUP_TTL = 400L;
+    // 签到与补签位图，后缀 tag(userId):yyyyMM
     public static final String USER_SIGN_KEY = "sign:";
+    public static final String USER_SIGN_BACKUP_KEY = "sign:backup:";
+    // 有变更、待写入 tb_sign 的月度记录（SET，成员为 userId:yyyyMM），按槽分片：前缀 + SlotShards.tagOf(签到位图key)，由签到脚本写入
+    public static final String USER_SIGN_PENDING_KEY = "sign:pending:";
+    // 有待持久化记录的分片 tag（SET）
+    public static final String USER_SIGN_PENDING_SLOTS_KEY = "sign:pending:slots";
+    // key 格式迁移完成标记
+    public static final String KEY_LAYOUT_MIGRATED_KEY = "migration:key-layout:done";
+
+    /**
+     * hashtag 形式的 key 后缀，Redis Cluster 只按花括号内的部分计算槽
+     */
+    public static String tag(Object id) {
+        return "{" + id + "}";
+    }
 }
@@ -9,4 +9,8 @@ public class SystemConstants {
     public static final int MAX_PAGE_SIZE = 10;
     // Blog点赞用户显示数量
     public static final int BOLG_LIKES_MAX_SIZE = 5;
+    // 批量查询关注状态的最大用户数
+    public static final int FOLLOW_BATCH_MAX_SIZE = 100;
+    // 批量查询签到统计的最大用户数
+    public static final int SIGN_BATCH_MAX_SIZE = 100;
 }
@@ -1,6 +1,5 @@
 package com.zwz5.controller;
 
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.zwz5.common.result.Result;
 import com.zwz5.common.utils.UserHolder;
 import com.zwz5.constants.SystemConstants;
@@ -10,8 +9,6 @@ import com.zwz5.service.IBlogService;
 import jakarta.annotation.Resource;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * <p>
  * 前端控制器
@@ -75,50 +72,50 @@ public class BlogController {
 
     /**
      * 根据用户id查询相关的博客
+     * 传入 cursor（首页传空串）时按 id 游标分页并返回 CursorResult
      * @param current
+     * @param cursor 上一页返回的游标
      * @param id
      * @return
      */
     @GetMapping("/of/user")
     public Result queryBlogByUserId(
             @RequestParam(value = "current", defaultValue = "1") Integer current,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam("id") Long id) {
-        // 根据用户查询
-        Page<Blog> page = blogService.query()
-                .eq("user_id", id).page(new Page<>(current, SystemConstants.MAX_PAGE_SIZE));
-        // 获取当前页数据
-        List<Blog> records = page.getRecords();
-        return Result.ok(records);
+        return blogService.queryBlogOfUser(id, current, cursor);
     }
 
     /**
      * 分页查询当前用户发布的博客
      *
      * @param current 页码
+     * @param cursor  上一页返回的游标
      * @return 当前用户博客列表
      */
     @GetMapping("/of/me")
-    public Result queryMyBlog(@RequestParam(value = "current", defaultValue = "1") Integer current) {
+    public Result queryMyBlog(
+            @RequestParam(value = "current", defaultValue = "1") Integer current,
+            @RequestParam(value = "cursor", required = false) String cursor) {
         // 获取登录用户
         UserDTO user = UserHolder.getUser();
-        // 根据用户查询
-        Page<Blog> page = blogService.query()
-                .eq("user_id", user.getId()).page(new Page<>(current, SystemConstants.MAX_PAGE_SIZE));
-        // 获取当前页数据
-        List<Blog> records = page.getRecords();
-        return Result.ok(records);
+        return blogService.queryBlogOfUser(user.getId(), current, cursor);
     }
 
     /**
      * Feed流查询关注用户的博客
-     * @param max
-     * @param offset
+     * @param max 上一页最后一条的时间戳
+     * @param lastBlogId 上一页最后一条的博客id，首页不传
+     * @param size 页大小，不超过 MAX_PAGE_SIZE
      * @return
      */
     @GetMapping("/of/follow")
     public Result queryBlogOfFollow(
-            @RequestParam("lastId") Long max, @RequestParam(value = "offset", defaultValue = "0") Integer offset){
-        return blogService.queryBlogOfFollow(max, offset);
+            @RequestParam("lastId") Long max,
+            @RequestParam(value = "lastBlogId", required = false) Long lastBlogId,
+            @RequestParam(value = "size", defaultValue = "" + SystemConstants.DEFAULT_PAGE_SIZE) Integer size){
+        size = Math.max(1, Math.min(size, SystemConstants.MAX_PAGE_SIZE));
+        return blogService.queryBlogOfFollow(max, lastBlogId, size);
     }
 
     /**
@@ -128,8 +125,10 @@ public class BlogController {
      * @return 热门博客列表
      */
     @GetMapping("/hot")
-    public Result queryHotBlog(@RequestParam(value = "current", defaultValue = "1") Integer current) {
-        return blogService.queryHotBlog(current);
+    public Result queryHotBlog(
+            @RequestParam(value = "current", defaultValue = "1") Integer current,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return blogService.queryHotBlog(current, cursor);
     }
 
 }
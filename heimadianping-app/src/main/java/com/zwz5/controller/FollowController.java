@@ -6,6 +6,8 @@ import com.zwz5.service.IFollowService;
 import jakarta.annotation.Resource;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * <p>
  * 前端控制器
@@ -41,6 +43,25 @@ public class FollowController {
         return followService.isFollow(followUserId);
     }
 
+    /**
+     * 批量查询关注状态
+     *
+     * @param followUserIds 用户id列表，逗号分隔
+     * @return 用户id -> 是否关注
+     */
+    @GetMapping("/or/not")
+    public Result isFollow(@RequestParam("ids") List<Long> followUserIds) {
+        return followService.isFollow(followUserIds);
+    }
+
+    /**
+     * 关注数与粉丝数
+     */
+    @GetMapping("/count/{id}")
+    public Result queryFollowCount(@PathVariable("id") Long userId) {
+        return followService.queryFollowCount(userId);
+    }
+
     // 共同关注
     @GetMapping("/common/{id}")
     public Result ifollowCommons(@PathVariable("id") Long followUserId) {
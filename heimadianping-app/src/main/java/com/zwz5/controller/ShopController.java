@@ -1,12 +1,15 @@
 package com.zwz5.controller;
 
-import org.springframework.util.StringUtils;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.zwz5.common.cache.RawJson;
+import com.zwz5.common.result.RawJsonResult;
 import com.zwz5.common.result.Result;
+import com.zwz5.common.utils.UserHolder;
+import com.zwz5.manager.ShopVisitManager;
+import com.zwz5.pojo.dto.UserDTO;
 import com.zwz5.pojo.entity.Shop;
 import com.zwz5.service.IShopService;
-import com.zwz5.constants.SystemConstants;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.bind.annotation.*;
 
 
@@ -25,6 +28,9 @@ public class ShopController {
     @Resource
     public IShopService shopService;
 
+    @Resource
+    private ShopVisitManager shopVisitManager;
+
     /**
      * 根据id查询商铺信息
      *
@@ -32,8 +38,35 @@ public class ShopController {
      * @return 商铺详情数据
      */
     @GetMapping("/{id}")
-    public Result queryShopById(@PathVariable("id") Long id) {
-        return Result.ok(shopService.queryById(id));
+    public Result queryShopById(@PathVariable("id") Long id, HttpServletRequest request) {
+        // 只写入内存缓冲区，由后台任务批量写入 Redis
+        UserDTO user = UserHolder.getUser();
+        shopVisitManager.record(id, user != null ? user.getId().toString() : "ip:" + request.getRemoteAddr());
+        // 缓存中的 JSON 字节直接拼进响应
+        RawJson shop = shopService.queryRawById(id);
+        if (shop == null) {
+            return Result.ok();
+        }
+        return RawJsonResult.ok(shop.bytes(), shop.offset(), shop.length());
+    }
+
+    /**
+     * 查询商铺访问统计
+     *
+     * @param id     商铺id
+     * @param period day / week / month
+     * @return UV 与 PV
+     */
+    @GetMapping("/{id}/stats")
+    public Result queryShopVisitStats(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "period", defaultValue = ShopVisitManager.PERIOD_DAY) String period) {
+        if (!ShopVisitManager.PERIOD_DAY.equals(period)
+                && !ShopVisitManager.PERIOD_WEEK.equals(period)
+                && !ShopVisitManager.PERIOD_MONTH.equals(period)) {
+            return Result.fail("统计周期只能是 day、week 或 month！");
+        }
+        return Result.ok(shopVisitManager.stats(id, period));
     }
 
     /**
@@ -44,10 +77,8 @@ public class ShopController {
      */
     @PostMapping
     public Result saveShop(@RequestBody Shop shop) {
-        // 写入数据库
-        shopService.save(shop);
-        // 返回店铺id
-        return Result.ok(shop.getId());
+        // 写入数据库，同步检索索引
+        return Result.ok(shopService.saveShop(shop));
     }
 
     /**
@@ -68,16 +99,18 @@ public class ShopController {
      *
      * @param typeId  商铺类型
      * @param current 页码
+     * @param cursor  上一页返回的游标，首页传空串；不传则按页码分页
      * @return 商铺列表
      */
     @GetMapping("/of/type")
     public Result queryShopByType(
             @RequestParam("typeId") Integer typeId,
             @RequestParam(value = "current", defaultValue = "1") Integer current,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "x", required = false) Double x,
             @RequestParam(value = "y", required = false) Double y
     ) {
-        return shopService.queryShopByType(typeId, current, x, y);
+        return shopService.queryShopByType(typeId, current, cursor, x, y);
     }
 
     /**
@@ -85,18 +118,15 @@ public class ShopController {
      *
      * @param name    商铺名称关键字
      * @param current 页码
+     * @param cursor  上一页返回的游标，首页传空串；不传则按页码分页
      * @return 商铺列表
      */
     @GetMapping("/of/name")
     public Result queryShopByName(
             @RequestParam(value = "name", required = false) String name,
-            @RequestParam(value = "current", defaultValue = "1") Integer current
+            @RequestParam(value = "current", defaultValue = "1") Integer current,
+            @RequestParam(value = "cursor", required = false) String cursor
     ) {
-        // 根据类型分页查询
-        Page<Shop> page = shopService.query()
-                .like(StringUtils.hasText(name), "name", name)
-                .page(new Page<>(current, SystemConstants.MAX_PAGE_SIZE));
-        // 返回数据
-        return Result.ok(page.getRecords());
+        return shopService.queryShopByName(name, current, cursor);
     }
 }
@@ -1,12 +1,16 @@
 package com.zwz5.controller;
 
-import com.zwz5.common.result.Result;
+import com.zwz5.common.catalog.ReferenceCatalog;
+import com.zwz5.manager.ShopTypeCatalog;
 import com.zwz5.pojo.entity.ShopType;
-import com.zwz5.service.IShopTypeService;
 import jakarta.annotation.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -22,13 +26,24 @@ import java.util.List;
 @RequestMapping("/shop-type")
 public class ShopTypeController {
     @Resource
-    private IShopTypeService typeService;
+    private ShopTypeCatalog shopTypeCatalog;
 
+    /**
+     * 查询商铺类型列表
+     * 直接返回目录快照中预先序列化的 Result，客户端携带相同 ETag 时返回 304
+     *
+     * @return 商铺类型列表
+     */
     @GetMapping("list")
-    public Result queryTypeList() {
-//        List<ShopType> typeList = typeService
-//                .query().orderByAsc("sort").list();
-        List<ShopType> typeList = typeService.queryList();
-        return Result.ok(typeList);
+    public ResponseEntity<byte[]> queryTypeList(WebRequest request) {
+        ReferenceCatalog.Snapshot<List<ShopType>> snapshot = shopTypeCatalog.get();
+        if (request.checkNotModified(snapshot.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.body());
     }
 }
@@ -1,7 +1,10 @@
 package com.zwz5.controller;
 
 import com.zwz5.pojo.dto.LoginFormDTO;
+import com.zwz5.common.redis.RedisBatch;
 import com.zwz5.common.result.Result;
+import com.zwz5.manager.UserProfileCache;
+import com.zwz5.pojo.converter.UserConverter;
 import com.zwz5.pojo.dto.UserDTO;
 import com.zwz5.pojo.entity.User;
 import com.zwz5.pojo.entity.UserInfo;
@@ -15,13 +18,13 @@ import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
-import org.springframework.cglib.beans.BeanMap;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -46,6 +49,9 @@ public class UserController {
     @Resource
     private IUserInfoService userInfoService;
 
+    @Resource
+    private UserProfileCache userProfileCache;
+
     @Resource
     private StringRedisTemplate stringRedisTemplate;
 
@@ -102,16 +108,17 @@ public class UserController {
         }
         // 保存用户信息到redis中
         String token = UUID.randomUUID().toString();
-        UserDTO userDTO = new UserDTO();
-        BeanUtils.copyProperties(user, userDTO);
+        UserDTO userDTO = UserConverter.toDTO(user);
 
         // 将User对象转化为HashMap
-        Map<String, String> userMap = new HashMap<>();
-        BeanMap.create(userDTO).forEach((k, v) -> userMap.put(k.toString(), v == null ? "" : v.toString()));
+        Map<String, String> userMap = UserConverter.toHash(userDTO);
         String redisToken = RedisConstants.LOGIN_USER_KEY + token;
-        // 存入Redis，并设置过期时间
-        stringRedisTemplate.opsForHash().putAll(redisToken, userMap);
-        stringRedisTemplate.expire(redisToken,RedisConstants.LOGIN_USER_TTL, TimeUnit.MINUTES);
+        // 存入Redis并设置过期时间，同时删除已使用的验证码，三条命令合并为一次 pipeline
+        RedisBatch batch = RedisBatch.of(stringRedisTemplate);
+        batch.add(conn -> conn.hMSet(redisToken, userMap));
+        batch.add(conn -> conn.expire(redisToken, TimeUnit.MINUTES.toSeconds(RedisConstants.LOGIN_USER_TTL)));
+        batch.add(conn -> conn.del(RedisConstants.LOGIN_CODE_KEY + phone));
+        batch.flush();
 
         return Result.ok(token);
     }
@@ -155,12 +162,10 @@ public class UserController {
     @GetMapping("/{id}")
     public Result queryUserById(@PathVariable("id") Long userId){
         // 查询详情
-        User user = userService.getById(userId);
-        if (user == null) {
+        UserDTO userDTO = userProfileCache.get(userId);
+        if (userDTO == null) {
             return Result.ok();
         }
-        UserDTO userDTO = new UserDTO();
-        BeanUtils.copyProperties(user, userDTO);
         // 返回
         return Result.ok(userDTO);
     }
@@ -175,7 +180,17 @@ public class UserController {
     }
 
     /**
-     * 用户当月签到统计
+     * 补签
+     * @param date 补签日期 yyyy-MM-dd
+     * @return
+     */
+    @PostMapping("/sign/makeup")
+    public Result makeupSign(@RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date){
+        return userService.makeupSign(date);
+    }
+
+    /**
+     * 用户截止今天的连续签到天数
      * @return
      */
     @GetMapping("/sign/count")
@@ -183,4 +198,36 @@ public class UserController {
         return userService.signCount();
     }
 
+    /**
+     * 用户某月签到统计
+     * @param month yyyyMM，默认本月
+     * @return
+     */
+    @GetMapping("/sign/stats")
+    public Result signStats(@RequestParam(value = "month", required = false) String month){
+        return userService.signStats(month);
+    }
+
+    /**
+     * 用户年度签到统计
+     * @param year 年份，默认今年
+     * @return
+     */
+    @GetMapping("/sign/year")
+    public Result signYearStats(@RequestParam(value = "year", required = false) Integer year){
+        return userService.signYearStats(year);
+    }
+
+    /**
+     * 批量查询用户某月签到统计
+     * @param userIds 用户id列表，逗号分隔
+     * @param month yyyyMM，默认本月
+     * @return
+     */
+    @GetMapping("/sign/stats/batch")
+    public Result signStatsBatch(@RequestParam("ids") List<Long> userIds,
+                                 @RequestParam(value = "month", required = false) String month){
+        return userService.signStatsBatch(userIds, month);
+    }
+
 }
@@ -1,6 +1,7 @@
 package com.zwz5.controller;
 
 import com.zwz5.common.result.Result;
+import com.zwz5.manager.ResponseCacheManager;
 import com.zwz5.pojo.entity.Voucher;
 import com.zwz5.service.IVoucherService;
 import jakarta.annotation.Resource;
@@ -19,6 +20,8 @@ public class VoucherController {
 
     @Resource
     private IVoucherService voucherService;
+    @Resource
+    private ResponseCacheManager responseCacheManager;
 
     /**
      * 新增普通券
@@ -28,6 +31,8 @@ public class VoucherController {
     @PostMapping
     public Result addVoucher(@RequestBody Voucher voucher) {
         voucherService.save(voucher);
+        // 店铺优惠券列表的响应缓存失效
+        responseCacheManager.evict("/voucher/list/" + voucher.getShopId());
         return Result.ok(voucher.getId());
     }
 
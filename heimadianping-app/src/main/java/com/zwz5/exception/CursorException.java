@@ -0,0 +1,8 @@
+package com.zwz5.exception;
+
+public class CursorException extends RuntimeException {
+    public CursorException(String message) {
+        super(message);
+    }
+
+}
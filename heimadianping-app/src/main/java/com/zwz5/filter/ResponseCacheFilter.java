@@ -0,0 +1,170 @@
+package com.zwz5.filter;
+
+import com.zwz5.common.cache.ResponseCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * 公开读接口的响应缓存
+ * 只缓存匿名 GET 请求（登录用户的响应可能包含 isLike 等个人数据）且业务成功的 Result：
+ * 1. 命中时直接写出缓存的字节，请求不再进入 Controller，也不再序列化；
+ * 2. If-None-Match 与 ETag 相同时返回 304；
+ * 3. 写出 Cache-Control: public, max-age，前置的 nginx/OpenResty 可以直接缓存；
+ *    同时写出 Vary: Authorization，浏览器和下游缓存不会把匿名响应（不含 isLike）用于登录后的同一 URL。
+ * 数据变更时由业务代码通过 ResponseCacheManager 删除对应路径。
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    // Result 序列化后以 success 字段开头
+    private static final byte[] SUCCESS_PREFIX = "{\"success\":true".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 缓存规则
+     *
+     * @param path  匹配的请求路径
+     * @param ttlMs 缓存时间
+     * @param onHit 命中缓存时的回调，用于补做 Controller 中被跳过的轻量逻辑（如访问计数），可为 null
+     */
+    public record Rule(Pattern path, long ttlMs, Consumer<HttpServletRequest> onHit) {
+    }
+
+    private final ResponseCache cache;
+    private final List<Rule> rules;
+    private final String cacheControl;
+
+    public ResponseCacheFilter(ResponseCache cache, List<Rule> rules, long maxAgeSeconds) {
+        this.cache = cache;
+        this.rules = rules;
+        this.cacheControl = "public, max-age=" + maxAgeSeconds;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Rule rule = match(request);
+        if (rule == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String key = keyOf(request);
+        ResponseCache.Entry entry = cache.get(key);
+        if (entry != null) {
+            if (rule.onHit() != null) {
+                rule.onHit().accept(request);
+            }
+            write(request, response, entry);
+            return;
+        }
+        // 未命中，执行 Controller 并保存响应
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        byte[] body = wrapper.getContentAsByteArray();
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && isSuccess(body)) {
+            entry = cache.put(key, body, wrapper.getContentType(), rule.ttlMs());
+            String etag = entry != null ? entry.etag() : ResponseCache.etagOf(body);
+            wrapper.setHeader(HttpHeaders.ETAG, etag);
+            wrapper.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            wrapper.addHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+            if (matchesEtag(request, etag)) {
+                wrapper.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private Rule match(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return null;
+        }
+        // 已登录请求不走缓存
+        if (StringUtils.hasLength(request.getHeader("authorization"))) {
+            return null;
+        }
+        String path = request.getRequestURI();
+        for (Rule rule : rules) {
+            if (rule.path().matcher(path).matches()) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 路径 + 排序后的参数，参数顺序不同的相同请求共用一份缓存
+     */
+    static String keyOf(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI()).append('?');
+        Map<String, String[]> params = new TreeMap<>(request.getParameterMap());
+        params.forEach((name, values) -> {
+            String[] sorted = values.clone();
+            Arrays.sort(sorted);
+            for (String value : sorted) {
+                key.append(name).append('=').append(value).append('&');
+            }
+        });
+        return key.toString();
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, ResponseCache.Entry entry)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+        if (matchesEtag(request, entry.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (entry.contentType() != null) {
+            response.setContentType(entry.contentType());
+        }
+        response.setContentLength(entry.body().length);
+        response.getOutputStream().write(entry.body());
+    }
+
+    private static boolean matchesEtag(HttpServletRequest request, String etag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (!StringUtils.hasLength(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(etag) || candidate.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSuccess(byte[] body) {
+        if (body.length < SUCCESS_PREFIX.length) {
+            return false;
+        }
+        for (int i = 0; i < SUCCESS_PREFIX.length; i++) {
+            if (body[i] != SUCCESS_PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
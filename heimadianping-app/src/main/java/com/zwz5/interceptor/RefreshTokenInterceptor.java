@@ -1,7 +1,7 @@
 package com.zwz5.interceptor;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zwz5.constants.RedisConstants;
+import com.zwz5.pojo.converter.UserConverter;
 import com.zwz5.pojo.dto.UserDTO;
 import com.zwz5.common.utils.UserHolder;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,7 +14,6 @@ import org.springframework.web.servlet.ModelAndView;
 
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @Slf4j
 public class RefreshTokenInterceptor implements HandlerInterceptor {
@@ -38,14 +37,8 @@ public class RefreshTokenInterceptor implements HandlerInterceptor {
         if (userMap.isEmpty()) {
             return true;
         }
-        // 将查询的Hash转化为DTO（自动类型转换）
-        Map<String, Object> map = userMap.entrySet().stream()
-                .collect(Collectors.toMap(
-                        e -> e.getKey().toString(),
-                        Map.Entry::getValue
-                ));
-        ObjectMapper objectMapper = new ObjectMapper();
-        UserDTO userDTO = objectMapper.convertValue(map, UserDTO.class);
+        // 将查询的Hash转化为DTO
+        UserDTO userDTO = UserConverter.fromHash(userMap);
 
         // 保存用户信息到Threadlocal
         UserHolder.saveUser(userDTO);
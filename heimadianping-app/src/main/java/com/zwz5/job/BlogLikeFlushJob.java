@@ -0,0 +1,179 @@
+package com.zwz5.job;
+
+import com.zwz5.common.redis.RedisMultiKey;
+import com.zwz5.common.redis.RedisScripts;
+import com.zwz5.common.redis.SlotShards;
+import com.zwz5.mapper.BlogMapper;
+import com.zwz5.pojo.entity.Blog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.zwz5.constants.RedisConstants.*;
+
+/**
+ * 点赞计数 write-behind 回写任务
+ * 点赞/取消点赞只修改 Redis（ZSET + 计数），由本任务按固定间隔把有变更的博客计数批量写回 tb_blog。
+ * 1. 点赞脚本把博客id写入与点赞数据同槽的待回写分片 blog:like:dirty:{slotTag}，本任务只处理提示集合中的分片，
+ *    另按较长间隔全量扫描分片，补回提示写入失败的分片，见 SlotShards。
+ * 2. Lua 原子地把分片中的一批博客迁移到同槽的 blog:like:flushing:{slotTag}；flushing 非空说明上一批未完成，优先重放。
+ * 3. 写回的是 Redis 计数的绝对值而不是增量，重放是幂等的，进程崩溃不会丢失也不会重复累加。
+ * 4. DB 写入成功后才从 flushing 中移除，失败则保留等待下次重试。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlogLikeFlushJob {
+
+    // 单个分片每次调度最多处理的批数，避免积压时长时间占用调度线程
+    private static final int MAX_ROUNDS = 10;
+
+    private static final DefaultRedisScript<List<Object>> CLAIM_SCRIPT =
+            RedisScripts.listScript("lua/blog_like_claim_script.lua");
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final BlogMapper blogMapper;
+    private final RedisMultiKey redisMultiKey;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${hmdp.like.flush-batch-size:500}")
+    private int batchSize;
+
+    // 从首次变更到写回 DB 的延迟
+    private Timer flushLag;
+    private Timer flushDuration;
+    private Counter flushedRows;
+    private Counter flushFailures;
+    private final AtomicLong pending = new AtomicLong();
+
+    @PostConstruct
+    private void initMetrics() {
+        flushLag = Timer.builder("blog.like.flush.lag")
+                .description("点赞变更到写回DB的延迟")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        flushDuration = Timer.builder("blog.like.flush.duration").register(meterRegistry);
+        flushedRows = Counter.builder("blog.like.flush.rows").register(meterRegistry);
+        flushFailures = Counter.builder("blog.like.flush.failures").register(meterRegistry);
+        meterRegistry.gauge("blog.like.flush.pending", pending);
+    }
+
+    @Scheduled(fixedDelayString = "${hmdp.like.flush-interval-ms:1000}")
+    public void flush() {
+        long remain = 0;
+        try {
+            for (String slotTag : SlotShards.active(stringRedisTemplate, BLOG_LIKE_DIRTY_SLOTS_KEY)) {
+                remain += flushShard(slotTag);
+            }
+            pending.set(remain);
+        } catch (Exception e) {
+            flushFailures.increment();
+            log.error("flush blog liked failed", e);
+        }
+    }
+
+    /**
+     * 定时全量扫描分片，补回提示集合中缺失的分片
+     */
+    @Scheduled(fixedDelayString = "${hmdp.redis.shard-sweep-ms:60000}")
+    public void sweep() {
+        try {
+            SlotShards.sweep(stringRedisTemplate, BLOG_LIKE_DIRTY_SLOTS_KEY, BLOG_LIKE_DIRTY_KEY, BLOG_LIKE_FLUSHING_KEY);
+        } catch (Exception e) {
+            log.error("sweep blog like shards failed", e);
+        }
+    }
+
+    /**
+     * 回写一个分片，分片处理完时从提示集合移除
+     *
+     * @return 分片中剩余的待回写数量
+     */
+    private long flushShard(String slotTag) {
+        int rounds = 0;
+        int claimed;
+        do {
+            claimed = flushBatch(slotTag);
+            rounds++;
+        } while (claimed >= batchSize && rounds < MAX_ROUNDS);
+        if (claimed == 0) {
+            SlotShards.release(stringRedisTemplate, BLOG_LIKE_DIRTY_SLOTS_KEY, slotTag,
+                    BLOG_LIKE_DIRTY_KEY, BLOG_LIKE_FLUSHING_KEY);
+        }
+        Long remain = stringRedisTemplate.opsForZSet().zCard(BLOG_LIKE_DIRTY_KEY + slotTag);
+        return remain == null ? 0 : remain;
+    }
+
+    /**
+     * 领取并回写分片中的一批，返回领取到的博客数量，失败返回 -1
+     */
+    private int flushBatch(String slotTag) {
+        long start = System.nanoTime();
+        String flushingKey = BLOG_LIKE_FLUSHING_KEY + slotTag;
+        List<String> ids = new ArrayList<>();
+        List<Long> dirtySince = new ArrayList<>();
+        try {
+            List<Object> items = stringRedisTemplate.execute(
+                    CLAIM_SCRIPT,
+                    List.of(BLOG_LIKE_DIRTY_KEY + slotTag, flushingKey),
+                    String.valueOf(batchSize)
+            );
+            if (items == null || items.isEmpty()) {
+                return 0;
+            }
+            for (int i = 0; i + 1 < items.size(); i += 2) {
+                ids.add(items.get(i).toString());
+                dirtySince.add(Double.valueOf(items.get(i + 1).toString()).longValue());
+            }
+            // 读取计数绝对值
+            List<String> counts = redisMultiKey.multiGet(stringRedisTemplate,
+                    ids.stream().map(id -> BLOG_LIKE_COUNT_KEY + tag(id)).toList());
+            List<Blog> blogs = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                String count = counts == null ? null : counts.get(i);
+                if (count != null) {
+                    blogs.add(new Blog().setId(Long.valueOf(ids.get(i))).setLiked(Integer.valueOf(count)));
+                }
+            }
+            if (!blogs.isEmpty()) {
+                blogMapper.updateLikedBatch(blogs);
+            }
+            // DB 写入成功后确认
+            stringRedisTemplate.opsForZSet().remove(flushingKey, ids.toArray());
+
+            long now = System.currentTimeMillis();
+            dirtySince.forEach(t -> flushLag.record(Math.max(0, now - t), TimeUnit.MILLISECONDS));
+            flushedRows.increment(blogs.size());
+            return ids.size();
+        } catch (Exception e) {
+            // flushing 中的数据保留，分片仍在提示集合中，下次调度重放
+            flushFailures.increment();
+            log.error("flush blog liked failed, slotTag={}, blogIds={}", slotTag, ids, e);
+            return -1;
+        } finally {
+            flushDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 停机前尽量回写一次，缩小 DB 与 Redis 的差距
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,24 @@
+package com.zwz5.job;
+
+import com.zwz5.common.executor.ExecutorRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 线程池自适应调整任务
+ * 按固定间隔检查各线程池的队列积压，逐步调整核心线程数，见 ExecutorRegistry.adapt
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "hmdp.executor", name = "adaptive", havingValue = "true", matchIfMissing = true)
+public class ExecutorTuneJob {
+
+    private final ExecutorRegistry executorRegistry;
+
+    @Scheduled(fixedDelayString = "${hmdp.executor.adapt-interval-ms:5000}")
+    public void adapt() {
+        executorRegistry.adapt();
+    }
+}
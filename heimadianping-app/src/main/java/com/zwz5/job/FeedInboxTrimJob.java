@@ -0,0 +1,60 @@
+package com.zwz5.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.zwz5.constants.RedisConstants.FEED_KEY;
+import static com.zwz5.constants.RedisConstants.FEED_TRIM_PENDING_KEY;
+
+/**
+ * 收件箱裁剪任务
+ * 推模式下大V每发一篇博客都会写入全部粉丝的收件箱，收件箱只保留最近的 max-size 条。
+ * saveBlog 只记录收到推送的用户id，本任务批量弹出后用 pipeline 执行 ZREMRANGEBYRANK，不占用发博客的请求链路。
+ * 弹出后若进程崩溃，该收件箱会在下一次收到推送时重新进入待裁剪集合。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FeedInboxTrimJob {
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${hmdp.feed.inbox-max-size:1000}")
+    private long inboxMaxSize;
+
+    @Value("${hmdp.feed.trim-batch-size:200}")
+    private long batchSize;
+
+    @Scheduled(fixedDelayString = "${hmdp.feed.trim-interval-ms:60000}")
+    public void trim() {
+        List<String> userIds;
+        while ((userIds = stringRedisTemplate.opsForSet().pop(FEED_TRIM_PENDING_KEY, batchSize)) != null
+                && !userIds.isEmpty()) {
+            List<String> batch = userIds;
+            try {
+                // 保留 score 最大的 inboxMaxSize 条，删除排名 [0, -(inboxMaxSize + 1)] 的旧数据
+                stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (String userId : batch) {
+                        byte[] key = (FEED_KEY + userId).getBytes(StandardCharsets.UTF_8);
+                        connection.zSetCommands().zRemRange(key, 0, -(inboxMaxSize + 1));
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                log.error("trim feed inbox failed, userIds={}", batch, e);
+                return;
+            }
+            if (userIds.size() < batchSize) {
+                return;
+            }
+        }
+    }
+}
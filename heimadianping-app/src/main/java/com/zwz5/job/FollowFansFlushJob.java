@@ -0,0 +1,43 @@
+package com.zwz5.job;
+
+import com.zwz5.manager.FollowGraphManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 粉丝数重算任务
+ * 关注/取关脚本把被关注用户记入待重算分片，本任务按固定间隔领取并按数据库计数覆盖粉丝数；
+ * 另按较长间隔全量扫描分片，补回提示写入失败的分片。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FollowFansFlushJob {
+
+    private final FollowGraphManager followGraphManager;
+
+    @Value("${hmdp.follow.fans-flush-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${hmdp.follow.fans-flush-interval-ms:1000}")
+    public void flush() {
+        try {
+            followGraphManager.flushFans(batchSize);
+        } catch (Exception e) {
+            // 重算中的用户保留在分片中，下次调度重放
+            log.error("flush follow fans failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hmdp.redis.shard-sweep-ms:60000}")
+    public void sweep() {
+        try {
+            followGraphManager.sweepFans();
+        } catch (Exception e) {
+            log.error("sweep follow fans shards failed", e);
+        }
+    }
+}
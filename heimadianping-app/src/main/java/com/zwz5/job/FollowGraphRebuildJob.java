@@ -0,0 +1,52 @@
+package com.zwz5.job;
+
+import com.zwz5.manager.FollowGraphManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 关注关系缓存全量重建
+ * 每天低峰期从 tb_follow 重建全部 follows:* 集合与计数，修正漏写或手工改库造成的漂移；
+ * 开启 warm-up-on-startup 时启动后异步预热一次。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FollowGraphRebuildJob {
+
+    private final FollowGraphManager followGraphManager;
+
+    // 全量重建耗时较长，放在批量任务线程池，不占用缓存重建线程
+    private final Executor batchOpsExecutor;
+
+    @Value("${hmdp.follow.rebuild-batch-size:500}")
+    private int batchSize;
+
+    @Value("${hmdp.follow.warm-up-on-startup:false}")
+    private boolean warmUpOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmUpOnStartup) {
+            batchOpsExecutor.execute(this::rebuild);
+        }
+    }
+
+    @Scheduled(cron = "${hmdp.follow.rebuild-cron:0 30 3 * * ?}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            long users = followGraphManager.rebuildAll(batchSize);
+            log.info("rebuild follow graph finished, users={}, cost={}ms", users, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("rebuild follow graph failed", e);
+        }
+    }
+}
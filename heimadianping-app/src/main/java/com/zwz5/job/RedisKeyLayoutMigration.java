@@ -0,0 +1,187 @@
+package com.zwz5.job;
+
+import com.zwz5.common.redis.RedisMultiKey;
+import com.zwz5.common.redis.SlotShards;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.zwz5.constants.RedisConstants.*;
+
+/**
+ * Redis key 格式迁移
+ * 多 key 脚本涉及的 key 改为 {hashtag} 格式后，旧格式的库存、点赞、关注、签到、访问统计数据需要改名才能继续使用。
+ * 1. SCAN 旧格式的 key 并 RENAMENX 为新格式，RENAMENX 保留 TTL；新 key 已存在时保留旧 key 并记录日志，不覆盖新数据。
+ *    集群部署不改名：旧 key 与新 key 不在同一个槽，无法 RENAME，应在切换到集群前完成迁移。
+ * 2. 旧的全局待处理集合（点赞待回写、签到待持久化）逐个成员写入新的按槽分片，然后删除。
+ * 3. 完成后写入标记 key，之后的启动直接跳过。
+ * 默认关闭，只执行一次：迁移期间旧版本实例仍会写入旧格式 key，需停机发布——先停掉全部旧实例，
+ * 在一个新实例上开启 hmdp.redis.key-migration.enabled 启动（容器刷新阶段同步执行，Web 服务启动前完成），再启动其余实例。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisKeyLayoutMigration {
+
+    private static final long SCAN_COUNT = 1000;
+
+    // 访问统计的日、周、月后缀：yyyyMMdd / w{周所在年}{周} / m{yyyyMM}
+    private static final String VISIT_SUFFIX = ":(?:\\d{8}|w\\d{6}|m\\d{6})";
+
+    /**
+     * 旧格式：SCAN 的匹配模式 -> 完整匹配旧 key 的正则，第一个分组为需要加 hashtag 的部分
+     */
+    private static final Map<String, Pattern> ID_KEYS = Map.of(
+            SECKILL_STOCK_KEY + "*", idPattern(SECKILL_STOCK_KEY, ""),
+            SECKILL_ORDER_KEY + "*", idPattern(SECKILL_ORDER_KEY, ""),
+            SECKILL_INFO_KEY + "*", idPattern(SECKILL_INFO_KEY, ""),
+            BLOG_LIKED_KEY + "*", idPattern(BLOG_LIKED_KEY, ""),
+            BLOG_LIKE_COUNT_KEY + "*", idPattern(BLOG_LIKE_COUNT_KEY, ""),
+            FOLLOW_KEY + "*", idPattern(FOLLOW_KEY, ""),
+            FOLLOW_COUNT_KEY + "*", idPattern(FOLLOW_COUNT_KEY, ""),
+            // sign:* 同时匹配 sign:backup:*
+            USER_SIGN_KEY + "*", Pattern.compile("sign:(?:backup:)?(\\d+):\\d{6}"),
+            SHOP_UV_KEY + "*", idPattern(SHOP_UV_KEY, VISIT_SUFFIX),
+            SHOP_PV_KEY + "*", idPattern(SHOP_PV_KEY, VISIT_SUFFIX)
+    );
+
+    /**
+     * 旧的全局点赞待回写/回写中集合，包括只加了 {dirty} 的中间格式
+     */
+    private static final List<String> OLD_LIKE_DIRTY_KEYS = List.of(
+            "blog:like:dirty", "blog:like:flushing", "blog:like:{dirty}", "blog:like:{dirty}:flushing");
+
+    /**
+     * 旧的全局签到待持久化集合
+     */
+    private static final String OLD_SIGN_PENDING_KEY = "sign:pending";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMultiKey redisMultiKey;
+
+    @Value("${hmdp.redis.key-migration.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 在容器刷新阶段同步执行，Web 服务启动前完成
+     */
+    @PostConstruct
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(KEY_LAYOUT_MIGRATED_KEY))) {
+            log.info("redis key layout already migrated, skip");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int renamed = 0;
+        if (!redisMultiKey.isCluster(stringRedisTemplate)) {
+            for (String match : ID_KEYS.keySet()) {
+                try (Cursor<String> cursor = stringRedisTemplate.scan(
+                        ScanOptions.scanOptions().match(match).count(SCAN_COUNT).build())) {
+                    while (cursor.hasNext()) {
+                        String oldKey = cursor.next();
+                        String newKey = migratedKey(oldKey);
+                        if (newKey != null && rename(oldKey, newKey)) {
+                            renamed++;
+                        }
+                    }
+                }
+            }
+        }
+        int moved = 0;
+        for (String oldKey : OLD_LIKE_DIRTY_KEYS) {
+            moved += moveLikeDirty(oldKey);
+        }
+        moved += moveSignPending();
+        stringRedisTemplate.opsForValue().set(KEY_LAYOUT_MIGRATED_KEY, String.valueOf(System.currentTimeMillis()));
+        log.info("redis key layout migrated, renamed={}, moved={}, cost={}ms",
+                renamed, moved, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 旧 key 对应的新 key
+     *
+     * @return 不是旧格式返回 null
+     */
+    static String migratedKey(String oldKey) {
+        for (Pattern pattern : ID_KEYS.values()) {
+            Matcher matcher = pattern.matcher(oldKey);
+            if (matcher.matches()) {
+                return oldKey.substring(0, matcher.start(1)) + tag(matcher.group(1)) + oldKey.substring(matcher.end(1));
+            }
+        }
+        return null;
+    }
+
+    private boolean rename(String oldKey, String newKey) {
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(oldKey))) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(stringRedisTemplate.renameIfAbsent(oldKey, newKey))) {
+            return true;
+        }
+        log.warn("redis key layout migration skipped, target exists, key={}", oldKey);
+        return false;
+    }
+
+    /**
+     * 旧点赞待回写集合中的博客移入对应分片，回写中的也一并视为待回写，回写计数绝对值，重复回写无副作用
+     */
+    private int moveLikeDirty(String oldKey) {
+        int moved = 0;
+        try (Cursor<ZSetOperations.TypedTuple<String>> cursor = stringRedisTemplate.opsForZSet().scan(
+                oldKey, ScanOptions.scanOptions().count(SCAN_COUNT).build())) {
+            while (cursor.hasNext()) {
+                ZSetOperations.TypedTuple<String> item = cursor.next();
+                String slotTag = SlotShards.tagOf(BLOG_LIKED_KEY + tag(item.getValue()));
+                double score = item.getScore() == null ? System.currentTimeMillis() : item.getScore();
+                stringRedisTemplate.opsForZSet().addIfAbsent(BLOG_LIKE_DIRTY_KEY + slotTag, item.getValue(), score);
+                stringRedisTemplate.opsForSet().add(BLOG_LIKE_DIRTY_SLOTS_KEY, slotTag);
+                moved++;
+            }
+        }
+        stringRedisTemplate.delete(oldKey);
+        return moved;
+    }
+
+    /**
+     * 旧签到待持久化集合中的记录（userId:yyyyMM）移入对应分片
+     */
+    private int moveSignPending() {
+        int moved = 0;
+        try (Cursor<String> cursor = stringRedisTemplate.opsForSet().scan(
+                OLD_SIGN_PENDING_KEY, ScanOptions.scanOptions().count(SCAN_COUNT).build())) {
+            while (cursor.hasNext()) {
+                String record = cursor.next();
+                int idx = record.indexOf(':');
+                String signKey = USER_SIGN_KEY + tag(record.substring(0, idx)) + record.substring(idx);
+                String slotTag = SlotShards.tagOf(signKey);
+                stringRedisTemplate.opsForSet().add(USER_SIGN_PENDING_KEY + slotTag, record);
+                stringRedisTemplate.opsForSet().add(USER_SIGN_PENDING_SLOTS_KEY, slotTag);
+                moved++;
+            }
+        }
+        stringRedisTemplate.delete(OLD_SIGN_PENDING_KEY);
+        return moved;
+    }
+
+    /**
+     * 前缀 + 数字id + 后缀
+     */
+    private static Pattern idPattern(String prefix, String suffix) {
+        return Pattern.compile(Pattern.quote(prefix) + "(\\d+)" + suffix);
+    }
+}
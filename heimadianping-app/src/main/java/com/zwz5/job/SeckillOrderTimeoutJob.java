@@ -0,0 +1,63 @@
+package com.zwz5.job;
+
+import com.zwz5.manager.SeckillOrderTimeoutManager;
+import com.zwz5.manager.SeckillOrderTimeoutManager.CancelResult;
+import com.zwz5.manager.SeckillOrderTimeoutManager.TimeoutOrder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 未支付订单超时取消任务
+ * 按固定间隔领取已超时的订单，分批取消并归还 DB 与 Redis 库存，见 SeckillOrderTimeoutManager。
+ */
+@Slf4j
+@Component
+public class SeckillOrderTimeoutJob {
+
+    // 单次调度最多处理的批数，避免积压时长时间占用调度线程
+    private static final int MAX_ROUNDS = 10;
+
+    private final SeckillOrderTimeoutManager seckillOrderTimeoutManager;
+    private final Counter claimedOrders;
+    private final Counter restoredOrders;
+
+    @Value("${hmdp.seckill.order.cancel-batch-size:200}")
+    private int batchSize;
+
+    public SeckillOrderTimeoutJob(SeckillOrderTimeoutManager seckillOrderTimeoutManager, MeterRegistry meterRegistry) {
+        this.seckillOrderTimeoutManager = seckillOrderTimeoutManager;
+        this.claimedOrders = Counter.builder("seckill.order.timeout").tag("result", "claimed").register(meterRegistry);
+        this.restoredOrders = Counter.builder("seckill.order.timeout").tag("result", "restored").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${hmdp.seckill.order.cancel-interval-ms:1000}")
+    public void cancelExpired() {
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            List<TimeoutOrder> orders;
+            try {
+                orders = seckillOrderTimeoutManager.claim(batchSize);
+                if (orders.isEmpty()) {
+                    return;
+                }
+                CancelResult result = seckillOrderTimeoutManager.cancelUnpaid(orders);
+                seckillOrderTimeoutManager.restoreStock(result.restore());
+                seckillOrderTimeoutManager.complete(result.done());
+                claimedOrders.increment(orders.size());
+                restoredOrders.increment(result.restore().size());
+            } catch (Exception e) {
+                // 领取的订单保留在队列中，租约到期后重试
+                log.error("cancel expired seckill orders failed", e);
+                return;
+            }
+            if (orders.size() < batchSize) {
+                return;
+            }
+        }
+    }
+}
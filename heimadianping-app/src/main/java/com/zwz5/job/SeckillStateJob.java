@@ -0,0 +1,52 @@
+package com.zwz5.job;
+
+import com.zwz5.manager.SeckillStateManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 秒杀 Redis 状态预热与对账
+ * 启动后补齐未结束秒杀券的库存、活动信息和下单用户集合，之后定时补齐缺失的 key 并对账，见 SeckillStateManager。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillStateJob {
+
+    private final SeckillStateManager seckillStateManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            int repaired = seckillStateManager.warmUp();
+            log.info("warm up seckill state finished, repaired={}, cost={}ms", repaired, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("warm up seckill state failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hmdp.seckill.reconcile-ms:60000}",
+            initialDelayString = "${hmdp.seckill.reconcile-ms:60000}")
+    public void reconcile() {
+        try {
+            int repaired = seckillStateManager.warmUp();
+            if (repaired > 0) {
+                log.warn("seckill state missing in redis, repaired={}", repaired);
+            }
+            Map<Long, Long> drifts = seckillStateManager.reconcile();
+            if (!drifts.isEmpty()) {
+                // 正在取消或落库的订单会造成短暂偏差，持续存在时需人工核对
+                log.warn("seckill stock drift detected, voucherId -> drift: {}", drifts);
+            }
+        } catch (Exception e) {
+            log.error("reconcile seckill state failed", e);
+        }
+    }
+}
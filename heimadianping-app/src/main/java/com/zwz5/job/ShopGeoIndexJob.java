@@ -0,0 +1,40 @@
+package com.zwz5.job;
+
+import com.zwz5.manager.ShopGeoManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 进程内店铺地理索引的构建与定时刷新，仅在 hmdp.geo.local-index.enabled 开启时执行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShopGeoIndexJob {
+
+    private final ShopGeoManager shopGeoManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${hmdp.geo.local-index.refresh-ms:300000}",
+            initialDelayString = "${hmdp.geo.local-index.refresh-ms:300000}")
+    public void refresh() {
+        if (!shopGeoManager.isLocalIndexEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            int shops = shopGeoManager.rebuildLocalIndex();
+            log.info("rebuild shop geo index finished, shops={}, cost={}ms", shops, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("rebuild shop geo index failed", e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.zwz5.job;
+
+import com.zwz5.manager.ShopVisitManager;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * 店铺访问统计任务
+ * 定时把内存中的访问批量写入 Redis；每天凌晨把前一天的日 UV 合并进周、月 UV。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShopVisitJob {
+
+    private final ShopVisitManager shopVisitManager;
+
+    @Scheduled(fixedDelayString = "${hmdp.shop-visit.flush-interval-ms:1000}")
+    public void flush() {
+        try {
+            shopVisitManager.flush();
+        } catch (Exception e) {
+            log.error("flush shop visits failed", e);
+        }
+    }
+
+    @Scheduled(cron = "${hmdp.shop-visit.rollup-cron:0 20 0 * * ?}")
+    public void rollup() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        try {
+            int shops = shopVisitManager.rollup(yesterday);
+            log.info("rollup shop uv finished, day={}, shops={}", yesterday, shops);
+        } catch (Exception e) {
+            log.error("rollup shop uv failed, day={}", yesterday, e);
+        }
+    }
+
+    /**
+     * 停机前把缓冲区中的访问写入 Redis
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
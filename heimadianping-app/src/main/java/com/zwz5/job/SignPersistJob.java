@@ -0,0 +1,34 @@
+package com.zwz5.job;
+
+import com.zwz5.manager.SignManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 签到位图持久化任务
+ * 每晚把当天有签到/补签变更的月度位图写入 tb_sign，每个用户每月一行，重复写入按唯一索引覆盖。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SignPersistJob {
+
+    private final SignManager signManager;
+
+    @Value("${hmdp.sign.persist-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(cron = "${hmdp.sign.persist-cron:0 10 0 * * ?}")
+    public void persist() {
+        long start = System.currentTimeMillis();
+        try {
+            int rows = signManager.persistPending(batchSize);
+            log.info("persist sign bitmaps finished, rows={}, cost={}ms", rows, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("persist sign bitmaps failed", e);
+        }
+    }
+}
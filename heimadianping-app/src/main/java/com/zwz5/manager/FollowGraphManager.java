@@ -0,0 +1,406 @@
+package com.zwz5.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.zwz5.common.redis.RedisBatch;
+import com.zwz5.common.redis.RedisMultiKey;
+import com.zwz5.common.redis.RedisScripts;
+import com.zwz5.common.redis.SlotShards;
+import com.zwz5.mapper.FollowMapper;
+import com.zwz5.mapper.UserMapper;
+import com.zwz5.pojo.dto.FollowCountDTO;
+import com.zwz5.pojo.entity.Follow;
+import com.zwz5.pojo.entity.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static com.zwz5.constants.RedisConstants.FOLLOW_COUNT_KEY;
+import static com.zwz5.constants.RedisConstants.FOLLOW_FANS_DIRTY_KEY;
+import static com.zwz5.constants.RedisConstants.FOLLOW_FANS_DIRTY_SLOTS_KEY;
+import static com.zwz5.constants.RedisConstants.FOLLOW_FANS_FLUSHING_KEY;
+import static com.zwz5.constants.RedisConstants.FOLLOW_KEY;
+import static com.zwz5.constants.RedisConstants.FOLLOW_VERSION_KEY;
+import static com.zwz5.constants.RedisConstants.tag;
+
+/**
+ * 关注关系缓存
+ * follows:{userId} 保存用户关注的人，follow:count:{userId} 保存关注数和粉丝数。
+ * 1. 集合首次访问时从 tb_follow 懒加载，加载时写入占位成员，用来区分"未加载"与"没有关注任何人"。
+ * 2. 关注/取关前先确保集合与计数已加载，DB 写入成功后用 Lua 同步集合和本人计数，避免加载与增量写入交错导致漏数据。
+ *    对方的粉丝数在另一个槽，同一脚本在集合确实变化时把对方记入与本人数据同槽的待重算分片，
+ *    flushFans 定时领取分片，按数据库计数覆盖粉丝数：写入的是绝对值，重放是幂等的，不会重复累加。
+ * 3. rebuildAll 按用户id分批从数据库重建全部集合与计数，用于预热和修正漂移。
+ *    增量写入和粉丝数重算会自增 follow:ver:{userId}，重建在读库前记录版本号，覆盖时版本已变化则跳过该用户，
+ *    避免读库与覆盖之间提交的关注/取关被旧快照覆盖，跳过的用户留到下次重建。
+ * 4. 不存在的用户不写入计数缓存。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FollowGraphManager {
+
+    // 占位成员，用户id不会为负数
+    public static final String PLACEHOLDER = "-1";
+
+    private static final String FIELD_FOLLOWS = "follows";
+    private static final String FIELD_FANS = "fans";
+    private static final long NOT_LOADED = -1L;
+
+    private static final DefaultRedisScript<Long> CHECK_SCRIPT;
+    private static final DefaultRedisScript<List<Object>> CHECK_BATCH_SCRIPT =
+            RedisScripts.listScript("lua/follow_check_batch_script.lua");
+    private static final DefaultRedisScript<Long> LOAD_SCRIPT;
+    private static final DefaultRedisScript<Long> COUNT_LOAD_SCRIPT;
+    private static final DefaultRedisScript<Long> UPDATE_SCRIPT;
+    private static final DefaultRedisScript<Long> REBUILD_SCRIPT;
+    private static final DefaultRedisScript<Long> FANS_SET_SCRIPT;
+    private static final DefaultRedisScript<List<Object>> FANS_CLAIM_SCRIPT =
+            RedisScripts.listScript("lua/follow_fans_claim_script.lua");
+
+    static {
+        CHECK_SCRIPT = new DefaultRedisScript<>();
+        CHECK_SCRIPT.setLocation(new ClassPathResource("lua/follow_check_script.lua"));
+        CHECK_SCRIPT.setResultType(Long.class);
+        LOAD_SCRIPT = new DefaultRedisScript<>();
+        LOAD_SCRIPT.setLocation(new ClassPathResource("lua/follow_load_script.lua"));
+        LOAD_SCRIPT.setResultType(Long.class);
+        COUNT_LOAD_SCRIPT = new DefaultRedisScript<>();
+        COUNT_LOAD_SCRIPT.setLocation(new ClassPathResource("lua/follow_count_load_script.lua"));
+        COUNT_LOAD_SCRIPT.setResultType(Long.class);
+        UPDATE_SCRIPT = new DefaultRedisScript<>();
+        UPDATE_SCRIPT.setLocation(new ClassPathResource("lua/follow_update_script.lua"));
+        UPDATE_SCRIPT.setResultType(Long.class);
+        REBUILD_SCRIPT = new DefaultRedisScript<>();
+        REBUILD_SCRIPT.setLocation(new ClassPathResource("lua/follow_rebuild_script.lua"));
+        REBUILD_SCRIPT.setResultType(Long.class);
+        FANS_SET_SCRIPT = new DefaultRedisScript<>();
+        FANS_SET_SCRIPT.setLocation(new ClassPathResource("lua/follow_fans_set_script.lua"));
+        FANS_SET_SCRIPT.setResultType(Long.class);
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final FollowMapper followMapper;
+    private final UserMapper userMapper;
+    private final RedisMultiKey redisMultiKey;
+    private final UserProfileCache userProfileCache;
+
+    /**
+     * 是否关注，集合未加载时先从数据库加载
+     */
+    public boolean isFollowing(Long userId, Long followUserId) {
+        String key = FOLLOW_KEY + tag(userId);
+        Long result = stringRedisTemplate.execute(CHECK_SCRIPT, Collections.singletonList(key), followUserId.toString());
+        if (result != null && result == NOT_LOADED) {
+            loadFollowSet(userId);
+            result = stringRedisTemplate.execute(CHECK_SCRIPT, Collections.singletonList(key), followUserId.toString());
+        }
+        return result != null && result == 1L;
+    }
+
+    /**
+     * 批量判断是否关注，一次 SMISMEMBER 返回全部结果
+     *
+     * @return 用户id -> 是否关注，顺序与 followUserIds 一致
+     */
+    public Map<Long, Boolean> isFollowing(Long userId, List<Long> followUserIds) {
+        if (followUserIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String key = FOLLOW_KEY + tag(userId);
+        Object[] args = followUserIds.stream().map(String::valueOf).toArray();
+        List<Object> result = stringRedisTemplate.execute(CHECK_BATCH_SCRIPT, Collections.singletonList(key), args);
+        if (result != null && result.size() == 1 && toLong(result.get(0)) == NOT_LOADED) {
+            loadFollowSet(userId);
+            result = stringRedisTemplate.execute(CHECK_BATCH_SCRIPT, Collections.singletonList(key), args);
+        }
+        Map<Long, Boolean> map = new LinkedHashMap<>(followUserIds.size());
+        for (int i = 0; i < followUserIds.size(); i++) {
+            map.put(followUserIds.get(i), result != null && i < result.size() && toLong(result.get(i)) == 1L);
+        }
+        return map;
+    }
+
+    /**
+     * 关注/取关写库前调用，保证后续增量同步作用在已加载的数据上
+     */
+    public void prepare(Long userId, Long followUserId) {
+        ensureFollowSetLoaded(userId);
+        ensureCountLoaded(userId);
+        ensureCountLoaded(followUserId);
+    }
+
+    /**
+     * 关注写库成功后同步缓存
+     */
+    public void onFollow(Long userId, Long followUserId) {
+        update(userId, followUserId, 1);
+    }
+
+    /**
+     * 取关写库成功后同步缓存
+     */
+    public void onUnfollow(Long userId, Long followUserId) {
+        update(userId, followUserId, -1);
+    }
+
+    /**
+     * 共同关注的用户id
+     * 两个用户的集合通常不在同一个槽，集群模式下分别读取后在本地求交集
+     */
+    public List<Long> commonFollows(Long userId, Long otherUserId) {
+        String key1 = FOLLOW_KEY + tag(userId);
+        String key2 = FOLLOW_KEY + tag(otherUserId);
+        ensureFollowSetLoaded(userId);
+        ensureFollowSetLoaded(otherUserId);
+        Set<String> intersect;
+        if (redisMultiKey.isCluster(stringRedisTemplate)) {
+            intersect = stringRedisTemplate.opsForSet().members(key1);
+            Set<String> other = stringRedisTemplate.opsForSet().members(key2);
+            if (intersect != null) {
+                intersect.retainAll(other == null ? Collections.emptySet() : other);
+            }
+        } else {
+            intersect = stringRedisTemplate.opsForSet().intersect(key1, key2);
+        }
+        if (intersect == null || intersect.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return intersect.stream()
+                .filter(id -> !PLACEHOLDER.equals(id))
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 关注数与粉丝数
+     */
+    public FollowCountDTO getCount(Long userId) {
+        String key = FOLLOW_COUNT_KEY + tag(userId);
+        List<Object> values = stringRedisTemplate.opsForHash().multiGet(key, List.of(FIELD_FOLLOWS, FIELD_FANS));
+        if (values.get(0) == null || values.get(1) == null) {
+            if (!ensureCountLoaded(userId)) {
+                return new FollowCountDTO(0L, 0L);
+            }
+            values = stringRedisTemplate.opsForHash().multiGet(key, List.of(FIELD_FOLLOWS, FIELD_FANS));
+        }
+        return new FollowCountDTO(toLong(values.get(0)), toLong(values.get(1)));
+    }
+
+    /**
+     * 按用户id分批从数据库重建关注集合与计数
+     * 每个用户的集合与计数在一个脚本内原子覆盖，重建过程中读请求始终能读到完整的数据。
+     *
+     * @param batchSize 每批用户数量
+     * @return 重建的用户数量
+     */
+    public long rebuildAll(int batchSize) {
+        long lastId = 0;
+        long total = 0;
+        while (true) {
+            List<Long> userIds = userMapper.selectList(new LambdaQueryWrapper<User>()
+                            .select(User::getId)
+                            .gt(User::getId, lastId)
+                            .orderByAsc(User::getId)
+                            .last("LIMIT " + batchSize))
+                    .stream().map(User::getId).toList();
+            if (userIds.isEmpty()) {
+                return total;
+            }
+            rebuildBatch(userIds);
+            total += userIds.size();
+            lastId = userIds.get(userIds.size() - 1);
+        }
+    }
+
+    private void rebuildBatch(List<Long> userIds) {
+        // 1.读库前记录每个用户的变更版本
+        RedisBatch versionBatch = RedisBatch.of(stringRedisTemplate);
+        List<CompletableFuture<String>> versions = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            versions.add(versionBatch.add(conn -> conn.get(FOLLOW_VERSION_KEY + tag(userId))));
+        }
+        versionBatch.flush();
+        // 2.批量查询关注关系与粉丝数
+        Map<Long, List<String>> followsByUser = followMapper.selectList(new LambdaQueryWrapper<Follow>()
+                        .select(Follow::getUserId, Follow::getFollowUserId)
+                        .in(Follow::getUserId, userIds))
+                .stream()
+                .collect(Collectors.groupingBy(Follow::getUserId,
+                        Collectors.mapping(f -> f.getFollowUserId().toString(), Collectors.toList())));
+        Map<Long, Long> fansByUser = countFans(userIds);
+        // 3.按用户执行覆盖脚本，pipeline 一次提交，版本已变化的用户由脚本跳过
+        RedisBatch rebuildBatch = RedisBatch.of(stringRedisTemplate);
+        String script = REBUILD_SCRIPT.getScriptAsString();
+        for (int i = 0; i < userIds.size(); i++) {
+            Long userId = userIds.get(i);
+            String version = versions.get(i).join();
+            List<String> follows = followsByUser.getOrDefault(userId, Collections.emptyList());
+            List<String> keysAndArgs = new ArrayList<>(follows.size() + 6);
+            keysAndArgs.add(FOLLOW_KEY + tag(userId));
+            keysAndArgs.add(FOLLOW_COUNT_KEY + tag(userId));
+            keysAndArgs.add(FOLLOW_VERSION_KEY + tag(userId));
+            keysAndArgs.add(version == null ? "0" : version);
+            keysAndArgs.add(String.valueOf(fansByUser.getOrDefault(userId, 0L)));
+            keysAndArgs.add(PLACEHOLDER);
+            keysAndArgs.addAll(follows);
+            rebuildBatch.add(conn -> conn.eval(script, ReturnType.INTEGER, 3, keysAndArgs.toArray(new String[0])));
+        }
+        rebuildBatch.flush();
+    }
+
+    /**
+     * 领取提示集合中各分片的待重算用户，按数据库计数覆盖粉丝数
+     *
+     * @param batchSize 每批用户数量
+     * @return 写入的用户数量
+     */
+    public int flushFans(int batchSize) {
+        int total = 0;
+        for (String slotTag : SlotShards.active(stringRedisTemplate, FOLLOW_FANS_DIRTY_SLOTS_KEY)) {
+            int claimed;
+            do {
+                claimed = flushFansBatch(slotTag, batchSize);
+                total += Math.max(claimed, 0);
+            } while (claimed >= batchSize);
+            if (claimed == 0) {
+                SlotShards.release(stringRedisTemplate, FOLLOW_FANS_DIRTY_SLOTS_KEY, slotTag,
+                        FOLLOW_FANS_DIRTY_KEY, FOLLOW_FANS_FLUSHING_KEY);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 全量扫描粉丝数待重算分片，补回提示集合中缺失的分片
+     */
+    public int sweepFans() {
+        return SlotShards.sweep(stringRedisTemplate, FOLLOW_FANS_DIRTY_SLOTS_KEY,
+                FOLLOW_FANS_DIRTY_KEY, FOLLOW_FANS_FLUSHING_KEY);
+    }
+
+    /**
+     * 重算分片中的一批用户
+     *
+     * @return 领取到的用户数量；有用户因版本变化被跳过时返回 -1，留在重算中集合等待下次调度
+     */
+    private int flushFansBatch(String slotTag, int batchSize) {
+        String flushingKey = FOLLOW_FANS_FLUSHING_KEY + slotTag;
+        List<Object> items = stringRedisTemplate.execute(FANS_CLAIM_SCRIPT,
+                List.of(FOLLOW_FANS_DIRTY_KEY + slotTag, flushingKey), String.valueOf(batchSize));
+        if (items == null || items.isEmpty()) {
+            return 0;
+        }
+        List<Long> userIds = items.stream().map(item -> Long.valueOf(item.toString())).toList();
+        // 1.读库前记录版本，重算期间有新的变更则放弃本次写入
+        RedisBatch versionBatch = RedisBatch.of(stringRedisTemplate);
+        List<CompletableFuture<String>> versions = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            versions.add(versionBatch.add(conn -> conn.get(FOLLOW_VERSION_KEY + tag(userId))));
+        }
+        versionBatch.flush();
+        Map<Long, Long> fansByUser = countFans(userIds);
+        // 2.按版本写入粉丝数
+        RedisBatch setBatch = RedisBatch.of(stringRedisTemplate);
+        String script = FANS_SET_SCRIPT.getScriptAsString();
+        List<CompletableFuture<Long>> results = new ArrayList<>(userIds.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            Long userId = userIds.get(i);
+            String version = versions.get(i).join();
+            String[] keysAndArgs = {
+                    FOLLOW_COUNT_KEY + tag(userId),
+                    FOLLOW_VERSION_KEY + tag(userId),
+                    version == null ? "0" : version,
+                    String.valueOf(fansByUser.getOrDefault(userId, 0L))
+            };
+            results.add(setBatch.add(conn -> conn.eval(script, ReturnType.INTEGER, 2, keysAndArgs)));
+        }
+        setBatch.flush();
+        // 3.写入成功的用户从重算中集合移除
+        List<String> done = new ArrayList<>(userIds.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            Long result = results.get(i).join();
+            if (result != null && result == 1L) {
+                done.add(userIds.get(i).toString());
+            }
+        }
+        if (!done.isEmpty()) {
+            stringRedisTemplate.opsForSet().remove(flushingKey, done.toArray());
+        }
+        return done.size() == userIds.size() ? userIds.size() : -1;
+    }
+
+    private void update(Long userId, Long followUserId, int delta) {
+        String followKey = FOLLOW_KEY + tag(userId);
+        String slotTag = SlotShards.tagOf(followKey);
+        Long changed = stringRedisTemplate.execute(
+                UPDATE_SCRIPT,
+                List.of(followKey, FOLLOW_COUNT_KEY + tag(userId), FOLLOW_VERSION_KEY + tag(userId),
+                        FOLLOW_FANS_DIRTY_KEY + slotTag),
+                followUserId.toString(),
+                String.valueOf(delta)
+        );
+        // 对方已由脚本记入待重算分片，这里只提示重算任务处理该分片
+        if (changed != null && changed == 1L) {
+            SlotShards.hint(stringRedisTemplate, FOLLOW_FANS_DIRTY_SLOTS_KEY, slotTag);
+        }
+    }
+
+    private void ensureFollowSetLoaded(Long userId) {
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(FOLLOW_KEY + tag(userId)))) {
+            loadFollowSet(userId);
+        }
+    }
+
+    private void loadFollowSet(Long userId) {
+        List<String> args = new ArrayList<>();
+        args.add(PLACEHOLDER);
+        followMapper.selectList(new LambdaQueryWrapper<Follow>()
+                        .select(Follow::getFollowUserId)
+                        .eq(Follow::getUserId, userId))
+                .forEach(f -> args.add(f.getFollowUserId().toString()));
+        stringRedisTemplate.execute(LOAD_SCRIPT, Collections.singletonList(FOLLOW_KEY + tag(userId)), args.toArray());
+    }
+
+    /**
+     * @return 计数已存在或已加载返回 true；用户不存在返回 false，不写入缓存
+     */
+    private boolean ensureCountLoaded(Long userId) {
+        String key = FOLLOW_COUNT_KEY + tag(userId);
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+            return true;
+        }
+        if (userProfileCache.get(userId) == null) {
+            return false;
+        }
+        Long follows = followMapper.selectCount(new LambdaQueryWrapper<Follow>().eq(Follow::getUserId, userId));
+        Long fans = followMapper.selectCount(new LambdaQueryWrapper<Follow>().eq(Follow::getFollowUserId, userId));
+        stringRedisTemplate.execute(COUNT_LOAD_SCRIPT, Collections.singletonList(key),
+                String.valueOf(follows), String.valueOf(fans));
+        return true;
+    }
+
+    private Map<Long, Long> countFans(List<Long> userIds) {
+        List<Map<String, Object>> rows = followMapper.selectMaps(new QueryWrapper<Follow>()
+                .select("follow_user_id", "COUNT(*) AS fans")
+                .in("follow_user_id", userIds)
+                .groupBy("follow_user_id"));
+        Map<Long, Long> result = new HashMap<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            result.put(((Number) row.get("follow_user_id")).longValue(), ((Number) row.get("fans")).longValue());
+        }
+        return result;
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? 0L : Long.valueOf(value.toString());
+    }
+}
@@ -0,0 +1,67 @@
+package com.zwz5.manager;
+
+import com.zwz5.common.cache.ResponseCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.zwz5.constants.RedisConstants.RESPONSE_CACHE_EVICT_CHANNEL;
+
+/**
+ * HTTP 响应缓存的失效管理
+ * 响应缓存保存在各实例内存中，数据变更时删除本地缓存并通过 Redis 频道通知其他实例删除。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheManager {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Value("${hmdp.response-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private ResponseCache cache;
+
+    @PostConstruct
+    private void init() {
+        cache = new ResponseCache(maxEntries);
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> cache.evict(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(RESPONSE_CACHE_EVICT_CHANNEL));
+    }
+
+    public ResponseCache getCache() {
+        return cache;
+    }
+
+    /**
+     * 删除所有实例中该路径的响应缓存
+     *
+     * @param path 请求路径，如 /shop/1
+     */
+    public void evict(String path) {
+        cache.evict(path);
+        try {
+            stringRedisTemplate.convertAndSend(RESPONSE_CACHE_EVICT_CHANNEL, path);
+        } catch (Exception e) {
+            // 通知失败时其他实例依靠 TTL 过期
+            log.warn("publish response cache eviction failed, path={}", path, e);
+        }
+    }
+
+    /**
+     * 只删除本实例的响应缓存，用于各实例已分别收到变更通知的场景
+     */
+    public void evictLocal(String path) {
+        cache.evict(path);
+    }
+}
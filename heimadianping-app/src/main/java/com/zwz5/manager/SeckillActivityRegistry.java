@@ -0,0 +1,222 @@
+package com.zwz5.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.zwz5.mapper.SeckillVoucherMapper;
+import com.zwz5.pojo.entity.SeckillVoucher;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.zwz5.constants.RedisConstants.SECKILL_ACTIVITY_CHANNEL;
+import static com.zwz5.constants.SeckillResultCodeConstants.*;
+
+/**
+ * 秒杀活动时间窗口
+ * 秒杀券的开始、结束时间常驻内存，未开始和已结束的请求在本地直接拒绝，不访问 Redis 和 DB；
+ * 窗口内的请求把开始、结束时间作为参数传给秒杀脚本，脚本只用 TIME 判断，不再 HGET 活动信息。
+ * 1. 启动时加载未结束的秒杀券，之后按固定间隔从 DB 刷新；新建秒杀券提交后发布到 Redis 频道，各实例立即加载。
+ * 2. 本地时钟与 Redis 时钟可能有偏差：定时用 TIME 估算偏移量，把本地时间换算成 Redis 时间后再比较；
+ *    距离开始/结束不超过 测量误差 + 容忍度 的请求不在本地判断，交给脚本以 Redis 时间为准。
+ * 3. 本地没有的秒杀券（通知丢失、刚创建）按需从 DB 加载；DB 中也没有的 id 在短时间内记为不存在，
+ *    请求不存在的券不会每次都回源 DB。新建秒杀券的通知会清除该标记。
+ * 4. 下单时 DB 条件扣减失败的秒杀券在短时间内记为售罄，之后的请求不再抢锁、开事务；
+ *    超时取消会归还库存，标记过期后重新以条件扣减为准。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillActivityRegistry {
+
+    // 已结束的活动保留一段时间，结束后的请求仍在本地拒绝，不逐个回源 DB
+    private static final long ENDED_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(1);
+    // 不存在标记的数量上限，达到上限后不再新增，过期标记在定时刷新时清理
+    private static final int MAX_ABSENT = 10000;
+
+    /**
+     * 活动时间窗口，单位毫秒
+     */
+    public record Activity(long beginMillis, long endMillis) {
+    }
+
+    private final SeckillVoucherMapper seckillVoucherMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final Map<Long, Activity> activities = new ConcurrentHashMap<>();
+    // DB 中不存在的秒杀券id -> 标记过期时间
+    private final Map<Long, Long> absent = new ConcurrentHashMap<>();
+    // 已售罄的秒杀券id -> 标记过期时间
+    private final Map<Long, Long> soldOut = new ConcurrentHashMap<>();
+
+    // Redis 时间 - 本地时间
+    private volatile long clockOffsetMillis;
+    // 偏移量的测量误差，取半个往返时间
+    private volatile long clockErrorMillis;
+
+    @Value("${hmdp.seckill.clock-tolerance-ms:50}")
+    private long toleranceMillis;
+
+    @Value("${hmdp.seckill.absent-ttl-ms:5000}")
+    private long absentTtlMillis;
+
+    @Value("${hmdp.seckill.sold-out-ttl-ms:1000}")
+    private long soldOutTtlMillis;
+
+    @PostConstruct
+    private void init() {
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> reload(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8))),
+                new ChannelTopic(SECKILL_ACTIVITY_CHANNEL));
+        syncClock();
+        refresh();
+    }
+
+    /**
+     * 秒杀券的时间窗口，本地没有时从 DB 加载
+     *
+     * @return 不是秒杀券返回 null
+     */
+    public Activity get(Long voucherId) {
+        Activity activity = activities.get(voucherId);
+        if (activity != null) {
+            return activity;
+        }
+        Long absentUntil = absent.get(voucherId);
+        if (absentUntil != null && System.currentTimeMillis() < absentUntil) {
+            return null;
+        }
+        return reload(voucherId);
+    }
+
+    /**
+     * 本地判断时间窗口
+     *
+     * @return NOT_STARTED / ENDED 可以直接拒绝；INFO_MISSING 秒杀券不存在；SUCCESS 需要由秒杀脚本继续判断
+     */
+    public int check(Activity activity) {
+        if (activity == null) {
+            return INFO_MISSING;
+        }
+        return check(activity, System.currentTimeMillis() + clockOffsetMillis, clockErrorMillis + toleranceMillis);
+    }
+
+    /**
+     * @param redisNow 换算后的 Redis 当前时间
+     * @param margin   允许的误差，边界附近的请求不在本地判断
+     */
+    static int check(Activity activity, long redisNow, long margin) {
+        if (redisNow + margin < activity.beginMillis()) {
+            return NOT_STARTED;
+        }
+        if (redisNow - margin > activity.endMillis()) {
+            return ENDED;
+        }
+        return SUCCESS;
+    }
+
+    /**
+     * DB 条件扣减库存失败后调用，标记只对本实例生效
+     */
+    public void markSoldOut(Long voucherId) {
+        soldOut.put(voucherId, System.currentTimeMillis() + soldOutTtlMillis);
+    }
+
+    /**
+     * 秒杀券是否在本实例记为售罄
+     */
+    public boolean isSoldOut(Long voucherId) {
+        Long until = soldOut.get(voucherId);
+        return until != null && System.currentTimeMillis() < until;
+    }
+
+    /**
+     * 新建秒杀券提交后调用：本实例立即登记，并通知其他实例加载
+     */
+    public void publish(SeckillVoucher voucher) {
+        activities.put(voucher.getVoucherId(), toActivity(voucher));
+        absent.remove(voucher.getVoucherId());
+        soldOut.remove(voucher.getVoucherId());
+        stringRedisTemplate.convertAndSend(SECKILL_ACTIVITY_CHANNEL, voucher.getVoucherId().toString());
+    }
+
+    /**
+     * 定时兜底刷新未结束的活动，防止漏收变更通知
+     */
+    @Scheduled(fixedDelayString = "${hmdp.seckill.activity-refresh-ms:60000}")
+    public void refresh() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            seckillVoucherMapper.selectList(new LambdaQueryWrapper<SeckillVoucher>()
+                            .select(SeckillVoucher::getVoucherId, SeckillVoucher::getBeginTime, SeckillVoucher::getEndTime)
+                            .gt(SeckillVoucher::getEndTime, now))
+                    .forEach(v -> activities.put(v.getVoucherId(), toActivity(v)));
+            long nowMillis = System.currentTimeMillis();
+            long expired = nowMillis - ENDED_RETENTION_MILLIS;
+            activities.values().removeIf(a -> a.endMillis() < expired);
+            absent.values().removeIf(until -> until <= nowMillis);
+            soldOut.values().removeIf(until -> until <= nowMillis);
+        } catch (Exception e) {
+            // 刷新失败继续使用已加载的数据
+            log.error("refresh seckill activities failed", e);
+        }
+    }
+
+    /**
+     * 定时估算与 Redis 的时钟偏移，以一次往返的中点作为 Redis 返回时间的本地时刻
+     */
+    @Scheduled(fixedDelayString = "${hmdp.seckill.clock-sync-ms:30000}")
+    public void syncClock() {
+        try {
+            long sent = System.currentTimeMillis();
+            Long redisMillis = stringRedisTemplate.execute(
+                    (RedisCallback<Long>) connection -> connection.serverCommands().time(TimeUnit.MILLISECONDS));
+            long received = System.currentTimeMillis();
+            if (redisMillis == null) {
+                return;
+            }
+            clockOffsetMillis = redisMillis - (sent + received) / 2;
+            // 毫秒截断最多带来 1ms 误差
+            clockErrorMillis = (received - sent) / 2 + 1;
+        } catch (Exception e) {
+            // 保留上一次的偏移量
+            log.warn("sync clock with redis failed", e);
+        }
+    }
+
+    private Activity reload(Long voucherId) {
+        SeckillVoucher voucher = seckillVoucherMapper.selectById(voucherId);
+        if (voucher == null) {
+            activities.remove(voucherId);
+            if (absent.size() < MAX_ABSENT) {
+                absent.put(voucherId, System.currentTimeMillis() + absentTtlMillis);
+            }
+            return null;
+        }
+        Activity activity = toActivity(voucher);
+        activities.put(voucherId, activity);
+        absent.remove(voucherId);
+        return activity;
+    }
+
+    private static Activity toActivity(SeckillVoucher voucher) {
+        return new Activity(toMillis(voucher.getBeginTime()), toMillis(voucher.getEndTime()));
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
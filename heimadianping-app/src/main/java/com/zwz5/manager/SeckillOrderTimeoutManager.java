@@ -0,0 +1,235 @@
+package com.zwz5.manager;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.zwz5.common.redis.RedisBatch;
+import com.zwz5.common.redis.RedisIdWorker;
+import com.zwz5.common.redis.RedisScripts;
+import com.zwz5.mapper.SeckillVoucherMapper;
+import com.zwz5.mapper.VoucherOrderMapper;
+import com.zwz5.pojo.entity.SeckillVoucher;
+import com.zwz5.pojo.entity.VoucherOrder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.zwz5.constants.OrderStatusConstants.CANCELLED;
+import static com.zwz5.constants.OrderStatusConstants.UNPAID;
+import static com.zwz5.constants.RedisConstants.*;
+
+/**
+ * 未支付订单超时取消
+ * 秒杀成功后把订单放入 Redis ZSET 超时队列 seckill:timeout，score 为超时时间，一个 ZSET 即可容纳百万级待取消订单，不需要每单一个定时器。
+ * 1. claim 用 Lua 领取一批已超时的订单，并把它们的 score 推迟一个租约，多实例不会重复领取，进程崩溃后租约到期重新领取。
+ * 2. cancelUnpaid 在一个事务中按 status = 未支付 条件把订单改为已取消，再按优惠券合并归还 DB 库存；并发支付的订单条件更新失败，不会被取消。
+ *    DB 中还没有的订单可能仍在异步落库，先留在队列中，超时后再等待 missing-grace-minutes 仍未落库才归还。
+ * 3. restoreStock 用 pipeline 执行归还脚本，脚本按订单id记录已归还，重试不会重复归还；
+ *    取消后允许重新购买，不能只按用户是否在下单集合中判断，否则重试会移除用户新订单的资格并多加一次库存。
+ * 4. 全部完成后 complete 从队列删除；任何一步失败都保留在队列中等待租约到期重试。
+ * 秒杀脚本扣减成功但订单最终没有落库（入队失败、消费异常、进程崩溃）时，超过等待时间后同样会归还 Redis 库存。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillOrderTimeoutManager {
+
+    /**
+     * 超时队列成员
+     */
+    public record TimeoutOrder(long orderId, long voucherId, long userId) {
+
+        String member() {
+            return orderId + ":" + voucherId + ":" + userId;
+        }
+
+        static TimeoutOrder parse(String member) {
+            String[] parts = member.split(":");
+            return new TimeoutOrder(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        }
+    }
+
+    /**
+     * 单个订单的处理方式
+     */
+    enum Action {
+        // 未支付，取消并归还库存
+        CANCEL,
+        // 已取消或确认没有落库，只归还 Redis 秒杀资格
+        RESTORE,
+        // 没有落库但可能仍在异步写入，留在队列中稍后再查
+        DEFER,
+        // 已支付等状态，不处理
+        SKIP
+    }
+
+    /**
+     * 取消结果
+     *
+     * @param restore 需要归还 Redis 秒杀资格的订单
+     * @param done    处理完成、可以从队列删除的订单，不含 DEFER
+     */
+    public record CancelResult(List<TimeoutOrder> restore, List<TimeoutOrder> done) {
+    }
+
+    private static final DefaultRedisScript<List<Object>> CLAIM_SCRIPT =
+            RedisScripts.listScript("lua/order_timeout_claim_script.lua");
+    private static final DefaultRedisScript<Long> RESTORE_SCRIPT;
+
+    static {
+        RESTORE_SCRIPT = new DefaultRedisScript<>();
+        RESTORE_SCRIPT.setLocation(new ClassPathResource("lua/seckill_restore_script.lua"));
+        RESTORE_SCRIPT.setResultType(Long.class);
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final VoucherOrderMapper voucherOrderMapper;
+    private final SeckillVoucherMapper seckillVoucherMapper;
+
+    @Value("${hmdp.seckill.order.pay-timeout-minutes:15}")
+    private long payTimeoutMinutes;
+
+    @Value("${hmdp.seckill.order.claim-lease-ms:60000}")
+    private long leaseMillis;
+
+    @Value("${hmdp.seckill.order.missing-grace-minutes:5}")
+    private long missingGraceMinutes;
+
+    /**
+     * 秒杀成功后登记超时时间
+     */
+    public void schedule(Long voucherId, Long userId, Long orderId) {
+        long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(payTimeoutMinutes);
+        stringRedisTemplate.opsForZSet().add(SECKILL_TIMEOUT_KEY,
+                new TimeoutOrder(orderId, voucherId, userId).member(), deadline);
+    }
+
+    /**
+     * 领取一批已超时的订单
+     */
+    public List<TimeoutOrder> claim(int batchSize) {
+        List<Object> members = stringRedisTemplate.execute(CLAIM_SCRIPT,
+                Collections.singletonList(SECKILL_TIMEOUT_KEY),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(batchSize),
+                String.valueOf(leaseMillis));
+        if (members == null || members.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return members.stream().map(member -> TimeoutOrder.parse(member.toString())).toList();
+    }
+
+    /**
+     * 取消仍未支付的订单并归还 DB 库存
+     *
+     * @return 需要归还 Redis 秒杀资格的订单（本次取消的、之前已取消的、确认没有落库的），以及可以从队列删除的订单
+     */
+    @Transactional
+    public CancelResult cancelUnpaid(List<TimeoutOrder> orders) {
+        Map<Long, VoucherOrder> rows = voucherOrderMapper.selectBatchIds(
+                        orders.stream().map(TimeoutOrder::orderId).toList())
+                .stream()
+                .collect(Collectors.toMap(VoucherOrder::getId, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        long missingAfterSeconds = TimeUnit.MINUTES.toSeconds(payTimeoutMinutes + missingGraceMinutes);
+        List<TimeoutOrder> restore = new ArrayList<>(orders.size());
+        List<TimeoutOrder> done = new ArrayList<>(orders.size());
+        Map<Long, Integer> returnedStock = new HashMap<>();
+        for (TimeoutOrder order : orders) {
+            Action action = decide(rows.get(order.orderId()),
+                    RedisIdWorker.ageSeconds(order.orderId()), missingAfterSeconds);
+            switch (action) {
+                case CANCEL -> {
+                    // 条件更新，并发支付成功的订单不会被取消
+                    int updated = voucherOrderMapper.update(null, new LambdaUpdateWrapper<VoucherOrder>()
+                            .set(VoucherOrder::getStatus, CANCELLED)
+                            .set(VoucherOrder::getUpdateTime, now)
+                            .eq(VoucherOrder::getId, order.orderId())
+                            .eq(VoucherOrder::getStatus, UNPAID));
+                    if (updated == 1) {
+                        returnedStock.merge(order.voucherId(), 1, Integer::sum);
+                        restore.add(order);
+                    }
+                    done.add(order);
+                }
+                case RESTORE -> {
+                    restore.add(order);
+                    done.add(order);
+                }
+                case SKIP -> done.add(order);
+                // 留在队列中，租约到期后重新领取
+                case DEFER -> {
+                }
+            }
+        }
+        returnedStock.forEach((voucherId, count) -> seckillVoucherMapper.update(null,
+                new LambdaUpdateWrapper<SeckillVoucher>()
+                        .setSql("stock = stock + " + count)
+                        .eq(SeckillVoucher::getVoucherId, voucherId)));
+        return new CancelResult(restore, done);
+    }
+
+    /**
+     * @param row                 DB 中的订单，没有落库为 null
+     * @param ageSeconds          订单id生成至今的秒数
+     * @param missingAfterSeconds 没有落库的订单超过该时长才认为不会再落库
+     */
+    static Action decide(VoucherOrder row, long ageSeconds, long missingAfterSeconds) {
+        if (row == null) {
+            return ageSeconds >= missingAfterSeconds ? Action.RESTORE : Action.DEFER;
+        }
+        Integer status = row.getStatus();
+        if (status != null && status == UNPAID) {
+            return Action.CANCEL;
+        }
+        if (status != null && status == CANCELLED) {
+            // 上次 DB 已取消但 Redis 归还失败
+            return Action.RESTORE;
+        }
+        return Action.SKIP;
+    }
+
+    /**
+     * 归还 Redis 秒杀资格与库存，一次 pipeline 执行
+     */
+    public void restoreStock(List<TimeoutOrder> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        String script = RESTORE_SCRIPT.getScriptAsString();
+        String restoredTtl = String.valueOf(TimeUnit.DAYS.toSeconds(SECKILL_RESTORED_TTL));
+        RedisBatch batch = RedisBatch.of(stringRedisTemplate);
+        for (TimeoutOrder order : orders) {
+            String tag = tag(order.voucherId());
+            batch.add(conn -> conn.eval(script, ReturnType.INTEGER, 3,
+                    SECKILL_STOCK_KEY + tag, SECKILL_ORDER_KEY + tag, SECKILL_RESTORED_KEY + tag,
+                    String.valueOf(order.userId()), String.valueOf(order.orderId()), restoredTtl));
+        }
+        batch.flush();
+    }
+
+    /**
+     * 处理完成，从超时队列删除
+     */
+    public void complete(List<TimeoutOrder> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.opsForZSet().remove(SECKILL_TIMEOUT_KEY,
+                orders.stream().map(TimeoutOrder::member).toArray());
+    }
+}
@@ -0,0 +1,204 @@
+package com.zwz5.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.zwz5.common.redis.RedisBatch;
+import com.zwz5.mapper.SeckillVoucherMapper;
+import com.zwz5.mapper.VoucherOrderMapper;
+import com.zwz5.pojo.entity.SeckillVoucher;
+import com.zwz5.pojo.entity.VoucherOrder;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.zwz5.constants.OrderStatusConstants.CANCELLED;
+import static com.zwz5.constants.RedisConstants.*;
+
+/**
+ * 秒杀 Redis 状态维护
+ * 秒杀脚本依赖的库存 seckill:stock:{id}、活动信息 seckill:info:{id}、下单用户集合 seckill:order:{id} 只在新建秒杀券时写入一次，
+ * Redis 重启丢数据或被淘汰后，脚本对每个请求都会返回活动信息不存在。
+ * 1. warmUp 从 DB 读取未结束的秒杀券，用 pipeline 补齐缺失的 key：库存以 SET NX 写入 DB 库存，不覆盖 Redis 中正在扣减的值；
+ *    下单用户集合缺失时从未取消的订单重建；活动信息每次覆盖写入。
+ * 2. reconcile 对账：正常情况下 DB 库存 = Redis 库存 + 已通过脚本但尚未落库的订单数
+ *    （下单用户集合大小 - DB 中未取消的订单数），偏差记录到 seckill.stock.drift，不自动修正。
+ */
+@Slf4j
+@Component
+public class SeckillStateManager {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SeckillVoucherMapper seckillVoucherMapper;
+    private final VoucherOrderMapper voucherOrderMapper;
+    private final DistributionSummary driftSummary;
+    // 最近一次对账中存在偏差的秒杀券数量
+    private final AtomicInteger driftingVouchers = new AtomicInteger();
+
+    public SeckillStateManager(StringRedisTemplate stringRedisTemplate,
+                               SeckillVoucherMapper seckillVoucherMapper,
+                               VoucherOrderMapper voucherOrderMapper,
+                               MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.seckillVoucherMapper = seckillVoucherMapper;
+        this.voucherOrderMapper = voucherOrderMapper;
+        this.driftSummary = DistributionSummary.builder("seckill.stock.drift").register(meterRegistry);
+        Gauge.builder("seckill.stock.drifting", driftingVouchers, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * 补齐未结束秒杀券的 Redis 状态
+     *
+     * @return 补写了库存或下单用户集合的秒杀券数量
+     */
+    public int warmUp() {
+        List<SeckillVoucher> vouchers = activeVouchers();
+        if (vouchers.isEmpty()) {
+            return 0;
+        }
+        // 1.一次 pipeline 检查库存与下单用户集合是否存在
+        RedisBatch check = RedisBatch.of(stringRedisTemplate);
+        List<CompletableFuture<Boolean>> stockExists = new ArrayList<>(vouchers.size());
+        List<CompletableFuture<Boolean>> orderExists = new ArrayList<>(vouchers.size());
+        for (SeckillVoucher voucher : vouchers) {
+            String tag = tag(voucher.getVoucherId());
+            stockExists.add(check.add(conn -> conn.exists(SECKILL_STOCK_KEY + tag)));
+            orderExists.add(check.add(conn -> conn.exists(SECKILL_ORDER_KEY + tag)));
+        }
+        check.flush();
+        // 2.补写缺失的数据
+        LocalDateTime now = LocalDateTime.now();
+        RedisBatch write = RedisBatch.of(stringRedisTemplate);
+        int repaired = 0;
+        for (int i = 0; i < vouchers.size(); i++) {
+            SeckillVoucher voucher = vouchers.get(i);
+            long ttlSeconds = Math.max(1, Duration.between(now, voucher.getEndTime()).getSeconds());
+            String tag = tag(voucher.getVoucherId());
+            String stockKey = SECKILL_STOCK_KEY + tag;
+            String infoKey = SECKILL_INFO_KEY + tag;
+            String orderKey = SECKILL_ORDER_KEY + tag;
+            write.add(conn -> conn.hMSet(infoKey, Map.of(
+                    "beginTime", String.valueOf(toMillis(voucher.getBeginTime())),
+                    "endTime", String.valueOf(toMillis(voucher.getEndTime())))));
+            write.add(conn -> conn.expire(infoKey, ttlSeconds));
+            boolean missing = false;
+            if (!Boolean.TRUE.equals(stockExists.get(i).join())) {
+                write.add(conn -> conn.set(stockKey, String.valueOf(voucher.getStock()),
+                        Expiration.seconds(ttlSeconds), RedisStringCommands.SetOption.ifAbsent()));
+                missing = true;
+            }
+            if (!Boolean.TRUE.equals(orderExists.get(i).join())) {
+                String[] userIds = orderedUsers(voucher.getVoucherId());
+                if (userIds.length > 0) {
+                    write.add(conn -> conn.sAdd(orderKey, userIds));
+                    write.add(conn -> conn.expire(orderKey, ttlSeconds));
+                    missing = true;
+                }
+            }
+            if (missing) {
+                repaired++;
+            }
+        }
+        write.flush();
+        return repaired;
+    }
+
+    /**
+     * 对账并记录偏差
+     *
+     * @return 秒杀券id -> 偏差（DB 库存 - Redis 库存 - 未落库订单数），只包含有偏差的
+     */
+    public Map<Long, Long> reconcile() {
+        List<SeckillVoucher> vouchers = activeVouchers();
+        Map<Long, Long> drifts = new HashMap<>();
+        if (vouchers.isEmpty()) {
+            driftingVouchers.set(0);
+            return drifts;
+        }
+        // 1.一次 pipeline 读取 Redis 库存与下单用户数
+        RedisBatch read = RedisBatch.of(stringRedisTemplate);
+        List<CompletableFuture<String>> stocks = new ArrayList<>(vouchers.size());
+        List<CompletableFuture<Long>> ordered = new ArrayList<>(vouchers.size());
+        for (SeckillVoucher voucher : vouchers) {
+            String tag = tag(voucher.getVoucherId());
+            stocks.add(read.add(conn -> conn.get(SECKILL_STOCK_KEY + tag)));
+            ordered.add(read.add(conn -> conn.sCard(SECKILL_ORDER_KEY + tag)));
+        }
+        read.flush();
+        // 2.DB 中未取消的订单数，一次分组查询
+        Map<Long, Long> persisted = countOrders(vouchers.stream().map(SeckillVoucher::getVoucherId).toList());
+        for (int i = 0; i < vouchers.size(); i++) {
+            SeckillVoucher voucher = vouchers.get(i);
+            String stock = stocks.get(i).join();
+            if (stock == null) {
+                // 库存 key 缺失由 warmUp 补齐，不计入偏差
+                continue;
+            }
+            Long redisOrdered = ordered.get(i).join();
+            long drift = drift(voucher.getStock(), Long.parseLong(stock),
+                    redisOrdered == null ? 0 : redisOrdered,
+                    persisted.getOrDefault(voucher.getVoucherId(), 0L));
+            driftSummary.record(Math.abs(drift));
+            if (drift != 0) {
+                drifts.put(voucher.getVoucherId(), drift);
+            }
+        }
+        driftingVouchers.set(drifts.size());
+        return drifts;
+    }
+
+    /**
+     * DB 库存与 Redis 库存加未落库订单数之差
+     * 已通过秒杀脚本但尚未落库的订单已从 Redis 库存扣减，DB 库存还未扣减。
+     */
+    static long drift(long dbStock, long redisStock, long redisOrdered, long dbOrdered) {
+        long inFlight = redisOrdered - dbOrdered;
+        return dbStock - (redisStock + inFlight);
+    }
+
+    private List<SeckillVoucher> activeVouchers() {
+        return seckillVoucherMapper.selectList(new LambdaQueryWrapper<SeckillVoucher>()
+                .gt(SeckillVoucher::getEndTime, LocalDateTime.now()));
+    }
+
+    private String[] orderedUsers(Long voucherId) {
+        return voucherOrderMapper.selectList(new LambdaQueryWrapper<VoucherOrder>()
+                        .select(VoucherOrder::getUserId)
+                        .eq(VoucherOrder::getVoucherId, voucherId)
+                        .ne(VoucherOrder::getStatus, CANCELLED))
+                .stream()
+                .map(o -> o.getUserId().toString())
+                .toArray(String[]::new);
+    }
+
+    private Map<Long, Long> countOrders(List<Long> voucherIds) {
+        List<Map<String, Object>> rows = voucherOrderMapper.selectMaps(new QueryWrapper<VoucherOrder>()
+                .select("voucher_id", "COUNT(*) AS orders")
+                .in("voucher_id", voucherIds)
+                .ne("status", CANCELLED)
+                .groupBy("voucher_id"));
+        Map<Long, Long> result = new HashMap<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            result.put(((Number) row.get("voucher_id")).longValue(), ((Number) row.get("orders")).longValue());
+        }
+        return result;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
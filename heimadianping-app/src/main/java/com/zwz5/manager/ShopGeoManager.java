@@ -0,0 +1,198 @@
+package com.zwz5.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.zwz5.common.geo.GeoHit;
+import com.zwz5.common.geo.GeoUtils;
+import com.zwz5.common.geo.GridIndex;
+import com.zwz5.common.redis.RedisReadRouter;
+import com.zwz5.common.utils.JsonUtils;
+import com.zwz5.mapper.ShopMapper;
+import com.zwz5.pojo.entity.Shop;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.domain.geo.GeoReference;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.zwz5.constants.RedisConstants.CACHE_SHOP_GEO_KEY;
+import static com.zwz5.constants.RedisConstants.SHOP_GEO_KEY;
+
+/**
+ * 附近店铺查询
+ * 1. 用户坐标按 geohash 落到网格，同一 (typeId, 网格) 的请求共享一份候选集缓存：
+ *    以网格中心为圆心、查询半径加网格半对角线为半径 GEOSEARCH 一次，短 TTL 缓存店铺id与坐标。
+ * 2. 每次请求在 JVM 内按用户真实坐标计算距离、过滤、排序后切出当前页，翻页不再重复 GEOSEARCH。
+ * 3. 开启 hmdp.geo.local-index.enabled 时由进程内网格索引直接查询，不访问 Redis；
+ *    未开启但索引已构建时，Redis 不可用会降级到本地索引。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShopGeoManager {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Candidate {
+        private Long id;
+        private Double x;
+        private Double y;
+    }
+
+    private static final int INDEX_LOAD_BATCH_SIZE = 1000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisReadRouter redisReadRouter;
+    private final JsonUtils jsonUtils;
+    private final ShopMapper shopMapper;
+
+    @Value("${hmdp.geo.radius-meters:5000}")
+    private double radiusMeters;
+
+    @Value("${hmdp.geo.cell-precision:6}")
+    private int cellPrecision;
+
+    @Value("${hmdp.geo.cell-ttl-seconds:60}")
+    private long cellTtlSeconds;
+
+    @Value("${hmdp.geo.local-index.enabled:false}")
+    private boolean localIndexEnabled;
+
+    @Value("${hmdp.geo.local-index.cell-degrees:0.05}")
+    private double localIndexCellDegrees;
+
+    // typeId -> 网格索引，整体替换
+    private volatile Map<Long, GridIndex> localIndex = Collections.emptyMap();
+
+    public boolean isLocalIndexEnabled() {
+        return localIndexEnabled;
+    }
+
+    /**
+     * 查询附近店铺的一页
+     *
+     * @param from 跳过的条数
+     * @param size 页大小
+     * @return 按距离升序的店铺id与距离
+     */
+    public List<GeoHit> search(Long typeId, double x, double y, int from, int size) {
+        List<GeoHit> hits;
+        if (localIndexEnabled) {
+            hits = searchLocal(typeId, x, y);
+        } else {
+            try {
+                hits = searchCell(typeId, x, y);
+            } catch (DataAccessException e) {
+                if (localIndex.isEmpty()) {
+                    throw e;
+                }
+                log.warn("geo search from redis failed, fallback to local index, typeId={}", typeId, e);
+                hits = searchLocal(typeId, x, y);
+            }
+        }
+        if (hits.size() <= from) {
+            return Collections.emptyList();
+        }
+        return hits.subList(from, Math.min(from + size, hits.size()));
+    }
+
+    /**
+     * 从 tb_shop 按 id 分批重建进程内索引
+     *
+     * @return 索引的店铺数量
+     */
+    public int rebuildLocalIndex() {
+        Map<Long, List<GridIndex.Point>> pointsByType = new HashMap<>();
+        long lastId = 0;
+        int total = 0;
+        while (true) {
+            List<Shop> shops = shopMapper.selectList(new LambdaQueryWrapper<Shop>()
+                    .select(Shop::getId, Shop::getTypeId, Shop::getX, Shop::getY)
+                    .gt(Shop::getId, lastId)
+                    .orderByAsc(Shop::getId)
+                    .last("LIMIT " + INDEX_LOAD_BATCH_SIZE));
+            if (shops.isEmpty()) {
+                break;
+            }
+            for (Shop shop : shops) {
+                if (shop.getX() != null && shop.getY() != null) {
+                    pointsByType.computeIfAbsent(shop.getTypeId(), k -> new ArrayList<>())
+                            .add(new GridIndex.Point(shop.getId(), shop.getX(), shop.getY()));
+                    total++;
+                }
+            }
+            lastId = shops.get(shops.size() - 1).getId();
+        }
+        Map<Long, GridIndex> index = new HashMap<>(pointsByType.size());
+        pointsByType.forEach((typeId, points) -> index.put(typeId, new GridIndex(points, localIndexCellDegrees)));
+        localIndex = index;
+        return total;
+    }
+
+    private List<GeoHit> searchLocal(Long typeId, double x, double y) {
+        GridIndex index = localIndex.get(typeId);
+        return index == null ? Collections.emptyList() : index.within(x, y, radiusMeters);
+    }
+
+    private List<GeoHit> searchCell(Long typeId, double x, double y) {
+        String cell = GeoUtils.geohash(x, y, cellPrecision);
+        String key = CACHE_SHOP_GEO_KEY + typeId + ":" + cell;
+        // 候选集与 GEO 索引都允许短暂读旧，从副本读取
+        String json = redisReadRouter.get(key);
+        List<Candidate> candidates;
+        if (json != null) {
+            candidates = jsonUtils.jsonToList(json, Candidate.class);
+        } else {
+            candidates = loadCell(typeId, cell);
+            stringRedisTemplate.opsForValue().set(key, jsonUtils.beanToJson(candidates), cellTtlSeconds, TimeUnit.SECONDS);
+        }
+        // 按用户真实坐标计算精确距离
+        List<GeoHit> hits = new ArrayList<>(candidates.size());
+        for (Candidate c : candidates) {
+            double d = GeoUtils.distance(x, y, c.getX(), c.getY());
+            if (d <= radiusMeters) {
+                hits.add(new GeoHit(c.getId(), d));
+            }
+        }
+        hits.sort(GeoHit.ORDER);
+        return hits;
+    }
+
+    /**
+     * 以网格中心 GEOSEARCH，半径覆盖网格内任意一点的查询圆
+     * 不加 LIMIT：离网格中心最近的前 N 个不一定是离用户最近的，截断会在密集网格中漏掉店铺；
+     * 距离过滤、排序和分页由 searchCell 按用户坐标完成。
+     */
+    private List<Candidate> loadCell(Long typeId, String cell) {
+        double[] b = GeoUtils.bounds(cell);
+        double centerX = (b[0] + b[2]) / 2;
+        double centerY = (b[1] + b[3]) / 2;
+        double halfDiagonal = GeoUtils.distance(centerX, centerY, b[2], b[3]);
+        GeoResults<RedisGeoCommands.GeoLocation<String>> results = redisReadRouter.read(template -> template.opsForGeo().search(
+                SHOP_GEO_KEY + typeId,
+                GeoReference.fromCoordinate(centerX, centerY),
+                new Distance(radiusMeters + halfDiagonal),
+                RedisGeoCommands.GeoSearchCommandArgs.newGeoSearchArgs()
+                        .includeCoordinates()));
+        if (results == null) {
+            return Collections.emptyList();
+        }
+        List<Candidate> candidates = new ArrayList<>(results.getContent().size());
+        results.getContent().forEach(r -> candidates.add(new Candidate(
+                Long.valueOf(r.getContent().getName()),
+                r.getContent().getPoint().getX(),
+                r.getContent().getPoint().getY())));
+        return candidates;
+    }
+}
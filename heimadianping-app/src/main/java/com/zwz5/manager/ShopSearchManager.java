@@ -0,0 +1,204 @@
+package com.zwz5.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.zwz5.common.search.InvertedIndex;
+import com.zwz5.mapper.ShopMapper;
+import com.zwz5.pojo.entity.Shop;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.zwz5.constants.RedisConstants.SEARCH_SHOP_CHANNEL;
+
+/**
+ * 店铺名称/地址全文检索
+ * 启动后在线程池中按 id 分批从 tb_shop 构建倒排索引，新增、修改店铺时增量更新。
+ * 索引构建完成前 isReady 返回 false，调用方回退到 SQL 查询。
+ * 索引在每个实例的进程内各有一份：店铺变更后发布到 Redis 频道，各实例收到通知后从 DB 重新加载该店铺；
+ * 另按固定间隔全量重建并整体替换，兜底漏收的通知。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShopSearchManager {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float AREA_WEIGHT = 1.0f;
+    private static final float ADDRESS_WEIGHT = 1.0f;
+
+    private final ShopMapper shopMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    // 全量构建耗时较长，放在批量任务线程池，不占用缓存重建线程
+    private final Executor batchOpsExecutor;
+
+    private volatile InvertedIndex index = new InvertedIndex();
+
+    private volatile boolean ready;
+
+    // 同一时刻只允许一个全量构建
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    // 全量构建期间发生变更的店铺id，构建完成后从 DB 重新加载，避免构建读到的旧数据覆盖变更；为 null 表示未在构建
+    private Set<Long> changedDuringBuild;
+
+    @Value("${hmdp.search.shop-index.enabled:true}")
+    private boolean enabled;
+
+    @PostConstruct
+    private void init() {
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> reload(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8))),
+                new ChannelTopic(SEARCH_SHOP_CHANNEL));
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (enabled) {
+            batchOpsExecutor.execute(this::load);
+        }
+    }
+
+    /**
+     * 定时全量重建，兜底漏收的变更通知
+     */
+    @Scheduled(initialDelayString = "${hmdp.search.shop-index.rebuild-ms:3600000}",
+            fixedDelayString = "${hmdp.search.shop-index.rebuild-ms:3600000}")
+    public void rebuild() {
+        build();
+    }
+
+    /**
+     * 检索店铺id，按相关度排序
+     */
+    public List<Long> search(String keyword) {
+        return index.search(keyword);
+    }
+
+    /**
+     * 新增或修改店铺后更新索引，并通知其他实例
+     */
+    public void upsert(Shop shop) {
+        if (!enabled || shop == null || shop.getId() == null) {
+            return;
+        }
+        apply(shop);
+        try {
+            stringRedisTemplate.convertAndSend(SEARCH_SHOP_CHANNEL, shop.getId().toString());
+        } catch (Exception e) {
+            // 通知失败时其他实例依靠定时重建更新
+            log.warn("publish shop index change failed, shopId={}", shop.getId(), e);
+        }
+    }
+
+    /**
+     * 收到变更通知后从 DB 重新加载该店铺
+     */
+    private void reload(Long shopId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            apply(shopMapper.selectById(shopId));
+        } catch (Exception e) {
+            log.error("reload shop index failed, shopId={}", shopId, e);
+        }
+    }
+
+    private void apply(Shop shop) {
+        if (shop == null) {
+            return;
+        }
+        InvertedIndex target;
+        synchronized (this) {
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(shop.getId());
+            }
+            target = index;
+        }
+        put(target, shop);
+    }
+
+    private void load() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long lastId = 0;
+        synchronized (this) {
+            changedDuringBuild = new HashSet<>();
+        }
+        try {
+            InvertedIndex built = new InvertedIndex();
+            while (true) {
+                List<Shop> shops = shopMapper.selectList(new LambdaQueryWrapper<Shop>()
+                        .select(Shop::getId, Shop::getName, Shop::getArea, Shop::getAddress)
+                        .gt(Shop::getId, lastId)
+                        .orderByAsc(Shop::getId)
+                        .last("LIMIT " + LOAD_BATCH_SIZE));
+                if (shops.isEmpty()) {
+                    break;
+                }
+                shops.forEach(shop -> put(built, shop));
+                lastId = shops.get(shops.size() - 1).getId();
+            }
+            Set<Long> changed;
+            synchronized (this) {
+                index = built;
+                changed = changedDuringBuild;
+                changedDuringBuild = null;
+            }
+            // 构建期间的变更可能已被批量读取的旧数据覆盖，替换后重新加载
+            if (!changed.isEmpty()) {
+                shopMapper.selectBatchIds(new ArrayList<>(changed)).forEach(shop -> put(built, shop));
+            }
+            ready = true;
+            log.info("build shop search index finished, shops={}, cost={}ms", built.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            synchronized (this) {
+                changedDuringBuild = null;
+            }
+            log.error("build shop search index failed, lastId={}", lastId, e);
+        } finally {
+            building.set(false);
+        }
+    }
+
+    private static void put(InvertedIndex target, Shop shop) {
+        Map<String, Float> fields = new HashMap<>(4);
+        putField(fields, shop.getName(), NAME_WEIGHT);
+        putField(fields, shop.getArea(), AREA_WEIGHT);
+        putField(fields, shop.getAddress(), ADDRESS_WEIGHT);
+        target.upsert(shop.getId(), shop.getName(), fields);
+    }
+
+    private static void putField(Map<String, Float> fields, String text, float weight) {
+        if (text != null && !text.isBlank()) {
+            fields.merge(text, weight, Float::sum);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.zwz5.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zwz5.common.catalog.ReferenceCatalog;
+import com.zwz5.common.result.Result;
+import com.zwz5.mapper.ShopTypeMapper;
+import com.zwz5.pojo.entity.ShopType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static com.zwz5.constants.RedisConstants.CATALOG_SHOP_TYPE_CHANNEL;
+
+/**
+ * 商铺类型目录
+ * 商铺类型列表以快照常驻内存，首页请求直接返回预先序列化好的 Result 字节，稳态下不访问 Redis。
+ * 快照按固定间隔从 DB 刷新；类型变更后发布到 Redis 频道，各实例收到通知立即刷新，并删除本地的响应缓存。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ShopTypeCatalog {
+
+    private final ShopTypeMapper shopTypeMapper;
+    private final ObjectMapper objectMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final ResponseCacheManager responseCacheManager;
+
+    private ReferenceCatalog<List<ShopType>> catalog;
+
+    @PostConstruct
+    private void init() {
+        catalog = new ReferenceCatalog<>("shop-type", this::load, this::serialize);
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> refresh(),
+                new ChannelTopic(CATALOG_SHOP_TYPE_CHANNEL));
+    }
+
+    public ReferenceCatalog.Snapshot<List<ShopType>> get() {
+        return catalog.get();
+    }
+
+    /**
+     * 定时兜底刷新，防止漏收变更通知
+     */
+    @Scheduled(fixedDelayString = "${hmdp.catalog.refresh-ms:300000}")
+    public void refresh() {
+        try {
+            if (catalog.refresh()) {
+                // 每个实例都会收到目录变更通知，只需删除本地响应缓存
+                responseCacheManager.evictLocal("/shop-type/list");
+            }
+        } catch (Exception e) {
+            // 刷新失败继续使用旧快照
+            log.error("refresh shop type catalog failed", e);
+        }
+    }
+
+    /**
+     * 商铺类型变更后调用，通知所有实例刷新
+     */
+    public void publishChange() {
+        stringRedisTemplate.convertAndSend(CATALOG_SHOP_TYPE_CHANNEL, String.valueOf(System.currentTimeMillis()));
+    }
+
+    private List<ShopType> load() {
+        return List.copyOf(shopTypeMapper.selectList(
+                new LambdaQueryWrapper<ShopType>().orderByAsc(ShopType::getSort)));
+    }
+
+    private byte[] serialize(List<ShopType> shopTypes) {
+        try {
+            return objectMapper.writeValueAsBytes(Result.ok(shopTypes));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("序列化失败", e);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.zwz5.manager;
+
+import com.zwz5.pojo.dto.ShopVisitStatsDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.zwz5.constants.RedisConstants.*;
+
+/**
+ * 店铺访问统计
+ * 1. record 只把访问写入进程内的无锁队列，店铺查询链路上没有任何同步 Redis 调用；队列满时直接丢弃并计数。
+ * 2. flush 定时取出一批访问，在 JVM 内按 (店铺, 日期) 聚合访客和次数，再用一次 pipeline 写入
+ *    PFADD uv:shop:{id}:{yyyyMMdd} 与 INCRBY pv:shop:{id}:{yyyyMMdd}。
+ * 3. rollup 每天把前一天的日 UV 用 PFMERGE 合并进周、月 UV，PFMERGE 可重复执行。
+ * 同一店铺的日、周、月 key 以 {id} 为 hashtag 位于同一个槽，集群模式下 PFMERGE、多 key PFCOUNT 和 MGET 不会跨槽。
+ */
+@Slf4j
+@Component
+public class ShopVisitManager {
+
+    public static final String PERIOD_DAY = "day";
+    public static final String PERIOD_WEEK = "week";
+    public static final String PERIOD_MONTH = "month";
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private record Visit(long shopId, String visitorId, LocalDate day) {
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ConcurrentLinkedQueue<Visit> buffer = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() 需要遍历，单独计数
+    private final AtomicInteger bufferSize = new AtomicInteger();
+    private final Counter droppedVisits;
+    private final Counter flushedVisits;
+
+    @Value("${hmdp.shop-visit.buffer-capacity:100000}")
+    private int bufferCapacity;
+
+    @Value("${hmdp.shop-visit.flush-batch-size:5000}")
+    private int flushBatchSize;
+
+    public ShopVisitManager(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.droppedVisits = Counter.builder("shop.visit.dropped").register(meterRegistry);
+        this.flushedVisits = Counter.builder("shop.visit.flushed").register(meterRegistry);
+        meterRegistry.gauge("shop.visit.buffer.size", bufferSize);
+    }
+
+    /**
+     * 记录一次店铺访问，只写内存
+     *
+     * @param visitorId 访客标识，登录用户为用户id，匿名用户为 IP
+     */
+    public void record(Long shopId, String visitorId) {
+        if (shopId == null || visitorId == null) {
+            return;
+        }
+        if (bufferSize.incrementAndGet() > bufferCapacity) {
+            bufferSize.decrementAndGet();
+            droppedVisits.increment();
+            return;
+        }
+        buffer.offer(new Visit(shopId, visitorId, LocalDate.now()));
+    }
+
+    /**
+     * 把缓冲区中的访问批量写入 Redis
+     *
+     * @return 写入的访问次数
+     */
+    public int flush() {
+        int total = 0;
+        while (!buffer.isEmpty()) {
+            int flushed = flushBatch();
+            if (flushed == 0) {
+                break;
+            }
+            total += flushed;
+        }
+        return total;
+    }
+
+    private int flushBatch() {
+        // 1.JVM 内按 (店铺, 日期) 聚合
+        Map<String, Set<String>> visitors = new HashMap<>();
+        Map<String, Long> pv = new HashMap<>();
+        Map<String, Set<String>> visitedShops = new HashMap<>();
+        List<Visit> polled = new ArrayList<>();
+        int count = 0;
+        Visit visit;
+        while (count < flushBatchSize && (visit = buffer.poll()) != null) {
+            bufferSize.decrementAndGet();
+            polled.add(visit);
+            count++;
+            String day = visit.day().format(DAY_FORMATTER);
+            String suffix = tag(visit.shopId()) + ":" + day;
+            visitors.computeIfAbsent(suffix, k -> new HashSet<>()).add(visit.visitorId());
+            pv.merge(suffix, 1L, Long::sum);
+            visitedShops.computeIfAbsent(day, k -> new HashSet<>()).add(String.valueOf(visit.shopId()));
+        }
+        if (count == 0) {
+            return 0;
+        }
+        // 2.一次 pipeline 写入
+        long dayTtl = TimeUnit.DAYS.toSeconds(SHOP_VISIT_DAY_TTL);
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                visitors.forEach((suffix, ids) -> {
+                    String uvKey = SHOP_UV_KEY + suffix;
+                    String pvKey = SHOP_PV_KEY + suffix;
+                    conn.pfAdd(uvKey, ids.toArray(new String[0]));
+                    conn.incrBy(pvKey, pv.get(suffix));
+                    conn.expire(uvKey, dayTtl);
+                    conn.expire(pvKey, dayTtl);
+                });
+                visitedShops.forEach((day, shopIds) -> {
+                    conn.sAdd(SHOP_VISITED_KEY + day, shopIds.toArray(new String[0]));
+                    conn.expire(SHOP_VISITED_KEY + day, dayTtl);
+                });
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // 写入失败时放回缓冲区等待下次重试；PFADD 可重复执行，部分成功时 PV 可能多计
+            requeue(polled);
+            throw e;
+        }
+        flushedVisits.increment(count);
+        return count;
+    }
+
+    private void requeue(List<Visit> visits) {
+        for (Visit v : visits) {
+            if (bufferSize.incrementAndGet() > bufferCapacity) {
+                bufferSize.decrementAndGet();
+                droppedVisits.increment();
+                continue;
+            }
+            buffer.offer(v);
+        }
+    }
+
+    /**
+     * 把某天的日 UV 合并进所在周、月的 UV
+     *
+     * @return 汇总的店铺数量
+     */
+    public int rollup(LocalDate day) {
+        Set<String> shopIds = stringRedisTemplate.opsForSet().members(SHOP_VISITED_KEY + day.format(DAY_FORMATTER));
+        if (shopIds == null || shopIds.isEmpty()) {
+            return 0;
+        }
+        long rollupTtl = TimeUnit.DAYS.toSeconds(SHOP_VISIT_ROLLUP_TTL);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (String shopId : shopIds) {
+                long id = Long.parseLong(shopId);
+                String dayKey = uvKey(id, day);
+                String weekKey = SHOP_UV_KEY + tag(id) + ":" + weekSuffix(day);
+                String monthKey = SHOP_UV_KEY + tag(id) + ":" + monthSuffix(day);
+                conn.pfMerge(weekKey, weekKey, dayKey);
+                conn.pfMerge(monthKey, monthKey, dayKey);
+                conn.expire(weekKey, rollupTtl);
+                conn.expire(monthKey, rollupTtl);
+            }
+            return null;
+        });
+        return shopIds.size();
+    }
+
+    /**
+     * 查询店铺今天、本周或本月的 UV/PV
+     * 周、月 UV 由汇总 key 与尚未汇总的昨天、今天日 UV 一起 PFCOUNT 求并集；PV 为日计数之和。
+     */
+    public ShopVisitStatsDTO stats(Long shopId, String period) {
+        LocalDate today = LocalDate.now();
+        LocalDate from;
+        String rollupKey;
+        switch (period) {
+            case PERIOD_WEEK -> {
+                from = today.with(DayOfWeek.MONDAY);
+                rollupKey = SHOP_UV_KEY + tag(shopId) + ":" + weekSuffix(today);
+            }
+            case PERIOD_MONTH -> {
+                from = today.withDayOfMonth(1);
+                rollupKey = SHOP_UV_KEY + tag(shopId) + ":" + monthSuffix(today);
+            }
+            default -> {
+                from = today;
+                rollupKey = null;
+            }
+        }
+        List<String> uvKeys = new ArrayList<>(3);
+        if (rollupKey != null) {
+            uvKeys.add(rollupKey);
+        }
+        LocalDate yesterday = today.minusDays(1);
+        if (!yesterday.isBefore(from)) {
+            uvKeys.add(uvKey(shopId, yesterday));
+        }
+        uvKeys.add(uvKey(shopId, today));
+        Long uv = stringRedisTemplate.opsForHyperLogLog().size(uvKeys.toArray(new String[0]));
+
+        List<String> pvKeys = new ArrayList<>();
+        for (LocalDate d = from; !d.isAfter(today); d = d.plusDays(1)) {
+            pvKeys.add(SHOP_PV_KEY + tag(shopId) + ":" + d.format(DAY_FORMATTER));
+        }
+        List<String> pvs = stringRedisTemplate.opsForValue().multiGet(pvKeys);
+        long pv = pvs == null ? 0 : pvs.stream().filter(Objects::nonNull).mapToLong(Long::parseLong).sum();
+        return new ShopVisitStatsDTO(shopId, period, uv == null ? 0 : uv, pv);
+    }
+
+    private static String uvKey(long shopId, LocalDate day) {
+        return SHOP_UV_KEY + tag(shopId) + ":" + day.format(DAY_FORMATTER);
+    }
+
+    private static String weekSuffix(LocalDate day) {
+        return String.format("w%d%02d", day.get(IsoFields.WEEK_BASED_YEAR), day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    private static String monthSuffix(LocalDate day) {
+        return "m" + day.format(MONTH_FORMATTER);
+    }
+}
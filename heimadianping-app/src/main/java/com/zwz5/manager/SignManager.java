@@ -0,0 +1,300 @@
+package com.zwz5.manager;
+
+import com.zwz5.common.redis.SlotShards;
+import com.zwz5.common.utils.SignBits;
+import com.zwz5.mapper.SignMapper;
+import com.zwz5.pojo.dto.SignStatsDTO;
+import com.zwz5.pojo.dto.SignYearDTO;
+import com.zwz5.pojo.entity.Sign;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.zwz5.constants.RedisConstants.*;
+
+/**
+ * 签到统计
+ * 签到数据只保存在 Redis 位图 sign:{userId}:{yyyyMM} 中，所有统计都在位图上完成，不按天访问数据库。
+ * 1. 签到/补签通过 Lua 原子写入位图，补签额外写入 sign:backup:*；同一脚本把当月记录写入与位图同槽的待持久化分片。
+ * 2. 连续签到从今天向前数，当月签满时批量读取之前的月份继续累加。
+ * 3. 月度、年度统计用 BITFIELD/BITCOUNT，多用户、多月份都走 pipeline。
+ * 4. persistPending 把有变更的月度位图整体写入 tb_sign，一个用户一个月一行。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SignManager {
+
+    public static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    // 跨月连续签到每轮向前读取的月份数
+    private static final int STREAK_MONTHS_PER_ROUND = 12;
+    // 最多向前追溯的轮数
+    private static final int STREAK_MAX_ROUNDS = 10;
+
+    private static final BitFieldSubCommands READ_MONTH = BitFieldSubCommands.create()
+            .get(BitFieldSubCommands.BitFieldType.unsigned(SignBits.MONTH_BITS)).valueAt(0);
+
+    private static final DefaultRedisScript<Long> SIGN_SCRIPT;
+
+    static {
+        SIGN_SCRIPT = new DefaultRedisScript<>();
+        SIGN_SCRIPT.setLocation(new ClassPathResource("lua/sign_script.lua"));
+        SIGN_SCRIPT.setResultType(Long.class);
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SignMapper signMapper;
+
+    /**
+     * 签到或补签
+     *
+     * @return true 签到成功；false 当天已签到
+     */
+    public boolean sign(Long userId, LocalDate date, boolean backup) {
+        YearMonth month = YearMonth.from(date);
+        String signKey = signKey(userId, month);
+        String slotTag = SlotShards.tagOf(signKey);
+        Long result = stringRedisTemplate.execute(
+                SIGN_SCRIPT,
+                List.of(signKey, backupKey(userId, month), USER_SIGN_PENDING_KEY + slotTag),
+                String.valueOf(date.getDayOfMonth() - 1),
+                backup ? "1" : "0",
+                userId + ":" + month.format(MONTH_FORMATTER)
+        );
+        if (result == null || result != 1L) {
+            return false;
+        }
+        SlotShards.hint(stringRedisTemplate, USER_SIGN_PENDING_SLOTS_KEY, slotTag);
+        return true;
+    }
+
+    /**
+     * 截止今天的连续签到天数，当月签满时继续向前读取之前的月份
+     */
+    public int streak(Long userId, LocalDate today) {
+        YearMonth month = YearMonth.from(today);
+        int day = today.getDayOfMonth();
+        int streak = SignBits.streakEndingAt(readBits(signKey(userId, month)), day);
+        if (streak < day) {
+            return streak;
+        }
+        return streak + streakBefore(userId, month);
+    }
+
+    /**
+     * 单个用户某月的签到统计
+     */
+    public SignStatsDTO stats(Long userId, YearMonth month, LocalDate today) {
+        List<Object> bits = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.bitfield(signKey(userId, month), READ_MONTH);
+            conn.bitfield(backupKey(userId, month), READ_MONTH);
+            return null;
+        });
+        long signBits = firstValue(bits.get(0));
+        long backupBits = firstValue(bits.get(1));
+        SignStatsDTO dto = new SignStatsDTO();
+        dto.setUserId(userId);
+        dto.setMonth(month.format(MONTH_FORMATTER));
+        dto.setSignCount(SignBits.count(signBits));
+        dto.setSignDays(SignBits.days(signBits));
+        dto.setBackupDays(SignBits.days(backupBits));
+        dto.setStreak(month.equals(YearMonth.from(today))
+                ? streakFrom(userId, signBits, today)
+                : streak(userId, today));
+        return dto;
+    }
+
+    /**
+     * 批量统计多个用户某月签到天数与当前连续签到天数，一次 pipeline 读取全部位图
+     */
+    public List<SignStatsDTO> batchStats(List<Long> userIds, YearMonth month, LocalDate today) {
+        YearMonth current = YearMonth.from(today);
+        boolean sameMonth = month.equals(current);
+        List<Object> bits = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long userId : userIds) {
+                conn.bitfield(signKey(userId, current), READ_MONTH);
+                if (!sameMonth) {
+                    conn.bitfield(signKey(userId, month), READ_MONTH);
+                }
+            }
+            return null;
+        });
+        int step = sameMonth ? 1 : 2;
+        List<SignStatsDTO> result = new ArrayList<>(userIds.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            Long userId = userIds.get(i);
+            long currentBits = firstValue(bits.get(i * step));
+            long monthBits = sameMonth ? currentBits : firstValue(bits.get(i * step + 1));
+            SignStatsDTO dto = new SignStatsDTO();
+            dto.setUserId(userId);
+            dto.setMonth(month.format(MONTH_FORMATTER));
+            dto.setSignCount(SignBits.count(monthBits));
+            dto.setStreak(streakFrom(userId, currentBits, today));
+            result.add(dto);
+        }
+        return result;
+    }
+
+    /**
+     * 年度签到统计，一次 pipeline 执行 12 个 BITCOUNT
+     */
+    public SignYearDTO yearStats(Long userId, int year) {
+        List<Object> counts = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int m = 1; m <= 12; m++) {
+                conn.bitCount(signKey(userId, YearMonth.of(year, m)));
+            }
+            return null;
+        });
+        List<Long> monthCounts = counts.stream().map(c -> c == null ? 0L : (Long) c).toList();
+        long total = monthCounts.stream().mapToLong(Long::longValue).sum();
+        return new SignYearDTO(year, total, monthCounts);
+    }
+
+    /**
+     * 把有变更的月度位图写入 tb_sign
+     *
+     * @param batchSize 每批处理的月度记录数
+     * @return 写入的记录数
+     */
+    public int persistPending(int batchSize) {
+        // 每天执行一次，先全量扫描分片，补回提示写入失败的分片
+        SlotShards.sweep(stringRedisTemplate, USER_SIGN_PENDING_SLOTS_KEY, USER_SIGN_PENDING_KEY);
+        int total = 0;
+        for (String slotTag : SlotShards.active(stringRedisTemplate, USER_SIGN_PENDING_SLOTS_KEY)) {
+            total += persistShard(slotTag, batchSize);
+            SlotShards.release(stringRedisTemplate, USER_SIGN_PENDING_SLOTS_KEY, slotTag, USER_SIGN_PENDING_KEY);
+        }
+        return total;
+    }
+
+    private int persistShard(String slotTag, int batchSize) {
+        String pendingKey = USER_SIGN_PENDING_KEY + slotTag;
+        int total = 0;
+        List<String> members;
+        while ((members = stringRedisTemplate.opsForSet().pop(pendingKey, batchSize)) != null
+                && !members.isEmpty()) {
+            try {
+                total += persist(members);
+            } catch (RuntimeException e) {
+                // 写库失败放回待持久化分片，等待下次重试
+                stringRedisTemplate.opsForSet().add(pendingKey, members.toArray(new String[0]));
+                throw e;
+            }
+            if (members.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int persist(List<String> members) {
+        List<Long> userIds = new ArrayList<>(members.size());
+        List<YearMonth> months = new ArrayList<>(members.size());
+        for (String member : members) {
+            int idx = member.indexOf(':');
+            userIds.add(Long.valueOf(member.substring(0, idx)));
+            months.add(YearMonth.parse(member.substring(idx + 1), MONTH_FORMATTER));
+        }
+        List<Object> bits = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int i = 0; i < members.size(); i++) {
+                conn.bitfield(signKey(userIds.get(i), months.get(i)), READ_MONTH);
+                conn.bitfield(backupKey(userIds.get(i), months.get(i)), READ_MONTH);
+            }
+            return null;
+        });
+        List<Sign> signs = new ArrayList<>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            long signBits = firstValue(bits.get(i * 2));
+            signs.add(new Sign()
+                    .setUserId(userIds.get(i))
+                    .setYear(months.get(i).getYear())
+                    .setMonth(months.get(i).getMonthValue())
+                    .setSignBits((int) signBits)
+                    .setBackupBits((int) firstValue(bits.get(i * 2 + 1)))
+                    .setSignCount(SignBits.count(signBits)));
+        }
+        signMapper.upsertBatch(signs);
+        return signs.size();
+    }
+
+    private int streakFrom(Long userId, long currentBits, LocalDate today) {
+        int day = today.getDayOfMonth();
+        int streak = SignBits.streakEndingAt(currentBits, day);
+        if (streak < day) {
+            return streak;
+        }
+        return streak + streakBefore(userId, YearMonth.from(today));
+    }
+
+    /**
+     * month 之前（不含）连续签满的天数，每轮 pipeline 读取 12 个月
+     */
+    private int streakBefore(Long userId, YearMonth month) {
+        int total = 0;
+        YearMonth cursor = month;
+        for (int round = 0; round < STREAK_MAX_ROUNDS; round++) {
+            List<YearMonth> months = new ArrayList<>(STREAK_MONTHS_PER_ROUND);
+            for (int i = 1; i <= STREAK_MONTHS_PER_ROUND; i++) {
+                months.add(cursor.minusMonths(i));
+            }
+            List<Object> bits = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                months.forEach(m -> conn.bitfield(signKey(userId, m), READ_MONTH));
+                return null;
+            });
+            long[] monthBits = new long[months.size()];
+            int[] monthDays = new int[months.size()];
+            int fullDays = 0;
+            for (int i = 0; i < months.size(); i++) {
+                monthBits[i] = firstValue(bits.get(i));
+                monthDays[i] = months.get(i).lengthOfMonth();
+                fullDays += monthDays[i];
+            }
+            int streak = SignBits.streak(monthBits, monthDays);
+            total += streak;
+            if (streak < fullDays) {
+                return total;
+            }
+            cursor = cursor.minusMonths(STREAK_MONTHS_PER_ROUND);
+        }
+        return total;
+    }
+
+    private long readBits(String key) {
+        return firstValue(stringRedisTemplate.opsForValue().bitField(key, READ_MONTH));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long firstValue(Object bitfieldResult) {
+        List<Long> values = (List<Long>) bitfieldResult;
+        if (values == null || values.isEmpty() || values.get(0) == null) {
+            return 0L;
+        }
+        return values.get(0);
+    }
+
+    private static String signKey(Long userId, YearMonth month) {
+        return USER_SIGN_KEY + tag(userId) + ":" + month.format(MONTH_FORMATTER);
+    }
+
+    private static String backupKey(Long userId, YearMonth month) {
+        return USER_SIGN_BACKUP_KEY + tag(userId) + ":" + month.format(MONTH_FORMATTER);
+    }
+}
@@ -0,0 +1,93 @@
+package com.zwz5.manager;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.zwz5.common.cache.RedisCacheClient;
+import com.zwz5.mapper.UserMapper;
+import com.zwz5.pojo.converter.UserConverter;
+import com.zwz5.pojo.dto.UserDTO;
+import com.zwz5.pojo.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.zwz5.constants.RedisConstants.CACHE_USER_KEY;
+import static com.zwz5.constants.RedisConstants.CACHE_USER_TTL;
+
+/**
+ * 用户公开资料缓存
+ * 博客作者、点赞用户、共同关注、用户主页等只需要 UserDTO（id、昵称、头像），
+ * 统一从这里批量读取：一次 MGET 读取 cache:user:{id}，未命中的 id 一次查库（只查这三列）并 pipeline 回写，
+ * 不存在的用户写入短 TTL 空值。
+ * 用户资料变更后调用 evict，在事务提交后删除缓存。
+ */
+@Component
+@RequiredArgsConstructor
+public class UserProfileCache {
+
+    private final RedisCacheClient redisCacheClient;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final UserMapper userMapper;
+
+    /**
+     * @return 按 ids 顺序排列，重复的 id 只出现一次，不存在的用户不出现在结果中
+     */
+    public List<UserDTO> list(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return redisCacheClient.queryBatch(CACHE_USER_KEY, ids.stream().distinct().toList(), UserDTO.class,
+                this::load, CACHE_USER_TTL, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @return 用户id -> 资料，不存在的用户没有对应项
+     */
+    public Map<Long, UserDTO> map(Collection<Long> ids) {
+        return list(ids).stream().collect(Collectors.toMap(UserDTO::getId, Function.identity()));
+    }
+
+    /**
+     * @return 用户资料，不存在返回 null
+     */
+    public UserDTO get(Long id) {
+        List<UserDTO> users = list(List.of(id));
+        return users.isEmpty() ? null : users.get(0);
+    }
+
+    /**
+     * 删除用户资料缓存，处于事务中时在提交后删除，避免并发读在提交前回填旧数据
+     */
+    public void evict(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stringRedisTemplate.delete(CACHE_USER_KEY + id);
+                }
+            });
+            return;
+        }
+        stringRedisTemplate.delete(CACHE_USER_KEY + id);
+    }
+
+    private Map<Long, UserDTO> load(List<Long> ids) {
+        List<User> users = userMapper.selectList(new LambdaQueryWrapper<User>()
+                .select(User::getId, User::getNickName, User::getIcon)
+                .in(User::getId, ids));
+        Map<Long, UserDTO> result = new HashMap<>(users.size());
+        for (User user : users) {
+            result.put(user.getId(), UserConverter.toDTO(user));
+        }
+        return result;
+    }
+}
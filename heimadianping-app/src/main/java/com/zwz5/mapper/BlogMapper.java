@@ -2,6 +2,9 @@ package com.zwz5.mapper;
 
 import com.zwz5.pojo.entity.Blog;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * <p>
@@ -13,4 +16,8 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface BlogMapper extends BaseMapper<Blog> {
 
+    /**
+     * 批量写回点赞数（绝对值），blog 只需要 id 和 liked
+     */
+    int updateLikedBatch(@Param("blogs") List<Blog> blogs);
 }
@@ -0,0 +1,20 @@
+package com.zwz5.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.zwz5.pojo.entity.Sign;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * <p>
+ *  Mapper 接口
+ * </p>
+ */
+public interface SignMapper extends BaseMapper<Sign> {
+
+    /**
+     * 按 (user_id, year, month) 批量写入或覆盖月度签到记录
+     */
+    int upsertBatch(@Param("signs") List<Sign> signs);
+}
@@ -1,8 +1,11 @@
 package com.zwz5.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.zwz5.pojo.entity.VoucherOrder;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 
+import static com.zwz5.constants.OrderStatusConstants.CANCELLED;
+
 /**
  * <p>
  *  Mapper 接口
@@ -13,4 +16,13 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface VoucherOrderMapper extends BaseMapper<VoucherOrder> {
 
+    /**
+     * 用户在该优惠券下未取消的订单，用于一人一单判断；超时取消后允许重新购买
+     */
+    static QueryWrapper<VoucherOrder> activeOrders(Long userId, Long voucherId) {
+        return new QueryWrapper<VoucherOrder>()
+                .eq("user_id", userId)
+                .eq("voucher_id", voucherId)
+                .ne("status", CANCELLED);
+    }
 }
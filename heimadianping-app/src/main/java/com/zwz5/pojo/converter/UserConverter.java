@@ -0,0 +1,52 @@
+package com.zwz5.pojo.converter;
+
+import com.zwz5.pojo.dto.UserDTO;
+import com.zwz5.pojo.entity.User;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * User 与 UserDTO 的转换
+ * 手写字段赋值，代替 BeanUtils.copyProperties、BeanMap 和 ObjectMapper.convertValue 的反射拷贝；UserDTO 增加字段时需同步修改。
+ */
+public final class UserConverter {
+
+    private UserConverter() {
+    }
+
+    public static UserDTO toDTO(User user) {
+        if (user == null) {
+            return null;
+        }
+        UserDTO dto = new UserDTO();
+        dto.setId(user.getId());
+        dto.setNickName(user.getNickName());
+        dto.setIcon(user.getIcon());
+        return dto;
+    }
+
+    /**
+     * 登录态 Hash（login:token:xxx）的字段，null 写为空串
+     */
+    public static Map<String, String> toHash(UserDTO user) {
+        Map<String, String> hash = new HashMap<>(4);
+        hash.put("id", user.getId() == null ? "" : user.getId().toString());
+        hash.put("nickName", user.getNickName() == null ? "" : user.getNickName());
+        hash.put("icon", user.getIcon() == null ? "" : user.getIcon());
+        return hash;
+    }
+
+    public static UserDTO fromHash(Map<Object, Object> hash) {
+        UserDTO dto = new UserDTO();
+        Object id = hash.get("id");
+        dto.setId(id == null || id.toString().isEmpty() ? null : Long.valueOf(id.toString()));
+        dto.setNickName(stringOf(hash.get("nickName")));
+        dto.setIcon(stringOf(hash.get("icon")));
+        return dto;
+    }
+
+    private static String stringOf(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,15 @@
+package com.zwz5.pojo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowCountDTO {
+    // 关注数
+    private Long follows;
+    // 粉丝数
+    private Long fans;
+}
@@ -0,0 +1,18 @@
+package com.zwz5.pojo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShopVisitStatsDTO {
+    private Long shopId;
+    // day / week / month
+    private String period;
+    // 独立访客数（HyperLogLog 估算值）
+    private Long uv;
+    // 访问次数
+    private Long pv;
+}
@@ -0,0 +1,20 @@
+package com.zwz5.pojo.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SignStatsDTO {
+    private Long userId;
+    // 统计月份 yyyyMM
+    private String month;
+    // 当月签到天数
+    private Integer signCount;
+    // 截止今天的连续签到天数（跨月）
+    private Integer streak;
+    // 当月签到的日期（几号），批量查询时不返回
+    private List<Integer> signDays;
+    // 当月补签的日期（几号），批量查询时不返回
+    private List<Integer> backupDays;
+}
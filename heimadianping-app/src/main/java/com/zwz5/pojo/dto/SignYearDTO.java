@@ -0,0 +1,18 @@
+package com.zwz5.pojo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignYearDTO {
+    private Integer year;
+    // 全年签到天数
+    private Long total;
+    // 1~12 月每月签到天数
+    private List<Long> monthCounts;
+}
@@ -0,0 +1,66 @@
+package com.zwz5.pojo.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * <p>
+ * 用户每月签到记录，一个月一行
+ * </p>
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("tb_sign")
+public class Sign implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 用户id
+     */
+    private Long userId;
+
+    /**
+     * 签到的年
+     */
+    private Integer year;
+
+    /**
+     * 签到的月
+     */
+    private Integer month;
+
+    /**
+     * 当月签到位图，第 d 天位于 bit (31 - d)
+     */
+    private Integer signBits;
+
+    /**
+     * 当月补签位图，布局同 signBits
+     */
+    private Integer backupBits;
+
+    /**
+     * 当月签到天数
+     */
+    private Integer signCount;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
@@ -16,7 +16,9 @@ public interface IBlogService extends IService<Blog> {
 
     Result queryBlogById(Long id);
 
-    Result queryHotBlog(Integer current);
+    Result queryHotBlog(Integer current, String cursor);
+
+    Result queryBlogOfUser(Long userId, Integer current, String cursor);
 
     Result queryBlogLikes(Long id);
 
@@ -24,5 +26,5 @@ public interface IBlogService extends IService<Blog> {
 
     Result saveBlog(Blog blog);
 
-    Result queryBlogOfFollow(Long max, Integer offset);
+    Result queryBlogOfFollow(Long max, Long lastBlogId, Integer size);
 }
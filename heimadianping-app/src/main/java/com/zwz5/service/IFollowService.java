@@ -4,6 +4,8 @@ import com.zwz5.common.result.Result;
 import com.zwz5.pojo.entity.Follow;
 import com.baomidou.mybatisplus.extension.service.IService;
 
+import java.util.List;
+
 /**
  * <p>
  *  服务类
@@ -18,5 +20,9 @@ public interface IFollowService extends IService<Follow> {
 
     Result isFollow(Long followUserId);
 
+    Result isFollow(List<Long> followUserIds);
+
     Result followCommons(Long followUserId);
+
+    Result queryFollowCount(Long userId);
 }
@@ -1,5 +1,6 @@
 package com.zwz5.service;
 
+import com.zwz5.common.cache.RawJson;
 import com.zwz5.common.result.Result;
 import com.zwz5.pojo.entity.Shop;
 import com.baomidou.mybatisplus.extension.service.IService;
@@ -16,7 +17,13 @@ public interface IShopService extends IService<Shop> {
 
     Shop queryById(Long id);
 
+    RawJson queryRawById(Long id);
+
+    Long saveShop(Shop shop);
+
     void update(Shop shop);
 
-    Result queryShopByType(Integer typeId, Integer current, Double x, Double y);
+    Result queryShopByType(Integer typeId, Integer current, String cursor, Double x, Double y);
+
+    Result queryShopByName(String name, Integer current, String cursor);
 }
@@ -4,6 +4,9 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import com.zwz5.common.result.Result;
 import com.zwz5.pojo.entity.User;
 
+import java.time.LocalDate;
+import java.util.List;
+
 /**
  * <p>
  *  服务类
@@ -18,5 +21,13 @@ public interface IUserService extends IService<User> {
 
     Result sign();
 
+    Result makeupSign(LocalDate date);
+
     Result signCount();
+
+    Result signStats(String month);
+
+    Result signYearStats(Integer year);
+
+    Result signStatsBatch(List<Long> userIds, String month);
 }
@@ -1,32 +1,48 @@
 package com.zwz5.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.conditions.query.LambdaQueryChainWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.zwz5.common.cache.RedisCacheClient;
+import com.zwz5.common.redis.RedisBatch;
+import com.zwz5.common.redis.RedisMultiKey;
+import com.zwz5.common.redis.RedisScripts;
+import com.zwz5.common.redis.SlotShards;
+import com.zwz5.common.result.CursorResult;
 import com.zwz5.common.result.Result;
 import com.zwz5.common.result.ScrollResult;
 import com.zwz5.common.utils.UserHolder;
+import com.zwz5.config.KeysetPagination;
 import com.zwz5.constants.SystemConstants;
+import com.zwz5.manager.UserProfileCache;
 import com.zwz5.mapper.BlogMapper;
 import com.zwz5.pojo.dto.UserDTO;
 import com.zwz5.pojo.entity.Blog;
 import com.zwz5.pojo.entity.Follow;
-import com.zwz5.pojo.entity.User;
 import com.zwz5.service.IBlogService;
 import com.zwz5.service.IFollowService;
-import com.zwz5.service.IUserService;
 import jakarta.annotation.Resource;
-import org.springframework.beans.BeanUtils;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.zwz5.constants.RedisConstants.BLOG_LIKED_KEY;
+import static com.zwz5.constants.RedisConstants.BLOG_LIKE_COUNT_KEY;
+import static com.zwz5.constants.RedisConstants.BLOG_LIKE_DIRTY_KEY;
+import static com.zwz5.constants.RedisConstants.BLOG_LIKE_DIRTY_SLOTS_KEY;
+import static com.zwz5.constants.RedisConstants.CACHE_BLOG_KEY;
+import static com.zwz5.constants.RedisConstants.CACHE_BLOG_TTL;
 import static com.zwz5.constants.RedisConstants.FEED_KEY;
+import static com.zwz5.constants.RedisConstants.FEED_TRIM_PENDING_KEY;
+import static com.zwz5.constants.RedisConstants.tag;
 
 /**
  * <p>
@@ -40,12 +56,30 @@ import static com.zwz5.constants.RedisConstants.FEED_KEY;
 public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements IBlogService {
 
     @Resource
-    private IUserService userService;
+    private UserProfileCache userProfileCache;
     @Resource
     private IFollowService followService;
 
     @Resource
     private StringRedisTemplate stringRedisTemplate;
+    @Resource
+    private RedisCacheClient redisCacheClient;
+    @Resource
+    private RedisMultiKey redisMultiKey;
+
+    // 点赞脚本返回值：计数未初始化
+    private static final long LIKE_COUNT_MISSING = -1L;
+
+    private static final DefaultRedisScript<Long> LIKE_SCRIPT;
+
+    static {
+        LIKE_SCRIPT = new DefaultRedisScript<>();
+        LIKE_SCRIPT.setLocation(new ClassPathResource("lua/blog_like_script.lua"));
+        LIKE_SCRIPT.setResultType(Long.class);
+    }
+
+    private static final DefaultRedisScript<List<Object>> FEED_PAGE_SCRIPT =
+            RedisScripts.listScript("lua/feed_page_script.lua");
 
     /**
      * 根据id查询博客详情，并补充作者信息
@@ -60,22 +94,71 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements IB
             return Result.fail("笔记不存在！");
         }
         fillBlogUser(blog);
+        overlayLiked(List.of(blog));
         return Result.ok(blog);
     }
 
     /**
      * 分页查询热门博客，并补充作者信息
+     * 传入 cursor（首页传空串）时按 (liked, id) 游标分页并返回 CursorResult，否则按页码返回列表。
      *
      * @param current 页码
+     * @param cursor  上一页返回的游标
      * @return 热门博客列表
      */
     @Override
-    public Result queryHotBlog(Integer current) {
+    public Result queryHotBlog(Integer current, String cursor) {
+        // 传入游标时按 (liked, id) 游标分页
+        if (cursor != null) {
+            CursorResult<Blog> result = KeysetPagination.page(
+                    getBaseMapper(),
+                    new QueryWrapper<>(),
+                    KeysetPagination.Keyset.by("liked", b -> b.getLiked() == null ? 0L : b.getLiked().longValue(), Blog::getId, true),
+                    cursor,
+                    SystemConstants.MAX_PAGE_SIZE);
+            // 游标已按 DB 中的 liked 生成，之后再覆盖展示用的点赞数
+            fillBlogUsers(result.getList());
+            overlayLiked(result.getList());
+            return Result.ok(result);
+        }
         Page<Blog> page = query()
                 .orderByDesc("liked")
-                .page(new Page<>(current, SystemConstants.MAX_PAGE_SIZE));
+                .orderByDesc("id")
+                .page(new Page<>(current, SystemConstants.MAX_PAGE_SIZE, false));
         List<Blog> records = page.getRecords();
-        records.forEach(this::fillBlogUser);
+        fillBlogUsers(records);
+        overlayLiked(records);
+        return Result.ok(records);
+    }
+
+    /**
+     * 查询用户发布的博客
+     * 传入 cursor（首页传空串）时按 id 倒序游标分页并返回 CursorResult，否则按页码返回列表。
+     *
+     * @param userId  博客作者id
+     * @param current 页码
+     * @param cursor  上一页返回的游标
+     * @return 博客列表
+     */
+    @Override
+    public Result queryBlogOfUser(Long userId, Integer current, String cursor) {
+        if (cursor != null) {
+            // 按 id 倒序游标分页，走 idx_user_id
+            CursorResult<Blog> result = KeysetPagination.page(
+                    getBaseMapper(),
+                    new QueryWrapper<Blog>().eq("user_id", userId),
+                    KeysetPagination.Keyset.byId(Blog::getId, true),
+                    cursor,
+                    SystemConstants.MAX_PAGE_SIZE);
+            overlayLiked(result.getList());
+            return Result.ok(result);
+        }
+        // 根据用户查询，不查询总数
+        Page<Blog> page = query()
+                .eq("user_id", userId)
+                .page(new Page<>(current, SystemConstants.MAX_PAGE_SIZE, false));
+        List<Blog> records = page.getRecords();
+        overlayLiked(records);
         return Result.ok(records);
     }
 
@@ -88,7 +171,7 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements IB
     @Override
     public Result queryBlogLikes(Long id) {
         // 1.查询TOP5点赞的人，按时间排序
-        String key = BLOG_LIKED_KEY + id;
+        String key = BLOG_LIKED_KEY + tag(id);
         Set<String> topRange = stringRedisTemplate.opsForZSet().range(key, 0, SystemConstants.BOLG_LIKES_MAX_SIZE);
         if (topRange == null || topRange.isEmpty()) {
             // 1.1 无人点赞则返回空集合
@@ -96,54 +179,55 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements IB
         }
         List<Long> userIds = topRange.stream().map(Long::valueOf).toList();
         // 2.查询点赞的用户相关信息
-        List<UserDTO> userDTOList = userService.listByIds(userIds)
-                .stream()
-                .map(user -> {
-                    UserDTO dto = new UserDTO();
-                    BeanUtils.copyProperties(user, dto);
-                    return dto;
-                })
-                .toList();
-        return Result.ok(userDTOList);
+        return Result.ok(userProfileCache.list(userIds));
     }
 
     /**
      * 点赞博客
+     * 点赞状态与计数只在 Redis 中原子切换，DB 的 liked 字段由 BlogLikeFlushJob 批量回写，
+     * 避免热门博客的点赞请求在 tb_blog 同一行上串行等待行锁。
      *
      * @param id 博客id
      * @return 操作结果
      */
     @Override
     public Result likeBlog(Long id) {
-        // 点赞方案
         // 1.获取当前用户
         UserDTO user = UserHolder.getUser();
         if (user == null) {
             // 为空则说明没有登录，直接返回
             return Result.fail("未登录");
         }
-        // 2.判断用户是否点赞
-        String key = BLOG_LIKED_KEY + id;
-        Double score = stringRedisTemplate.opsForZSet().score(key, user.getId().toString());
-        if (score == null) {
-            // 2.1 如果没有点赞缓存，则可以点赞，并在数据库中自增
-            boolean isSuccess = update().setSql("liked = liked + 1").eq("id", id).update();
-            if (isSuccess) {
-                // 将点赞时间作为排序score
-                stringRedisTemplate.opsForZSet().add(key, user.getId().toString(), System.currentTimeMillis());
+        // 2.Lua 原子切换点赞状态并维护计数
+        Long result = executeLikeScript(id, user.getId());
+        if (result != null && result == LIKE_COUNT_MISSING) {
+            // 2.1 计数未初始化，以数据库中的点赞数为基线初始化后重试
+            Blog blog = getById(id);
+            if (blog == null) {
+                return Result.fail("笔记不存在！");
             }
-        } else {
-            // 2.2 如果已经被点赞过，则取消点赞
-            boolean isSuccess = update().setSql("liked = liked - 1").eq("id", id).update();
-            if (isSuccess) {
-                // 删除缓存
-                stringRedisTemplate.opsForZSet().remove(key, user.getId().toString());
-            }
-
+            int liked = blog.getLiked() == null ? 0 : blog.getLiked();
+            stringRedisTemplate.opsForValue().setIfAbsent(BLOG_LIKE_COUNT_KEY + tag(id), String.valueOf(liked));
+            result = executeLikeScript(id, user.getId());
+        }
+        // 3.待回写标记已由脚本写入同槽分片，这里只提示回写任务处理该分片
+        if (result != null && result >= 0) {
+            SlotShards.hint(stringRedisTemplate, BLOG_LIKE_DIRTY_SLOTS_KEY, SlotShards.tagOf(BLOG_LIKED_KEY + tag(id)));
         }
         return Result.ok();
     }
 
+    private Long executeLikeScript(Long blogId, Long userId) {
+        String likedKey = BLOG_LIKED_KEY + tag(blogId);
+        return stringRedisTemplate.execute(
+                LIKE_SCRIPT,
+                List.of(likedKey, BLOG_LIKE_COUNT_KEY + tag(blogId), BLOG_LIKE_DIRTY_KEY + SlotShards.tagOf(likedKey)),
+                userId.toString(),
+                String.valueOf(System.currentTimeMillis()),
+                blogId.toString()
+        );
+    }
+
     @Override
     public Result saveBlog(Blog blog) {
         // 获取登录用户
@@ -159,67 +243,99 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements IB
         List<Follow> follows = followService.lambdaQuery()
                 .eq(Follow::getFollowUserId, userId)
                 .list();
-        // 推送该笔记到Redis
+        // 推送该笔记到Redis，所有粉丝的收件箱写入合并为 pipeline
+        RedisBatch batch = RedisBatch.of(stringRedisTemplate);
+        String blogId = blog.getId().toString();
+        long now = System.currentTimeMillis();
+        // 删除该 id 可能存在的空值缓存，避免粉丝在空值过期前读不到新博客
+        batch.add(conn -> conn.del(CACHE_BLOG_KEY + blogId));
         for (Follow follow : follows) {
             String key = FEED_KEY + follow.getUserId().toString();
             // 推送
-            stringRedisTemplate.opsForZSet().add(key, blog.getId().toString(), System.currentTimeMillis());
+            batch.add(conn -> conn.zAdd(key, now, blogId));
+        }
+        // 记录收到推送的收件箱，由 FeedInboxTrimJob 在后台裁剪
+        if (!follows.isEmpty()) {
+            String[] followerIds = follows.stream().map(f -> f.getUserId().toString()).toArray(String[]::new);
+            batch.add(conn -> conn.sAdd(FEED_TRIM_PENDING_KEY, followerIds));
         }
+        batch.flush();
         // 返回id
         return Result.ok(blog.getId());
     }
 
+    /**
+     * Feed流分页查询
+     * 使用 (score, blogId) 复合游标，同一毫秒内推送的多篇博客按 id 降序稳定排列，
+     * 翻页时不需要记录 offset，也不会因为同分数据而重复或遗漏。
+     *
+     * @param max        上一页最后一条的时间戳
+     * @param lastBlogId 上一页最后一条的博客id，首页为 null
+     * @param size       页大小
+     * @return 博客列表与下一页游标
+     */
     @Override
-    public Result queryBlogOfFollow(Long max, Integer offset) {
+    public Result queryBlogOfFollow(Long max, Long lastBlogId, Integer size) {
         // 查询当前用户
         UserDTO user = UserHolder.getUser();
         Long userId = user.getId();
-        // 查询Redis中的收件箱
-        String key = FEED_KEY + userId;
-        Set<ZSetOperations.TypedTuple<String>> typedTuples = stringRedisTemplate.opsForZSet().reverseRangeByScoreWithScores(key, 0, max, offset, 2);
-        // 判断是否为空
-        if (typedTuples == null || typedTuples.isEmpty()) {
-            return Result.ok(Collections.emptyList());
-        }
-        // 解析数据，根据时间戳分页
-        List<Long> blogIds = new ArrayList<>(typedTuples.size());
-        int offset_next = 0;
-        Long minTime = max;
-
-        for (ZSetOperations.TypedTuple<String> typedTuple : typedTuples) {
-            Long blog_id = Long.valueOf(Objects.requireNonNull(typedTuple.getValue()));
-            blogIds.add(blog_id);
-            // 更新时间戳
-            long score = Objects.requireNonNull(typedTuple.getScore()).longValue();
-            // 如果该blog更早，则更新时间戳
-            if (score < minTime) {
-                minTime = score;
-                offset_next = 1;
-            } else if (score == minTime) {
-                // 如果重复，则记录数量，用于跳过重复项
-                offset_next++;
-            }
+        // 1.Lua 按复合游标读取收件箱的一页
+        List<Object> items = stringRedisTemplate.execute(
+                FEED_PAGE_SCRIPT,
+                Collections.singletonList(FEED_KEY + userId),
+                max.toString(),
+                lastBlogId == null ? "" : lastBlogId.toString(),
+                size.toString()
+        );
+        ScrollResult r = new ScrollResult();
+        r.setMinTime(max);
+        r.setLastBlogId(lastBlogId);
+        if (items == null || items.isEmpty()) {
+            r.setList(Collections.emptyList());
+            return Result.ok(r);
         }
-        // 5.根据id查询blog
-        String idStr = blogIds.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(","));
-        List<Blog> blogs = query().in("id", blogIds).last("ORDER BY FIELD(id," + idStr + ")").list();
-        // 获取Blog详细
-        // 获取Blog有关的用户
-        // 获取Blog是否被点赞
-        for (Blog blog : blogs) {
-            // 5.1.查询blog有关的用户和是否被点赞
-            fillBlogUser(blog);
+        // 2.解析数据，最后一条作为下一页游标
+        List<Long> blogIds = new ArrayList<>(items.size() / 2);
+        for (int i = 0; i + 1 < items.size(); i += 2) {
+            blogIds.add(Long.valueOf(items.get(i).toString()));
         }
+        r.setLastBlogId(blogIds.get(blogIds.size() - 1));
+        r.setMinTime(Double.valueOf(items.get(items.size() - 1).toString()).longValue());
 
-        // 6.封装并返回
-        ScrollResult r = new ScrollResult();
+        // 3.批量读取博客缓存，未命中的批量查库，结果按 blogIds 顺序返回
+        List<Blog> blogs = redisCacheClient.queryBatch(
+                CACHE_BLOG_KEY, blogIds, Blog.class,
+                ids -> listByIds(ids).stream().collect(Collectors.toMap(Blog::getId, b -> b)),
+                CACHE_BLOG_TTL, TimeUnit.MINUTES
+        );
+        // 4.点赞数以 Redis 计数为准，博客缓存中的 liked 可能是旧值，点赞时不删除缓存
+        overlayLiked(blogs);
+        // 查询blog有关的用户和是否被点赞
+        fillBlogUsers(blogs);
+
+        // 5.封装并返回
         r.setList(blogs);
-        r.setOffset(offset_next);
-        r.setMinTime(minTime);
         return Result.ok(r);
+    }
 
+    /**
+     * 点赞数以 Redis 计数为准，DB 中的值可能尚未被 BlogLikeFlushJob 回写
+     * 一次批量读取整页博客的计数，计数未初始化的保留 DB 值。
+     *
+     * @param blogs 博客列表
+     */
+    private void overlayLiked(List<Blog> blogs) {
+        if (blogs.isEmpty()) {
+            return;
+        }
+        List<String> likedCounts = redisMultiKey.multiGet(stringRedisTemplate,
+                blogs.stream().map(b -> BLOG_LIKE_COUNT_KEY + tag(b.getId())).toList());
+        for (int i = 0; i < blogs.size(); i++) {
+            String liked = likedCounts == null ? null : likedCounts.get(i);
+            if (liked != null) {
+                blogs.get(i).setLiked(Integer.valueOf(liked));
+            }
+        }
     }
 
     /**
@@ -228,17 +344,42 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements IB
      * @param blog 博客对象
      */
     private void fillBlogUser(Blog blog) {
-        User user = userService.getById(blog.getUserId());
+        fillBlogUsers(List.of(blog));
+    }
+
+    /**
+     * 批量补充博客作者信息和点赞状态，作者资料一次批量读取，点赞状态的 ZSCORE 通过一次 pipeline 读取
+     *
+     * @param blogs 博客列表
+     */
+    private void fillBlogUsers(List<Blog> blogs) {
+        if (blogs.isEmpty()) {
+            return;
+        }
+        Map<Long, UserDTO> users = userProfileCache.map(blogs.stream().map(Blog::getUserId).toList());
         UserDTO me = UserHolder.getUser();
-        // 是否被点赞
+        List<CompletableFuture<Double>> scores = null;
         if (me != null) {
-            String key = BLOG_LIKED_KEY + blog.getId();
-            Double score = stringRedisTemplate.opsForZSet().score(key, me.getId().toString());
-            blog.setIsLike(score != null);
+            String member = me.getId().toString();
+            RedisBatch batch = RedisBatch.of(stringRedisTemplate);
+            scores = new ArrayList<>(blogs.size());
+            for (Blog blog : blogs) {
+                String key = BLOG_LIKED_KEY + tag(blog.getId());
+                scores.add(batch.add(conn -> conn.zScore(key, member)));
+            }
+            batch.flush();
         }
-        if (user != null) {
-            blog.setName(user.getNickName());
-            blog.setIcon(user.getIcon());
+        for (int i = 0; i < blogs.size(); i++) {
+            Blog blog = blogs.get(i);
+            // 是否被点赞
+            if (scores != null) {
+                blog.setIsLike(scores.get(i).join() != null);
+            }
+            UserDTO user = users.get(blog.getUserId());
+            if (user != null) {
+                blog.setName(user.getNickName());
+                blog.setIcon(user.getIcon());
+            }
         }
     }
 }
@@ -3,23 +3,21 @@ package com.zwz5.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.zwz5.common.result.Result;
 import com.zwz5.common.utils.UserHolder;
+import com.zwz5.constants.SystemConstants;
+import com.zwz5.manager.FollowGraphManager;
+import com.zwz5.manager.UserProfileCache;
 import com.zwz5.pojo.dto.UserDTO;
 import com.zwz5.pojo.entity.Follow;
-import com.zwz5.pojo.entity.User;
 import com.zwz5.mapper.FollowMapper;
 import com.zwz5.service.IFollowService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.zwz5.service.IUserService;
 import jakarta.annotation.Resource;
-import org.springframework.beans.BeanUtils;
 import org.springframework.dao.DuplicateKeyException;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 /**
  * <p>
@@ -33,10 +31,10 @@ import java.util.stream.Collectors;
 public class FollowServiceImpl extends ServiceImpl<FollowMapper, Follow> implements IFollowService {
 
     @Resource
-    private StringRedisTemplate stringRedisTemplate;
+    private FollowGraphManager followGraphManager;
 
     @Resource
-    private IUserService userService;
+    private UserProfileCache userProfileCache;
 
     /**
      * 关注某
@@ -54,10 +52,11 @@ public class FollowServiceImpl extends ServiceImpl<FollowMapper, Follow> impleme
         if (validateResult != null) {
             return validateResult;
         }
-        String key = "follows:" + userId;
+        // 确保关注集合与计数已加载，后续增量同步才不会丢失
+        followGraphManager.prepare(userId, followUserId);
         // 没关注过则关注
         if (isFollow) {
-            if (hasFollowed(userId, followUserId)) {
+            if (followGraphManager.isFollowing(userId, followUserId)) {
                 return Result.fail("重复关注！");
             }
             Follow follow = new Follow();
@@ -67,19 +66,19 @@ public class FollowServiceImpl extends ServiceImpl<FollowMapper, Follow> impleme
                 // 数据库联合唯一索引兜底，避免并发下插入重复关注记录。
                 boolean save = save(follow);
                 if (save) {
-                    // DB 写入成功后再同步 Redis 关注集合。
-                    stringRedisTemplate.opsForSet().add(key, followUserId.toString());
+                    // DB 写入成功后再同步 Redis 关注集合与计数。
+                    followGraphManager.onFollow(userId, followUserId);
                 }
             } catch (DuplicateKeyException e) {
                 return Result.fail("重复关注！");
             }
         } else {
             // 关注则取消
-            if (hasFollowed(userId, followUserId)) {
+            if (followGraphManager.isFollowing(userId, followUserId)) {
                 boolean remove = remove(new QueryWrapper<Follow>().eq("user_id", userId).eq("follow_user_id", followUserId));
                 if (remove) {
-                    // 把关注用户的id从Redis集合中移除
-                    stringRedisTemplate.opsForSet().remove(key, followUserId.toString());
+                    // 把关注用户的id从Redis集合中移除，并同步计数
+                    followGraphManager.onUnfollow(userId, followUserId);
                 }
             } else {
                 return Result.fail("未关注用户！");
@@ -99,10 +98,40 @@ public class FollowServiceImpl extends ServiceImpl<FollowMapper, Follow> impleme
         // 获取登录用户
         UserDTO user = UserHolder.getUser();
         Long userId = user.getId();
-        boolean isFollow = hasFollowed(userId, followUserId);
+        boolean isFollow = followGraphManager.isFollowing(userId, followUserId);
         return Result.ok(isFollow);
     }
 
+    /**
+     * 批量查询是否关注
+     *
+     * @param followUserIds
+     * @return 用户id -> 是否关注
+     */
+    @Override
+    public Result isFollow(List<Long> followUserIds) {
+        if (followUserIds == null || followUserIds.isEmpty()) {
+            return Result.ok(Collections.emptyMap());
+        }
+        if (followUserIds.size() > SystemConstants.FOLLOW_BATCH_MAX_SIZE) {
+            return Result.fail("单次最多查询" + SystemConstants.FOLLOW_BATCH_MAX_SIZE + "个用户！");
+        }
+        Long userId = UserHolder.getUser().getId();
+        List<Long> ids = followUserIds.stream().filter(Objects::nonNull).distinct().toList();
+        return Result.ok(followGraphManager.isFollowing(userId, ids));
+    }
+
+    /**
+     * 关注数与粉丝数
+     *
+     * @param userId
+     * @return
+     */
+    @Override
+    public Result queryFollowCount(Long userId) {
+        return Result.ok(followGraphManager.getCount(userId));
+    }
+
     /**
      * 共同关注
      *
@@ -113,36 +142,16 @@ public class FollowServiceImpl extends ServiceImpl<FollowMapper, Follow> impleme
     public Result followCommons(Long followUserId) {
         // 1.获取当前用户
         Long userId = UserHolder.getUser().getId();
-        String key = "follows:" + userId;
-
-        // 2.求交集
-        String key2 = "follows:" + followUserId;
-        Set<String> intersect = stringRedisTemplate.opsForSet().intersect(key, key2);
 
-        if (intersect == null || intersect.isEmpty()) {
+        // 2.求交集，集合未加载时先从数据库加载
+        List<Long> ids = followGraphManager.commonFollows(userId, followUserId);
+        if (ids.isEmpty()) {
             // 无交集
             return Result.ok(Collections.emptyList());
         }
 
-        // 3.解析id集合
-        List<Long> ids = intersect.stream().map(Long::valueOf).collect(Collectors.toList());
-        // 4.查询用户
-        List<UserDTO> userDTOList = userService.listByIds(ids)
-                .stream()
-                .map(user -> {
-                    UserDTO dto = new UserDTO();
-                    BeanUtils.copyProperties(user, dto);
-                    return dto;
-                }).toList();
-
-        return Result.ok(userDTOList);
-    }
-
-    private boolean hasFollowed(Long userId, Long followUserId) {
-        return lambdaQuery()
-                .eq(Follow::getUserId, userId)
-                .eq(Follow::getFollowUserId, followUserId)
-                .count() > 0;
+        // 3.查询用户
+        return Result.ok(userProfileCache.list(ids));
     }
 
     private Result validateFollowTarget(Long userId, Long followUserId, Boolean isFollow) {
@@ -155,8 +164,7 @@ public class FollowServiceImpl extends ServiceImpl<FollowMapper, Follow> impleme
         if (userId.equals(followUserId)) {
             return Result.fail("不能关注自己！");
         }
-        User followUser = userService.getById(followUserId);
-        if (followUser == null) {
+        if (userProfileCache.get(followUserId) == null) {
             return Result.fail("目标用户不存在！");
         }
         return null;
@@ -1,12 +1,22 @@
 package com.zwz5.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.zwz5.common.cache.CacheClient;
+import com.zwz5.common.cache.RawJson;
 import com.zwz5.common.cache.RedisCacheClient;
+import com.zwz5.common.executor.DelayedTaskExecutor;
+import com.zwz5.common.geo.GeoHit;
+import com.zwz5.common.result.CursorResult;
 import com.zwz5.common.result.Result;
+import com.zwz5.config.KeysetPagination;
 import com.zwz5.constants.SystemConstants;
+import com.zwz5.exception.CursorException;
 import com.zwz5.exception.LockException;
 import com.zwz5.exception.NullException;
+import com.zwz5.manager.ShopGeoManager;
+import com.zwz5.manager.ResponseCacheManager;
+import com.zwz5.manager.ShopSearchManager;
 import com.zwz5.pojo.entity.Shop;
 import com.zwz5.mapper.ShopMapper;
 import com.zwz5.service.IShopService;
@@ -16,15 +26,12 @@ import com.zwz5.common.redis.RedisData;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.data.geo.Distance;
-import org.springframework.data.geo.GeoResult;
-import org.springframework.data.geo.GeoResults;
-import org.springframework.data.redis.connection.RedisGeoCommands;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
-import org.springframework.data.redis.domain.geo.GeoReference;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
@@ -55,6 +62,14 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, Shop> implements IS
     private JsonUtils jsonUtils;
     @Resource
     private RedisCacheClient redisCacheClient;
+    @Resource
+    private ShopGeoManager shopGeoManager;
+    @Resource
+    private ShopSearchManager shopSearchManager;
+    @Resource
+    private ResponseCacheManager responseCacheManager;
+    @Resource
+    private DelayedTaskExecutor cacheDelayExecutor;
 
     // 避免使用公共 ForkJoinPool，异步任务有自己可观测、可限流的线程池
     @Resource
@@ -74,6 +89,33 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, Shop> implements IS
 
     }
 
+    /**
+     * 根据id查询商铺的 JSON 字节，缓存命中时不经过反序列化和再序列化
+     *
+     * @param id 商铺id
+     * @return 商铺 JSON，商铺不存在时返回 null
+     */
+    @Override
+    public RawJson queryRawById(Long id) {
+        return redisCacheClient.queryRawWithLogicalExpire(
+                CACHE_SHOP_KEY,
+                id,
+                Shop.class,
+                this::getById,
+                CACHE_SHOP_TTL,
+                TimeUnit.MINUTES
+        );
+    }
+
+    @Override
+    public Long saveShop(Shop shop) {
+        // 写入数据库
+        save(shop);
+        // 更新检索索引
+        shopSearchManager.upsert(shop);
+        return shop.getId();
+    }
+
     @Override
     @Transactional
     public void update(Shop shop) {
@@ -83,19 +125,23 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, Shop> implements IS
         }
         // 更新数据库
         updateById(shop);
+        // 事务提交后用完整数据更新检索索引
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                shopSearchManager.upsert(getById(id));
+            }
+        });
         // 删除对应缓存
         String key = CACHE_SHOP_KEY + shop.getId();
         stringRedisTemplate.delete(key);
+        responseCacheManager.evict("/shop/" + id);
         // 延迟双删，避免并发环境旧值回填
-        // 在线程池中异步重建缓存
-        CompletableFuture.runAsync(() -> {
-            try {
-                Thread.sleep(300);
-            } catch (InterruptedException ignored) {
-                Thread.currentThread().interrupt();
-            }
+        // 由延迟执行器定时触发，不在线程池中 sleep
+        cacheDelayExecutor.schedule(() -> {
             stringRedisTemplate.delete(key);
-        }, cacheOpsExecutor);
+            responseCacheManager.evict("/shop/" + id);
+        }, 300, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -108,64 +154,128 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, Shop> implements IS
      * @return
      */
     @Override
-    public Result queryShopByType(Integer typeId, Integer current, Double x, Double y) {
+    public Result queryShopByType(Integer typeId, Integer current, String cursor, Double x, Double y) {
         // 1.判断是否需要坐标查询
         if (x == null || y == null) {
-            // 根据类型分页查询
+            // 传入游标时按 id 游标分页
+            if (cursor != null) {
+                return Result.ok(KeysetPagination.page(
+                        getBaseMapper(),
+                        new QueryWrapper<Shop>().eq("type_id", typeId),
+                        KeysetPagination.Keyset.byId(Shop::getId, false),
+                        cursor,
+                        SystemConstants.DEFAULT_PAGE_SIZE));
+            }
+            // 根据类型分页查询，不查询总数
             Page<Shop> page = lambdaQuery()
                     .eq(Shop::getTypeId, typeId)
-                    .page(new Page<>(current, SystemConstants.DEFAULT_PAGE_SIZE));
+                    .page(new Page<>(current, SystemConstants.DEFAULT_PAGE_SIZE, false));
             // 返回数据
             return Result.ok(page.getRecords());
         }
 
 
-        // 2.计算分页参数
+        // 2.按网格候选集缓存（或本地索引）计算距离并切出当前页
         int from = (current - 1) * SystemConstants.DEFAULT_PAGE_SIZE;
-        int end = current * SystemConstants.DEFAULT_PAGE_SIZE;
-
-        // 3.redis中查询，x y point距离店铺在指定范围内的集合
-        String key = SHOP_GEO_KEY + typeId;
-        GeoResults<RedisGeoCommands.GeoLocation<String>> results = stringRedisTemplate.opsForGeo() // GEOSEARCH key BYLONLAT x y BYRADIUS 10 WITHDISTANCE
-                .search(
-                        key,
-                        GeoReference.fromCoordinate(x, y),
-                        new Distance(5000),
-                        RedisGeoCommands.GeoSearchCommandArgs.newGeoSearchArgs().includeDistance().limit(end));
-
-
-        // 4.解析出id
-        if (results == null) {
-            return Result.ok(Collections.emptyList());
-        }
-        List<GeoResult<RedisGeoCommands.GeoLocation<String>>> list = results.getContent();
-        if (list.size() <= from) {
+        List<GeoHit> hits = shopGeoManager.search(typeId.longValue(), x, y, from, SystemConstants.DEFAULT_PAGE_SIZE);
+        if (hits.isEmpty()) {
             // 没有下一页了，结束
             return Result.ok(Collections.emptyList());
         }
-        // 4.1.截取 from ~ end的部分
-        List<Long> ids = new ArrayList<>(list.size());
-        Map<String, Distance> distanceMap = new HashMap<>(list.size());
-        list.stream().skip(from).forEach(result -> {
-            // 4.2.获取店铺id
-            String shopIdStr = result.getContent().getName();
-            ids.add(Long.valueOf(shopIdStr));
-            // 4.3.获取距离
-            Distance distance = result.getDistance();
-            distanceMap.put(shopIdStr, distance);
-        });
-        // 5.根据id查询Shop
-        String idStr = ids.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(","));
-        List<Shop> shops = query().in("id", ids).last("ORDER BY FIELD(id," + idStr + ")").list();
+        // 3.批量读取店铺缓存，未命中的批量查库
+        List<Long> ids = new ArrayList<>(hits.size());
+        Map<Long, Double> distanceMap = new HashMap<>(hits.size());
+        for (GeoHit hit : hits) {
+            ids.add(hit.id());
+            distanceMap.put(hit.id(), hit.distance());
+        }
+        List<Shop> shops = redisCacheClient.queryBatchWithLogicalExpire(
+                CACHE_SHOP_KEY, LOCK_SHOP_KEY, ids, Shop.class,
+                list -> listByIds(list).stream().collect(Collectors.toMap(Shop::getId, shop -> shop)),
+                CACHE_SHOP_TTL, TimeUnit.MINUTES
+        );
         for (Shop shop : shops) {
-            shop.setDistance(distanceMap.get(shop.getId().toString()).getValue());
+            shop.setDistance(distanceMap.get(shop.getId()));
         }
-        // 6.返回
+        // 4.返回
         return Result.ok(shops);
     }
 
+    /**
+     * 根据商铺名称关键字分页查询
+     * 检索索引就绪时由倒排索引得到按相关度排序的店铺id，再批量读取店铺缓存；
+     * 关键字为空或索引未就绪时回退到 SQL 查询。
+     * 传入 cursor（首页传空串）时返回 CursorResult，否则按页码返回列表。
+     *
+     * @param name    商铺名称关键字
+     * @param current 页码
+     * @param cursor  上一页返回的游标
+     * @return 商铺列表
+     */
+    @Override
+    public Result queryShopByName(String name, Integer current, String cursor) {
+        if (!StringUtils.hasText(name) || !shopSearchManager.isReady()) {
+            // 传入游标时按 id 游标分页
+            if (cursor != null) {
+                return Result.ok(KeysetPagination.page(
+                        getBaseMapper(),
+                        new QueryWrapper<Shop>().like(StringUtils.hasText(name), "name", name),
+                        KeysetPagination.Keyset.byId(Shop::getId, false),
+                        cursor,
+                        SystemConstants.MAX_PAGE_SIZE));
+            }
+            // 根据类型分页查询，不查询总数
+            Page<Shop> page = query()
+                    .like(StringUtils.hasText(name), "name", name)
+                    .page(new Page<>(current, SystemConstants.MAX_PAGE_SIZE, false));
+            // 返回数据
+            return Result.ok(page.getRecords());
+        }
+        int from = searchOffset(current, cursor);
+        List<Long> ids = shopSearchManager.search(name);
+        if (ids.size() <= from) {
+            return cursor == null
+                    ? Result.ok(Collections.emptyList())
+                    : Result.ok(new CursorResult<>(Collections.emptyList(), null, false));
+        }
+        int to = Math.min(from + SystemConstants.MAX_PAGE_SIZE, ids.size());
+        List<Long> pageIds = ids.subList(from, to);
+        List<Shop> shops = redisCacheClient.queryBatchWithLogicalExpire(
+                CACHE_SHOP_KEY, LOCK_SHOP_KEY, pageIds, Shop.class,
+                list -> listByIds(list).stream().collect(Collectors.toMap(Shop::getId, shop -> shop)),
+                CACHE_SHOP_TTL, TimeUnit.MINUTES
+        );
+        if (cursor == null) {
+            return Result.ok(shops);
+        }
+        boolean hasMore = to < ids.size();
+        String next = hasMore ? KeysetPagination.encode(to - 1, pageIds.get(pageIds.size() - 1)) : null;
+        return Result.ok(new CursorResult<>(shops, next, hasMore));
+    }
+
+    /**
+     * 检索结果在内存中，游标记录上一页最后一条的排名
+     * 游标内容来自客户端，排名为负数或超出 int 范围时与格式错误一样按无效游标处理
+     *
+     * @return 本页第一条在检索结果中的位置
+     */
+    static int searchOffset(Integer current, String cursor) {
+        if (cursor == null) {
+            if (current == null || current < 1) {
+                throw new CursorException("页码无效！");
+            }
+            return (int) Math.min((long) (current - 1) * SystemConstants.MAX_PAGE_SIZE, Integer.MAX_VALUE);
+        }
+        long[] position = KeysetPagination.decode(cursor);
+        if (position == null) {
+            return 0;
+        }
+        if (position[0] < 0 || position[0] >= Integer.MAX_VALUE) {
+            throw new CursorException("分页游标无效！");
+        }
+        return (int) position[0] + 1;
+    }
+
     /**
      * 缓存穿透解决方法
      */
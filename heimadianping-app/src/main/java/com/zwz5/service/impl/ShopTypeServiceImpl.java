@@ -1,20 +1,17 @@
 package com.zwz5.service.impl;
 
+import com.zwz5.manager.ShopTypeCatalog;
 import com.zwz5.pojo.entity.ShopType;
 import com.zwz5.mapper.ShopTypeMapper;
 import com.zwz5.service.IShopTypeService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.zwz5.common.utils.JsonUtils;
 import jakarta.annotation.Resource;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.Serializable;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
-
-import static com.zwz5.constants.RedisConstants.CACHE_SHOP_TYPE_KEY;
-import static com.zwz5.constants.RedisConstants.CACHE_SHOP_TYPE_TTL;
 
 /**
  * <p>
@@ -28,26 +25,50 @@ import static com.zwz5.constants.RedisConstants.CACHE_SHOP_TYPE_TTL;
 public class ShopTypeServiceImpl extends ServiceImpl<ShopTypeMapper, ShopType> implements IShopTypeService {
 
     @Resource
-    private StringRedisTemplate stringRedisTemplate;
-    @Resource
-    private JsonUtils jsonUtils;
+    private ShopTypeCatalog shopTypeCatalog;
 
+    /**
+     * 查询商铺类型列表，直接读取内存中的目录快照
+     *
+     * @return 按 sort 排序的商铺类型，不可修改
+     */
     @Override
     public List<ShopType> queryList() {
-        // 查询缓存
-        String key = CACHE_SHOP_TYPE_KEY;
-        String shopTypeJson = stringRedisTemplate.opsForValue().get(key);
-        // 命中缓存，反序列化为对象返回
-        if (StringUtils.hasLength(shopTypeJson)) {
-            return jsonUtils.jsonToList(shopTypeJson, ShopType.class);
+        return shopTypeCatalog.get().data();
+    }
+
+    @Override
+    public boolean save(ShopType entity) {
+        return publishIfChanged(super.save(entity));
+    }
+
+    @Override
+    public boolean updateById(ShopType entity) {
+        return publishIfChanged(super.updateById(entity));
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        return publishIfChanged(super.removeById(id));
+    }
+
+    /**
+     * 类型变更后通知各实例刷新目录，处于事务中时等提交后再通知
+     */
+    private boolean publishIfChanged(boolean changed) {
+        if (!changed) {
+            return false;
         }
-        // 未命中则查询数据库
-        List<ShopType> shopTypes = list();
-        if (shopTypes == null || shopTypes.isEmpty()) {
-            return null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    shopTypeCatalog.publishChange();
+                }
+            });
+        } else {
+            shopTypeCatalog.publishChange();
         }
-        // 写入缓存
-        stringRedisTemplate.opsForValue().set(CACHE_SHOP_TYPE_KEY, jsonUtils.beanToJson(shopTypes), CACHE_SHOP_TYPE_TTL, TimeUnit.HOURS);
-        return shopTypes;
+        return true;
     }
 }
@@ -3,21 +3,25 @@ package com.zwz5.service.impl;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.zwz5.common.result.Result;
 import com.zwz5.common.utils.UserHolder;
-import com.zwz5.constants.RedisConstants;
 import com.zwz5.constants.SystemConstants;
 import com.zwz5.pojo.dto.UserDTO;
 import com.zwz5.pojo.entity.User;
 import com.zwz5.mapper.UserMapper;
 import com.zwz5.service.IUserService;
 import com.zwz5.common.utils.RandomUtils;
+import com.zwz5.manager.SignManager;
+import com.zwz5.manager.UserProfileCache;
 import jakarta.annotation.Resource;
-import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * <p>
@@ -33,10 +37,21 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
     @Resource
     private StringRedisTemplate stringRedisTemplate;
 
+    @Resource
+    private SignManager signManager;
+
+    @Resource
+    private UserProfileCache userProfileCache;
+
+    @Value("${hmdp.sign.makeup-max-days:30}")
+    private int makeupMaxDays;
+
     @Override
     public User createUserWithPhone(String phone) {
         User user = User.builder().phone(phone).nickName("user_" + RandomUtils.generateRandomString(10)).build();
         save(user);
+        // 清除该 id 可能存在的空值缓存
+        userProfileCache.evict(user.getId());
         return user;
     }
 
@@ -50,59 +65,93 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         // 获取当前用户
         UserDTO user = UserHolder.getUser();
         Long userId = user.getId();
-        // 获取当前日期
-        LocalDateTime now = LocalDateTime.now();
-        // 获取当前日期的月份
-        String keySuffix = now.format(DateTimeFormatter.ofPattern(":yyyyMM"));
-        // 拼接key
-        String key = RedisConstants.USER_SIGN_KEY + userId + keySuffix;
-        // 获取当前为月的第几天
-        int dayOfMonth = now.getDayOfMonth();
-        // 写入Redis中的BitMap
-        if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().getBit(key, dayOfMonth - 1))) {
+        // 写入Redis中的BitMap，SETBIT 返回旧值判断是否已签到
+        if (!signManager.sign(userId, LocalDate.now(), false)) {
             return Result.ok("用户已经签到");
         }
-        stringRedisTemplate.opsForValue().setBit(key, dayOfMonth - 1, true);
         return Result.ok();
     }
 
+    /**
+     * 补签，只能补签今天之前 makeupMaxDays 天内的日期
+     */
+    @Override
+    public Result makeupSign(LocalDate date) {
+        UserDTO user = UserHolder.getUser();
+        LocalDate today = LocalDate.now();
+        if (date == null || !date.isBefore(today)) {
+            return Result.fail("只能补签今天之前的日期！");
+        }
+        if (date.isBefore(today.minusDays(makeupMaxDays))) {
+            return Result.fail("最多只能补签" + makeupMaxDays + "天内的日期！");
+        }
+        if (!signManager.sign(user.getId(), date, true)) {
+            return Result.fail("该日期已经签到！");
+        }
+        return Result.ok();
+    }
+
+    /**
+     * 截止今天的连续签到天数，跨月连续计算
+     */
     @Override
     public Result signCount() {
         // 获取当前用户
         UserDTO user = UserHolder.getUser();
-        Long userId = user.getId();
-        // 获取当前日期
-        LocalDateTime now = LocalDateTime.now();
-        // 获取当前日期的月份
-        String keySuffix = now.format(DateTimeFormatter.ofPattern(":yyyyMM"));
-        // 拼接key
-        String key = RedisConstants.USER_SIGN_KEY + userId + keySuffix;
-        // 获取当前为月的第几天
-        int dayOfMonth = now.getDayOfMonth();
-        // 获取本月截止到今天的签到记录，返回十进制数字
-        // Redis 的 位图（bitmap）按位读取操作：ITFIELD sign:1010:202605 GET u14 0
-        // u14 unsigned无符号读取14为，将今日作为参数，实现读取截止到今天的签到数，0为偏移量
-        List<Long> result = stringRedisTemplate.opsForValue()
-                .bitField(key, BitFieldSubCommands.create().get(BitFieldSubCommands.BitFieldType.unsigned(dayOfMonth)).valueAt(0));
-        // 没有任何签到结果
-        if (result == null || result.isEmpty()) {
-            return Result.ok(0);
+        return Result.ok(signManager.streak(user.getId(), LocalDate.now()));
+    }
+
+    /**
+     * 当前用户某月签到统计
+     *
+     * @param month yyyyMM，为空则为本月
+     */
+    @Override
+    public Result signStats(String month) {
+        UserDTO user = UserHolder.getUser();
+        YearMonth yearMonth = parseMonth(month);
+        if (yearMonth == null) {
+            return Result.fail("月份格式错误！");
+        }
+        return Result.ok(signManager.stats(user.getId(), yearMonth, LocalDate.now()));
+    }
+
+    /**
+     * 当前用户年度签到统计
+     */
+    @Override
+    public Result signYearStats(Integer year) {
+        UserDTO user = UserHolder.getUser();
+        return Result.ok(signManager.yearStats(user.getId(), year == null ? LocalDate.now().getYear() : year));
+    }
+
+    /**
+     * 批量查询多个用户某月签到天数与连续签到天数
+     */
+    @Override
+    public Result signStatsBatch(List<Long> userIds, String month) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Result.ok(Collections.emptyList());
+        }
+        if (userIds.size() > SystemConstants.SIGN_BATCH_MAX_SIZE) {
+            return Result.fail("单次最多查询" + SystemConstants.SIGN_BATCH_MAX_SIZE + "个用户！");
+        }
+        YearMonth yearMonth = parseMonth(month);
+        if (yearMonth == null) {
+            return Result.fail("月份格式错误！");
         }
-        Long num = result.get(0);
-        if (num == null || num == 0) {
-            return Result.ok(0);
+        List<Long> ids = userIds.stream().filter(Objects::nonNull).distinct().toList();
+        return Result.ok(signManager.batchStats(ids, yearMonth, LocalDate.now()));
+    }
+
+    private YearMonth parseMonth(String month) {
+        if (month == null || month.isBlank()) {
+            return YearMonth.now();
         }
-        // 循环遍历
-        int count = 0;
-        for (int i = 0; i < dayOfMonth; i++) {
-            // 判断最后一位，如果签到则累加，未位签到则结束
-            if ((num & 1) != 0) {
-                count++;
-            } else {
-                break;
-            }
-            num >>>= 1;
+        try {
+            return YearMonth.parse(month, SignManager.MONTH_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return null;
         }
-        return Result.ok(count);
     }
 }
@@ -3,17 +3,25 @@ package com.zwz5.service.impl;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.zwz5.common.lock.Ilock;
 import com.zwz5.common.lock.SimpleRedisLock;
+import com.zwz5.common.metrics.LockMetrics;
 import com.zwz5.common.redis.RedisIdWorker;
 import com.zwz5.common.result.Result;
 import com.zwz5.common.utils.UserHolder;
+import com.zwz5.constants.OrderStatusConstants;
 import com.zwz5.constants.RedisConstants;
 import com.zwz5.constants.SeckillResultCodeConstants;
+import com.zwz5.manager.SeckillActivityRegistry;
+import com.zwz5.manager.SeckillOrderTimeoutManager;
 import com.zwz5.mapper.VoucherOrderMapper;
 import com.zwz5.pojo.entity.SeckillVoucher;
 import com.zwz5.pojo.entity.VoucherOrder;
 import com.zwz5.service.ISeckillVoucherService;
 import com.zwz5.service.IVoucherOrderService;
 import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
@@ -27,7 +35,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 
 /**
@@ -46,15 +56,26 @@ public class VoucherOrderServiceRedissonImpl extends ServiceImpl<VoucherOrderMap
     private RedissonClient redissonClient;
     @Resource
     private StringRedisTemplate stringRedisTemplate;
+    @Resource
+    private MeterRegistry meterRegistry;
+    @Resource
+    private SeckillActivityRegistry seckillActivityRegistry;
+    @Resource
+    private SeckillOrderTimeoutManager seckillOrderTimeoutManager;
 
     // 避免循环依赖，事务失效
     private volatile IVoucherOrderService proxy;
 
     // 阻塞队列
     private final BlockingQueue<VoucherOrder> orderTasks = new ArrayBlockingQueue<>(1024 * 1024);
-    // 避免使用公共 ForkJoinPool，异步任务有自己可观测、可限流的线程池
+    // 订单消费循环独占一个线程，不占用缓存重建线程池
     @Resource
-    private Executor cacheOpsExecutor;
+    private Executor orderConsumerExecutor;
+
+    // seckill.requests{result}：按秒杀脚本返回码统计，入队失败单独记为 queue_full
+    private final Map<String, Counter> seckillCounters = new HashMap<>();
+    // seckill.order.create：异步消费一笔订单（加锁 + 落库）的耗时
+    private Timer orderCreateTimer;
 
     private final DefaultRedisScript<Long> SECKILL_SCRIPT;
 
@@ -66,18 +87,26 @@ public class VoucherOrderServiceRedissonImpl extends ServiceImpl<VoucherOrderMap
 
     @PostConstruct
     private void init() {
-        CompletableFuture.runAsync(() -> {
-            while (true) {
+        for (String result : List.of("ok", "not_started", "ended", "info_missing", "no_stock", "duplicate", "queue_full")) {
+            seckillCounters.put(result, Counter.builder("seckill.requests").tag("result", result).register(meterRegistry));
+        }
+        orderCreateTimer = Timer.builder("seckill.order.create").publishPercentileHistogram().register(meterRegistry);
+        Gauge.builder("seckill.queue.depth", orderTasks, BlockingQueue::size).register(meterRegistry);
+        orderConsumerExecutor.execute(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
                 try {
                     // 1.获取队列中的订单信息
                     VoucherOrder voucherOrder = orderTasks.take();
                     // 2.创建订单
-                    handleVoucherOrder(voucherOrder);
+                    orderCreateTimer.record(() -> handleVoucherOrder(voucherOrder));
+                } catch (InterruptedException e) {
+                    // 停机时线程池中断消费线程
+                    Thread.currentThread().interrupt();
                 } catch (Exception e) {
                     log.error("处理订单异常", e);
                 }
             }
-        }, cacheOpsExecutor);
+        });
     }
 
     private void handleVoucherOrder(VoucherOrder voucherOrder) {
@@ -89,9 +118,11 @@ public class VoucherOrderServiceRedissonImpl extends ServiceImpl<VoucherOrderMap
         boolean locked = false;
         try {
             // arg1:锁等待重试实际 arg2:锁自动释放时间，watchdog自动续期
+            long lockStart = System.nanoTime();
             locked = lock.tryLock();
+            LockMetrics.recordAcquire("order", locked, lockStart);
             if (!locked) {
-                log.info("user:{} voucher:{} : 不允许重复下单！", userId, voucherOrder);
+                log.debug("user:{} voucher:{} : 不允许重复下单！", userId, voucherOrder);
                 return;
             }
             // 拿到锁后完成订单检测，库存扣减，下单
@@ -117,23 +148,31 @@ public class VoucherOrderServiceRedissonImpl extends ServiceImpl<VoucherOrderMap
     public Result seckillVoucher(Long voucherId) {
         // 获取用户
         Long userId = UserHolder.getUser().getId();
-        // 生成订单id
-        Long orderId = redisIdWorker.nextId("order");
-        // 用LUA对库存校验
-        Long result = stringRedisTemplate.execute(
-                SECKILL_SCRIPT,
-                Collections.emptyList(),
-                voucherId.toString(),
-                userId.toString(),
-                String.valueOf(orderId)
-        );
-
-        return switch (result.intValue()) {
-            case SeckillResultCodeConstants.NOT_STARTED -> Result.fail("抢购还未开始！");
-            case SeckillResultCodeConstants.ENDED -> Result.fail("抢购已经结束！");
-            case SeckillResultCodeConstants.INFO_MISSING -> Result.fail("秒杀活动信息不存在或已过期！");
-            case SeckillResultCodeConstants.NO_STOCK -> Result.fail("库存不足");
-            case SeckillResultCodeConstants.DUPLICATE -> Result.fail("不能重复下单");
+        // 本地判断活动时间窗口，未开始、已结束的请求不访问 Redis，也不消耗订单id
+        SeckillActivityRegistry.Activity activity = seckillActivityRegistry.get(voucherId);
+        int code = seckillActivityRegistry.check(activity);
+        Long orderId = null;
+        if (code == SeckillResultCodeConstants.SUCCESS) {
+            // 生成订单id
+            orderId = redisIdWorker.nextId("order");
+            // 用LUA对库存校验，时间窗口作为参数传入，边界附近以 Redis 时间为准
+            String tag = RedisConstants.tag(voucherId);
+            Long result = stringRedisTemplate.execute(
+                    SECKILL_SCRIPT,
+                    List.of(RedisConstants.SECKILL_STOCK_KEY + tag, RedisConstants.SECKILL_ORDER_KEY + tag, RedisConstants.SECKILL_INFO_KEY + tag),
+                    userId.toString(),
+                    String.valueOf(orderId),
+                    String.valueOf(activity.beginMillis()),
+                    String.valueOf(activity.endMillis())
+            );
+            code = result.intValue();
+        }
+        return switch (code) {
+            case SeckillResultCodeConstants.NOT_STARTED -> countSeckill("not_started", Result.fail("抢购还未开始！"));
+            case SeckillResultCodeConstants.ENDED -> countSeckill("ended", Result.fail("抢购已经结束！"));
+            case SeckillResultCodeConstants.INFO_MISSING -> countSeckill("info_missing", Result.fail("秒杀活动信息不存在或已过期！"));
+            case SeckillResultCodeConstants.NO_STOCK -> countSeckill("no_stock", Result.fail("库存不足"));
+            case SeckillResultCodeConstants.DUPLICATE -> countSeckill("duplicate", Result.fail("不能重复下单"));
             default -> {
                 // 保存订单到阻塞队列，
                 // TODO 用消息队列优化
@@ -141,23 +180,30 @@ public class VoucherOrderServiceRedissonImpl extends ServiceImpl<VoucherOrderMap
                 voucherOrder.setVoucherId(voucherId);
                 voucherOrder.setUserId(userId);
                 voucherOrder.setId(orderId);
-                voucherOrder.setStatus(1);
+                voucherOrder.setStatus(OrderStatusConstants.UNPAID);
                 proxy = (IVoucherOrderService) AopContext.currentProxy();
+                // 登记支付超时，超时未支付或最终没有落库都会归还库存
+                seckillOrderTimeoutManager.schedule(voucherId, userId, orderId);
                 // 当队列满了，消费速度跟不上，则等待重试，避免丢失订单信息
                 boolean offered = orderTasks.offer(voucherOrder);
                 if (!offered) {
-                    yield Result.fail("系统繁忙，请稍后再试");
+                    yield countSeckill("queue_full", Result.fail("系统繁忙，请稍后再试"));
                 }
-                yield Result.ok(orderId);
+                yield countSeckill("ok", Result.ok(orderId));
             }
         };
 
     }
 
+    private Result countSeckill(String result, Result response) {
+        seckillCounters.get(result).increment();
+        return response;
+    }
+
     @Transactional
     public Result createVoucherOrder(Long userId, Long voucherId, Long orderId) {
-        // 4.判断用户是否购买
-        Long count = query().eq("user_id", userId).eq("voucher_id", voucherId).count();
+        // 4.判断用户是否购买，已取消的订单不算
+        long count = count(VoucherOrderMapper.activeOrders(userId, voucherId));
         if (count > 0) {
             return Result.fail("用户已经购买！");
         }
@@ -177,7 +223,7 @@ public class VoucherOrderServiceRedissonImpl extends ServiceImpl<VoucherOrderMap
         voucherOrder.setVoucherId(voucherId);
         voucherOrder.setUserId(userId);
         save(voucherOrder);
-        log.info("user:{} voucher:{} : 下单成功！", userId, voucherOrder);
+        log.debug("user:{} voucher:{} : 下单成功！", userId, voucherOrder);
         return Result.ok(voucherOrder.getId());
     }
 }
@@ -5,22 +5,21 @@ import com.zwz5.common.lock.SimpleRedisLock;
 import com.zwz5.common.redis.RedisIdWorker;
 import com.zwz5.common.result.Result;
 import com.zwz5.common.utils.UserHolder;
-import com.zwz5.pojo.entity.SeckillVoucher;
+import com.zwz5.constants.SeckillResultCodeConstants;
+import com.zwz5.manager.SeckillActivityRegistry;
+import com.zwz5.manager.SeckillOrderTimeoutManager;
 import com.zwz5.pojo.entity.VoucherOrder;
 import com.zwz5.mapper.VoucherOrderMapper;
 import com.zwz5.service.ISeckillVoucherService;
 import com.zwz5.service.IVoucherOrderService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import jakarta.annotation.Resource;
-import lombok.Synchronized;
 import org.springframework.aop.framework.AopContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-
 /**
  * 优惠卷秒杀 方案一
  * 基于SetNX实现的分布式锁
@@ -34,6 +33,10 @@ public class VoucherOrderServiceSetNxLuaImpl extends ServiceImpl<VoucherOrderMap
     private RedisIdWorker redisIdWorker;
     @Resource
     private StringRedisTemplate stringRedisTemplate;
+    @Resource
+    private SeckillActivityRegistry seckillActivityRegistry;
+    @Resource
+    private SeckillOrderTimeoutManager seckillOrderTimeoutManager;
 
     /**
      * 秒杀优惠卷抢购实现
@@ -44,20 +47,22 @@ public class VoucherOrderServiceSetNxLuaImpl extends ServiceImpl<VoucherOrderMap
     @Override
     public Result seckillVoucher(Long voucherId) {
         Long userId = UserHolder.getUser().getId();
-        // 1.判断优惠卷是否存在
-        SeckillVoucher voucher = seckillVoucherService.getById(voucherId);
-        if (voucher == null) {
-            return Result.fail("没有优惠卷");
-        }
-        // 2.判断优惠卷是否开始或结束
-        if (voucher.getBeginTime().isAfter(LocalDateTime.now())) {
-            return Result.fail("抢购还未开始！");
-        }
-        if (voucher.getEndTime().isBefore(LocalDateTime.now())) {
-            return Result.fail("抢购已经结束！");
+        // 1.判断优惠卷是否存在，是否开始或结束，使用进程内的活动时间窗口，不逐个请求查库
+        switch (seckillActivityRegistry.check(seckillActivityRegistry.get(voucherId))) {
+            case SeckillResultCodeConstants.INFO_MISSING -> {
+                return Result.fail("没有优惠卷");
+            }
+            case SeckillResultCodeConstants.NOT_STARTED -> {
+                return Result.fail("抢购还未开始！");
+            }
+            case SeckillResultCodeConstants.ENDED -> {
+                return Result.fail("抢购已经结束！");
+            }
+            default -> {
+            }
         }
-        // 3.判断优惠卷库存是否足够
-        if (voucher.getStock() < 1) {
+        // 2.本实例最近扣减失败的秒杀券不再抢锁、开事务，库存仍由条件扣减 stock > 0 保证
+        if (seckillActivityRegistry.isSoldOut(voucherId)) {
             return Result.fail("库存不足！");
         }
 
@@ -86,8 +91,8 @@ public class VoucherOrderServiceSetNxLuaImpl extends ServiceImpl<VoucherOrderMap
 
     @Transactional
     public Result createVoucherOrder(Long userId, Long voucherId, Long orderId) {
-        // 4.判断用户是否购买
-        Long count = query().eq("user_id", userId).eq("voucher_id", voucherId).count();
+        // 4.判断用户是否购买，已取消的订单不算
+        long count = count(VoucherOrderMapper.activeOrders(userId, voucherId));
         if (count > 0) {
             return Result.fail("用户已经购买！");
         }
@@ -99,6 +104,7 @@ public class VoucherOrderServiceSetNxLuaImpl extends ServiceImpl<VoucherOrderMap
                 .gt("stock", 0)   // 关键：stock > 0
                 .update();
         if (!success) {
+            seckillActivityRegistry.markSoldOut(voucherId);
             return Result.fail("库存不足！");
         }
         // 6.增加订单
@@ -107,6 +113,8 @@ public class VoucherOrderServiceSetNxLuaImpl extends ServiceImpl<VoucherOrderMap
         voucherOrder.setVoucherId(voucherId);
         voucherOrder.setUserId(userId);
         save(voucherOrder);
+        // 登记支付超时
+        seckillOrderTimeoutManager.schedule(voucherId, userId, orderId);
         return Result.ok(voucherOrder.getId());
     }
 }
@@ -2,22 +2,31 @@ package com.zwz5.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.zwz5.common.cache.RedissonCacheClient;
+import com.zwz5.common.redis.RedisBatch;
 import com.zwz5.common.result.Result;
 import com.zwz5.constants.RedisConstants;
+import com.zwz5.manager.ResponseCacheManager;
+import com.zwz5.manager.SeckillActivityRegistry;
 import com.zwz5.pojo.entity.Voucher;
 import com.zwz5.mapper.VoucherMapper;
 import com.zwz5.pojo.entity.SeckillVoucher;
 import com.zwz5.service.ISeckillVoucherService;
 import com.zwz5.service.IVoucherService;
 import jakarta.annotation.Resource;
+import org.springframework.data.redis.connection.RedisStringCommands;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -37,6 +46,10 @@ public class VoucherServiceImpl extends ServiceImpl<VoucherMapper, Voucher> impl
     private StringRedisTemplate stringRedisTemplate;
     @Resource
     private RedissonCacheClient cacheClient;
+    @Resource
+    private ResponseCacheManager responseCacheManager;
+    @Resource
+    private SeckillActivityRegistry seckillActivityRegistry;
 
     @Override
     public Result queryVoucherOfShop(Long shopId) {
@@ -59,7 +72,7 @@ public class VoucherServiceImpl extends ServiceImpl<VoucherMapper, Voucher> impl
             for (Voucher voucher : vouchers) {
                 // 只处理秒杀券
                 if (voucher.getType() != null && voucher.getType() == 1) {
-                    String stockKey = RedisConstants.SECKILL_STOCK_KEY + voucher.getId();
+                    String stockKey = RedisConstants.SECKILL_STOCK_KEY + RedisConstants.tag(voucher.getId());
                     String stockStr = stringRedisTemplate.opsForValue().get(stockKey);
 
                     if (stockStr != null) {
@@ -97,33 +110,37 @@ public class VoucherServiceImpl extends ServiceImpl<VoucherMapper, Voucher> impl
         seckillVoucher.setBeginTime(voucher.getBeginTime());
         seckillVoucher.setEndTime(voucher.getEndTime());
         seckillVoucherService.save(seckillVoucher);
-        // 保存库存信息到Redis中
-        String stockKey = RedisConstants.SECKILL_STOCK_KEY + seckillVoucher.getVoucherId();
-        stringRedisTemplate.opsForValue().set(stockKey, seckillVoucher.getStock().toString());
-        // 保存优惠卷活动时间
-        String infoKey = RedisConstants.SECKILL_INFO_KEY + seckillVoucher.getVoucherId();
+        // 库存与活动信息在秒杀结束时间后自动过期
+        String stockKey = RedisConstants.SECKILL_STOCK_KEY + RedisConstants.tag(seckillVoucher.getVoucherId());
+        String infoKey = RedisConstants.SECKILL_INFO_KEY + RedisConstants.tag(seckillVoucher.getVoucherId());
         long beginMillis = voucher.getBeginTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
         long endMillis = voucher.getEndTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
-        stringRedisTemplate.opsForHash().put(infoKey, "beginTime", String.valueOf(beginMillis));
-        stringRedisTemplate.opsForHash().put(infoKey, "endTime", String.valueOf(endMillis));
-
-        // 删除对应店铺的优惠卷缓存
+        long ttlSeconds = Duration.between(LocalDateTime.now(), voucher.getEndTime()).getSeconds();
         Long shopId = voucher.getShopId();
-        stringRedisTemplate.delete(RedisConstants.CACHE_SHOP_VOUCHER_KEY + ":" + shopId);
-
-        // 为库存 key 设置过期时间：在秒杀结束时间后自动过期
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime endTime = voucher.getEndTime();
-
-        if (endTime.isAfter(now)) {
-            long ttlSeconds = java.time.Duration.between(now, endTime).getSeconds();
-            // Redis 里设置过期时间（库存 & 活动信息）
-            stringRedisTemplate.expire(stockKey, ttlSeconds, java.util.concurrent.TimeUnit.SECONDS);
-            stringRedisTemplate.expire(infoKey, ttlSeconds, java.util.concurrent.TimeUnit.SECONDS);
+        // 以下命令相互独立，合并为一次 pipeline
+        RedisBatch batch = RedisBatch.of(stringRedisTemplate);
+        if (ttlSeconds > 0) {
+            // 保存库存信息与优惠卷活动时间到Redis中
+            batch.add(conn -> conn.set(stockKey, seckillVoucher.getStock().toString(),
+                    Expiration.seconds(ttlSeconds), RedisStringCommands.SetOption.upsert()));
+            batch.add(conn -> conn.hMSet(infoKey, Map.of(
+                    "beginTime", String.valueOf(beginMillis),
+                    "endTime", String.valueOf(endMillis))));
+            batch.add(conn -> conn.expire(infoKey, ttlSeconds));
         } else {
-            // 理论上不会走到这里：如果 endTime 已经过期，可以选择直接删除 key
-            stringRedisTemplate.delete(stockKey);
-            stringRedisTemplate.delete(infoKey);
+            // 理论上不会走到这里：endTime 已经过期则不写入，并清理可能残留的旧数据
+            batch.add(conn -> conn.del(stockKey, infoKey));
         }
+        // 删除对应店铺的优惠卷缓存
+        batch.add(conn -> conn.del(RedisConstants.CACHE_SHOP_VOUCHER_KEY + ":" + shopId));
+        batch.flush();
+        responseCacheManager.evict("/voucher/list/" + shopId);
+        // 提交后登记活动时间窗口并通知其他实例
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                seckillActivityRegistry.publish(seckillVoucher);
+            }
+        });
     }
 }
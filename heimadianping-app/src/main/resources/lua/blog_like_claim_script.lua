@@ -0,0 +1,19 @@
+-- KEYS[1] 待回写分片 blog:like:dirty:{slotTag}
+-- KEYS[2] 同一分片的回写中集合 blog:like:flushing:{slotTag}
+-- ARGV[1] 单批数量
+-- 返回 [blogId1, score1, blogId2, score2, ...]
+local batchSize = tonumber(ARGV[1])
+
+-- 1.上一批未确认完成（进程崩溃或DB写入失败），优先重放
+local pending = redis.call('zrange', KEYS[2], 0, batchSize - 1, 'WITHSCORES')
+if #pending > 0 then
+    return pending
+end
+
+-- 2.从待回写集合中领取一批，原样迁移到回写中集合
+local items = redis.call('zrange', KEYS[1], 0, batchSize - 1, 'WITHSCORES')
+for i = 1, #items, 2 do
+    redis.call('zadd', KEYS[2], items[i + 1], items[i])
+    redis.call('zrem', KEYS[1], items[i])
+end
+return items
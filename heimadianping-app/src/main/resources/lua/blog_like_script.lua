@@ -0,0 +1,40 @@
+-- 1.参数列表
+-- 1.1.用户id
+local userId = ARGV[1]
+-- 1.2.当前毫秒时间戳
+local nowMillis = ARGV[2]
+-- 1.3.博客id
+local blogId = ARGV[3]
+
+-- 2.数据key，以 {blogId} 为 hashtag，集群模式下位于同一个槽
+-- 2.1.点赞用户集合 blog:liked:{blogId}
+local likedKey = KEYS[1]
+-- 2.2.点赞计数 blog:like:count:{blogId}
+local countKey = KEYS[2]
+-- 2.3.与点赞数据同槽的待回写分片 blog:like:dirty:{slotTag}
+local dirtyKey = KEYS[3]
+
+-- 3.脚本业务
+-- 3.1.计数未初始化，交给调用方用DB点赞数初始化后重试
+if redis.call('exists', countKey) == 0 then
+    return -1
+end
+
+local result
+-- 3.2.已点赞则取消点赞，计数不小于0
+if redis.call('zscore', likedKey, userId) then
+    redis.call('zrem', likedKey, userId)
+    if tonumber(redis.call('get', countKey)) > 0 then
+        redis.call('decr', countKey)
+    end
+    result = 0
+else
+    -- 3.3.未点赞则点赞，点赞时间作为排序score
+    redis.call('zadd', likedKey, nowMillis, userId)
+    redis.call('incr', countKey)
+    result = 1
+end
+
+-- 3.4.标记待回写，NX 保留首次变更时间用于统计回写延迟
+redis.call('zadd', dirtyKey, 'NX', nowMillis, blogId)
+return result
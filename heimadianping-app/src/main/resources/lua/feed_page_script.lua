@@ -0,0 +1,76 @@
+-- 按 (score desc, blogId desc) 复合游标读取收件箱的一页
+-- KEYS[1] 收件箱 feed:{userId}
+-- ARGV[1] 游标 score（上一页最后一条的时间戳，首页传当前时间）
+-- ARGV[2] 游标 blogId（上一页最后一条的博客id，首页传空串）
+-- ARGV[3] 页大小
+-- 返回 [blogId1, score1, blogId2, score2, ...]
+local key = KEYS[1]
+local maxScore = ARGV[1]
+local lastId = tonumber(ARGV[2])
+local size = tonumber(ARGV[3])
+
+-- ZSET 同分成员按字典序排列，与数字id顺序不一致，这里统一按数字id降序
+local function sortGroup(members)
+    table.sort(members, function(a, b)
+        return tonumber(a) > tonumber(b)
+    end)
+    return members
+end
+
+local result = {}
+
+-- 1.游标所在分数的同分组：只取 id 小于游标 id 的成员
+local start = maxScore
+if lastId then
+    local ties = sortGroup(redis.call('zrangebyscore', key, maxScore, maxScore))
+    for _, member in ipairs(ties) do
+        if #result >= size * 2 then
+            return result
+        end
+        if tonumber(member) < lastId then
+            table.insert(result, member)
+            table.insert(result, maxScore)
+        end
+    end
+    start = '(' .. maxScore
+end
+
+-- 2.继续向更早的分数读取
+local need = size - #result / 2
+if need <= 0 then
+    return result
+end
+local items = redis.call('zrevrangebyscore', key, start, '-inf', 'WITHSCORES', 'LIMIT', 0, need)
+if #items == 0 then
+    return result
+end
+
+-- 3.最后一个分数的同分组可能被 LIMIT 截断，单独读取完整分组再排序截取
+local boundary = items[#items]
+local groups = {}
+local order = {}
+for i = 1, #items, 2 do
+    local score = items[i + 1]
+    if score ~= boundary then
+        if not groups[score] then
+            groups[score] = {}
+            table.insert(order, score)
+        end
+        table.insert(groups[score], items[i])
+    end
+end
+for _, score in ipairs(order) do
+    for _, member in ipairs(sortGroup(groups[score])) do
+        table.insert(result, member)
+        table.insert(result, score)
+    end
+end
+local boundaryGroup = sortGroup(redis.call('zrangebyscore', key, boundary, boundary))
+for _, member in ipairs(boundaryGroup) do
+    if #result >= size * 2 then
+        break
+    end
+    table.insert(result, member)
+    table.insert(result, boundary)
+end
+return result
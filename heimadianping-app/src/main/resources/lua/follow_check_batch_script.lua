@@ -0,0 +1,7 @@
+-- KEYS[1] 关注集合 follows:{userId}
+-- ARGV 待判断的用户id列表
+-- 返回 {-1} 集合未加载；否则按 ARGV 顺序返回 1 已关注 / 0 未关注
+if redis.call('exists', KEYS[1]) == 0 then
+    return {-1}
+end
+return redis.call('smismember', KEYS[1], unpack(ARGV))
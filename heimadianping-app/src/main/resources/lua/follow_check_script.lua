@@ -0,0 +1,7 @@
+-- KEYS[1] 关注集合 follows:{userId}
+-- ARGV[1] 被关注用户id
+-- 返回 -1 集合未加载；1 已关注；0 未关注
+if redis.call('exists', KEYS[1]) == 0 then
+    return -1
+end
+return redis.call('sismember', KEYS[1], ARGV[1])
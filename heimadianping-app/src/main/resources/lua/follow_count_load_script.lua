@@ -0,0 +1,9 @@
+-- 初始化关注/粉丝计数，已存在则不覆盖
+-- KEYS[1] 计数 follow:count:{userId}
+-- ARGV[1] 关注数
+-- ARGV[2] 粉丝数
+if redis.call('exists', KEYS[1]) == 1 then
+    return 0
+end
+redis.call('hset', KEYS[1], 'follows', ARGV[1], 'fans', ARGV[2])
+return 1
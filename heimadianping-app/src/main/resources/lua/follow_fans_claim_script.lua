@@ -0,0 +1,18 @@
+-- KEYS[1] 粉丝数待重算分片 follow:fans:dirty:{slotTag}
+-- KEYS[2] 同一分片的重算中集合 follow:fans:flushing:{slotTag}
+-- ARGV[1] 单批数量
+-- 返回 [userId1, userId2, ...]
+local batchSize = tonumber(ARGV[1])
+
+-- 1.上一批未确认完成（进程崩溃或写入被跳过），优先重放
+local pending = redis.call('srandmember', KEYS[2], batchSize)
+if #pending > 0 then
+    return pending
+end
+
+-- 2.从待重算分片中领取一批，迁移到重算中集合
+local items = redis.call('spop', KEYS[1], batchSize)
+if #items > 0 then
+    redis.call('sadd', KEYS[2], unpack(items))
+end
+return items
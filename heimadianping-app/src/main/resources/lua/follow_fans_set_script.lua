@@ -0,0 +1,16 @@
+-- 用数据库计数覆盖粉丝数，读取数据库后版本有变化则放弃
+-- KEYS[1] 计数 follow:count:{userId}
+-- KEYS[2] 变更版本 follow:ver:{userId}
+-- ARGV[1] 读取数据库前的版本号，不存在为 0
+-- ARGV[2] 粉丝数
+-- 返回 1 已处理；0 版本已变化，留待下次重算
+if (redis.call('get', KEYS[2]) or '0') ~= ARGV[1] then
+    return 0
+end
+-- 让读库更早的全量重建或其他实例的重算放弃覆盖
+redis.call('incr', KEYS[2])
+-- 计数未初始化时不处理，下次读取时从数据库加载
+if redis.call('exists', KEYS[1]) == 1 then
+    redis.call('hset', KEYS[1], 'fans', ARGV[2])
+end
+return 1
@@ -0,0 +1,12 @@
+-- 从数据库加载关注集合，已存在则不覆盖（可能已有更新的增量写入）
+-- KEYS[1] 关注集合 follows:{userId}
+-- ARGV 占位成员 + 全部被关注用户id
+if redis.call('exists', KEYS[1]) == 1 then
+    return 0
+end
+-- 分段写入，避免 unpack 参数过多
+local step = 500
+for i = 1, #ARGV, step do
+    redis.call('sadd', KEYS[1], unpack(ARGV, i, math.min(i + step - 1, #ARGV)))
+end
+return 1
@@ -0,0 +1,19 @@
+-- 用数据库快照覆盖关注集合与计数，读取快照后有增量写入则放弃
+-- KEYS[1] 关注集合 follows:{userId}
+-- KEYS[2] 计数 follow:count:{userId}
+-- KEYS[3] 变更版本 follow:ver:{userId}
+-- ARGV[1] 读取数据库前的版本号，不存在为 0
+-- ARGV[2] 粉丝数
+-- ARGV[3..] 占位成员 + 全部被关注用户id
+-- 返回 1 已覆盖；0 版本已变化，保留增量维护的数据
+if (redis.call('get', KEYS[3]) or '0') ~= ARGV[1] then
+    return 0
+end
+redis.call('del', KEYS[1])
+-- 分段写入，避免 unpack 参数过多
+local step = 500
+for i = 3, #ARGV, step do
+    redis.call('sadd', KEYS[1], unpack(ARGV, i, math.min(i + step - 1, #ARGV)))
+end
+redis.call('hset', KEYS[2], 'follows', #ARGV - 3, 'fans', ARGV[2])
+return 1
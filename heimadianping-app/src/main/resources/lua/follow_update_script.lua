@@ -0,0 +1,31 @@
+-- 关注/取关后同步关注集合与当前用户的关注数
+-- KEYS[1] 关注集合 follows:{userId}
+-- KEYS[2] 当前用户计数 follow:count:{userId}
+-- KEYS[3] 当前用户变更版本 follow:ver:{userId}
+-- KEYS[4] 与关注集合同槽的粉丝数待重算分片 follow:fans:dirty:{slotTag}
+-- ARGV[1] 被关注用户id
+-- ARGV[2] 1 关注；-1 取关
+-- 被关注用户的粉丝数在另一个槽，这里只把对方记入待重算分片，由重算任务按数据库计数写入
+local delta = tonumber(ARGV[2])
+
+-- 1.只有集合确实发生变化才调整计数，重复调用不会重复计数
+local changed = 1
+if redis.call('exists', KEYS[1]) == 1 then
+    if delta > 0 then
+        changed = redis.call('sadd', KEYS[1], ARGV[1])
+    else
+        changed = redis.call('srem', KEYS[1], ARGV[1])
+    end
+end
+if changed == 0 then
+    return 0
+end
+-- 让进行中的全量重建放弃覆盖
+redis.call('incr', KEYS[3])
+redis.call('sadd', KEYS[4], ARGV[1])
+
+-- 2.计数未初始化时不处理，下次读取时从数据库加载
+if redis.call('exists', KEYS[2]) == 1 then
+    redis.call('hincrby', KEYS[2], 'follows', delta)
+end
+return 1
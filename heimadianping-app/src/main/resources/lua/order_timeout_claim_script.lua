@@ -0,0 +1,12 @@
+-- 领取一批已超时的订单
+-- KEYS[1] 超时队列 seckill:timeout
+-- ARGV[1] 当前毫秒时间戳
+-- ARGV[2] 单批数量
+-- ARGV[3] 租约时长（毫秒）
+-- 领取的成员不删除，score 推迟一个租约：处理成功后由调用方删除，进程崩溃则租约到期后被重新领取
+local now = tonumber(ARGV[1])
+local items = redis.call('zrangebyscore', KEYS[1], '-inf', now, 'LIMIT', 0, tonumber(ARGV[2]))
+for i = 1, #items do
+    redis.call('zadd', KEYS[1], now + tonumber(ARGV[3]), items[i])
+end
+return items
@@ -0,0 +1,26 @@
+-- 取消订单后归还秒杀资格与库存
+-- KEYS[1] 库存key seckill:stock:{voucherId}
+-- KEYS[2] 订单key seckill:order:{voucherId}
+-- KEYS[3] 已归还订单key seckill:restored:{voucherId}
+-- ARGV[1] 用户id
+-- ARGV[2] 订单id
+-- ARGV[3] 已归还标记的最短保留秒数
+-- 按订单id记录是否已归还，同一订单重复执行不会重复加库存；
+-- 不能只看用户是否仍在下单集合中：取消后允许重新购买，用户可能已经以新订单重新进入集合
+if redis.call('sadd', KEYS[3], ARGV[2]) == 0 then
+    return 0
+end
+-- 标记至少保留到活动结束（库存key过期）
+local ttl = math.max(redis.call('ttl', KEYS[1]), tonumber(ARGV[3]))
+if redis.call('ttl', KEYS[3]) < ttl then
+    redis.call('expire', KEYS[3], ttl)
+end
+-- 用户不在下单集合中说明 Redis 库存没有为该订单扣减（如直接落库的下单方式）
+if redis.call('srem', KEYS[2], ARGV[1]) == 0 then
+    return 0
+end
+-- 活动结束后库存key已过期，不再恢复
+if redis.call('exists', KEYS[1]) == 1 then
+    redis.call('incrby', KEYS[1], 1)
+end
+return 1
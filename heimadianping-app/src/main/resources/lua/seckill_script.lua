@@ -1,24 +1,26 @@
 -- 1.参数列表
--- 1.1.优惠券id
-local voucherId = ARGV[1]
--- 1.2.用户id
-local userId = ARGV[2]
--- 1.3.订单id
-local orderId = ARGV[3]
+-- 1.1.用户id
+local userId = ARGV[1]
+-- 1.2.订单id
+local orderId = ARGV[2]
+-- 1.3.活动开始、结束时间（毫秒），由调用方从进程内的活动窗口传入；未传入时读取活动信息key
+local beginTime = ARGV[3]
+local endTime = ARGV[4]
 
--- 2.数据key
--- 2.1.库存key
-local stockKey = 'seckill:stock:' .. voucherId
--- 2.2.订单key
-local orderKey = 'seckill:order:' .. voucherId
--- 2.3.活动信息key（Hash：beginTime/endTime，单位毫秒）
-local infoKey = 'seckill:info:' .. voucherId
+-- 2.数据key，三个 key 以 {voucherId} 为 hashtag，集群模式下位于同一个槽
+-- 2.1.库存key seckill:stock:{voucherId}
+local stockKey = KEYS[1]
+-- 2.2.订单key seckill:order:{voucherId}
+local orderKey = KEYS[2]
+-- 2.3.活动信息key（Hash：beginTime/endTime，单位毫秒）seckill:info:{voucherId}
+local infoKey = KEYS[3]
 
 -- 3.脚本业务
--- 3.1.判断库存是否开始或结束
 -- 3.1.判断秒杀是否开始或结束（统一使用Redis服务器时间，避免多JVM时间漂移）
-local beginTime = redis.call('hget', infoKey, 'beginTime')
-local endTime = redis.call('hget', infoKey, 'endTime')
+if (not beginTime) or (not endTime) then
+    beginTime = redis.call('hget', infoKey, 'beginTime')
+    endTime = redis.call('hget', infoKey, 'endTime')
+end
 if (not beginTime) or (not endTime) then
     -- 活动信息不存在（可能未预热/已过期/配置错误）
     return -3
@@ -37,8 +39,12 @@ end
 
 -- 3.2.判断库存是否充足
 local stock = redis.call('get', stockKey)
-if (not stock) or (tonumber(stock) <= 0) then
-    -- 库存不足/未预热库存
+if not stock then
+    -- 库存未预热或已丢失（Redis 重启、被淘汰），与活动信息缺失一样由对账任务补齐
+    return -3
+end
+if tonumber(stock) <= 0 then
+    -- 库存不足
     return 1
 end
 
@@ -0,0 +1,28 @@
+-- 1.参数列表
+-- 1.1.位偏移（几号 - 1）
+local offset = ARGV[1]
+-- 1.2.是否补签 1/0
+local isBackup = ARGV[2]
+-- 1.3.待持久化记录 userId:yyyyMM
+local record = ARGV[3]
+
+-- 2.数据key，以 {userId} 为 hashtag，集群模式下位于同一个槽
+-- 2.1.签到位图 sign:{userId}:{yyyyMM}
+local signKey = KEYS[1]
+-- 2.2.补签位图 sign:backup:{userId}:{yyyyMM}
+local backupKey = KEYS[2]
+-- 2.3.与位图同槽的待持久化分片 sign:pending:{slotTag}
+local pendingKey = KEYS[3]
+
+-- 3.脚本业务
+-- 3.1.SETBIT 返回旧值，已签到直接返回
+if redis.call('setbit', signKey, offset, 1) == 1 then
+    return 0
+end
+-- 3.2.补签额外记录到补签位图
+if isBackup == '1' then
+    redis.call('setbit', backupKey, offset, 1)
+end
+-- 3.3.标记当月记录待持久化
+redis.call('sadd', pendingKey, record)
+return 1
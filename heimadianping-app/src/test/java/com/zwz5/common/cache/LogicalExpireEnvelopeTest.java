@@ -0,0 +1,68 @@
+package com.zwz5.common.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.zwz5.common.redis.RedisData;
+import com.zwz5.common.result.RawJsonResult;
+import com.zwz5.common.result.Result;
+import com.zwz5.config.RawJsonResultConverter;
+import com.zwz5.pojo.entity.Shop;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogicalExpireEnvelopeTest {
+
+    // 与 Spring 全局配置一致：ISO 日期、忽略 null 字段
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private Shop shop() {
+        return new Shop().setId(1L).setName("103茶餐厅").setTypeId(1L).setArea("大关").setScore(37)
+                .setCreateTime(LocalDateTime.of(2021, 12, 22, 18, 10, 39));
+    }
+
+    @Test
+    void locatesDataBytes() throws Exception {
+        LocalDateTime expireTime = LocalDateTime.now().plusMinutes(30);
+        byte[] json = objectMapper.writeValueAsBytes(RedisData.builder().expireTime(expireTime).data(shop()).build());
+
+        LogicalExpireEnvelope.Parsed parsed = LogicalExpireEnvelope.parse(json);
+        assertNotNull(parsed);
+        assertEquals(expireTime, parsed.expireTime());
+        assertTrue(parsed.isValid(LocalDateTime.now()));
+        byte[] data = Arrays.copyOfRange(json, parsed.dataOffset(), parsed.dataOffset() + parsed.dataLength());
+        assertEquals(objectMapper.writeValueAsString(shop()), new String(data, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void splicedResponseMatchesJackson() throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(
+                RedisData.builder().expireTime(LocalDateTime.now().plusMinutes(30)).data(shop()).build());
+        LogicalExpireEnvelope.Parsed parsed = LogicalExpireEnvelope.parse(json);
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        new RawJsonResultConverter().write(
+                RawJsonResult.ok(json, parsed.dataOffset(), parsed.dataLength()), MediaType.APPLICATION_JSON, output);
+        assertEquals(objectMapper.writeValueAsString(Result.ok(shop())), output.getBodyAsString(StandardCharsets.UTF_8));
+        assertEquals(output.getBodyAsBytes().length, output.getHeaders().getContentLength());
+    }
+
+    @Test
+    void unrecognizedEnvelopeFallsBack() {
+        assertNull(LogicalExpireEnvelope.parse("{\"data\":{\"id\":1}}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(LogicalExpireEnvelope.parse("{\"expireTime\":[2025,1,1,0,0],\"data\":{}}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(LogicalExpireEnvelope.parse("{\"expireTime\":\"2025-01-01T00:00:00\",\"data\":\"x\"}".getBytes(StandardCharsets.UTF_8)));
+        assertNull(LogicalExpireEnvelope.parse("not json".getBytes(StandardCharsets.UTF_8)));
+    }
+}
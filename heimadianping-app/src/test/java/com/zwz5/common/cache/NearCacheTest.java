@@ -0,0 +1,80 @@
+package com.zwz5.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearCacheTest {
+
+    @Test
+    void servesFromMemoryUntilInvalidated() {
+        AtomicReference<String> redis = new AtomicReference<>("v1");
+        AtomicInteger loads = new AtomicInteger();
+        NearCache cache = new NearCache(100, 60_000);
+
+        assertEquals("v1", cache.get("cache:shop:1", k -> {
+            loads.incrementAndGet();
+            return redis.get();
+        }));
+        redis.set("v2");
+        assertEquals("v1", cache.get("cache:shop:1", k -> redis.get()));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+
+        cache.invalidate(List.of("cache:shop:1"));
+        assertEquals("v2", cache.get("cache:shop:1", k -> redis.get()));
+    }
+
+    @Test
+    void dropsValueLoadedWhileInvalidationArrives() {
+        NearCache cache = new NearCache(100, 60_000);
+        // 加载期间收到失效通知，读到的值可能已经过时，不能留在本地
+        assertEquals("old", cache.get("cache:shop:1", k -> {
+            cache.invalidate(List.of(k));
+            return "old";
+        }));
+        assertEquals(0, cache.size());
+        assertEquals("new", cache.get("cache:shop:1", k -> "new"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void evictsUnreferencedEntryWhenFullAndSkipsNull() {
+        NearCache cache = new NearCache(2, 60_000);
+        cache.get("a", k -> "1");
+        cache.get("b", k -> "2");
+        // a 被访问过，满了以后淘汰没有访问标记的 b
+        cache.get("a", k -> "x");
+        assertEquals("3", cache.get("c", k -> "3"));
+        assertEquals(2, cache.size());
+        assertEquals("1", cache.get("a", k -> "x"));
+        assertEquals("3", cache.get("c", k -> "x"));
+        assertEquals("y", cache.get("b", k -> "y"));
+        assertEquals(2, cache.size());
+
+        assertNull(cache.get("d", k -> null));
+        assertEquals(2, cache.size());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsExpiredEntryFirst() throws InterruptedException {
+        NearCache cache = new NearCache(2, 100);
+        cache.get("a", k -> "1");
+        cache.get("a", k -> "x");
+        Thread.sleep(150);
+        cache.get("c", k -> "3");
+        cache.get("c", k -> "x");
+        // a 已过期，即使有访问标记也先被淘汰
+        cache.get("d", k -> "4");
+        assertEquals(2, cache.size());
+        assertEquals("3", cache.get("c", k -> "x"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.zwz5.common.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.zwz5.common.metrics.CacheMetrics;
+import com.zwz5.common.redis.RedisData;
+import com.zwz5.common.redis.RedisNearCache;
+import com.zwz5.common.utils.JsonUtils;
+import com.zwz5.pojo.entity.Shop;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.zwz5.constants.RedisConstants.CACHE_SHOP_KEY;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisCacheClientTest {
+
+    // 与 Spring 全局配置一致：按构造参数名反序列化 RedisData、ISO 日期、忽略 null 字段
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new ParameterNamesModule())
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private final Map<String, String> redis = new HashMap<>();
+    private final AtomicInteger gets = new AtomicInteger();
+    private RedisNearCache nearCache;
+    private RedisCacheClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 只实现 GET 的 Redis，统计实际访问 Redis 的次数
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, String> ops = (ValueOperations<String, String>) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{ValueOperations.class}, (proxy, method, args) -> {
+                    if ("get".equals(method.getName()) && args.length == 1) {
+                        gets.incrementAndGet();
+                        return redis.get((String) args[0]);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        StringRedisTemplate template = new StringRedisTemplate() {
+            @Override
+            public ValueOperations<String, String> opsForValue() {
+                return ops;
+            }
+        };
+        // tracking 已开启的近端缓存，前缀使用默认配置
+        nearCache = new RedisNearCache(template, null, null, null);
+        ReflectionTestUtils.setField(nearCache, "cache", new NearCache(100, TimeUnit.MINUTES.toMillis(1)));
+        ReflectionTestUtils.setField(nearCache, "prefixes", new String[]{
+                "cache:shop:1", "cache:shop:2", "cache:shop:3", "cache:shop:4", "cache:shop:5",
+                "cache:shop:6", "cache:shop:7", "cache:shop:8", "cache:shop:9"});
+        ReflectionTestUtils.setField(nearCache, "tracking", true);
+        client = new RedisCacheClient(template, new JsonUtils(objectMapper), Runnable::run,
+                new CacheMetrics(new SimpleMeterRegistry()), null, nearCache);
+
+        Shop shop = new Shop().setId(1L).setName("103茶餐厅");
+        redis.put(CACHE_SHOP_KEY + 1, objectMapper.writeValueAsString(
+                RedisData.builder().data(shop).expireTime(LocalDateTime.now().plusMinutes(30)).build()));
+    }
+
+    @Test
+    void logicalExpireReadsServedByNearCache() {
+        Shop first = client.queryWithLogicalExpire(CACHE_SHOP_KEY, 1L, Shop.class, id -> fail("db"), 30L, TimeUnit.MINUTES);
+        Shop second = client.queryWithLogicalExpire(CACHE_SHOP_KEY, 1L, Shop.class, id -> fail("db"), 30L, TimeUnit.MINUTES);
+        RawJson raw = client.queryRawWithLogicalExpire(CACHE_SHOP_KEY, 1L, Shop.class, id -> fail("db"), 30L, TimeUnit.MINUTES);
+
+        assertEquals("103茶餐厅", first.getName());
+        assertEquals("103茶餐厅", second.getName());
+        String data = new String(raw.bytes(), raw.offset(), raw.length(), StandardCharsets.UTF_8);
+        assertTrue(data.contains("103茶餐厅"));
+        // 三次读取只有第一次访问 Redis
+        assertEquals(1, gets.get());
+    }
+
+    @Test
+    void defaultPrefixesCoverOnlyShopDetail() {
+        assertTrue(nearCache.covers(CACHE_SHOP_KEY + 1));
+        assertTrue(nearCache.covers(CACHE_SHOP_KEY + 90));
+        assertFalse(nearCache.covers("cache:shop:geo:1"));
+        assertFalse(nearCache.covers("cache:shop:voucher1"));
+    }
+}
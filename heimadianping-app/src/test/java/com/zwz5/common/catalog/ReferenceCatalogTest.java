@@ -0,0 +1,61 @@
+package com.zwz5.common.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceCatalogTest {
+
+    @Test
+    void versionChangesOnlyWhenContentChanges() {
+        AtomicReference<List<String>> source = new AtomicReference<>(List.of("美食", "KTV"));
+        AtomicInteger loads = new AtomicInteger();
+        ReferenceCatalog<List<String>> catalog = new ReferenceCatalog<>("test",
+                () -> {
+                    loads.incrementAndGet();
+                    return source.get();
+                },
+                list -> String.join(",", list).getBytes(StandardCharsets.UTF_8));
+
+        ReferenceCatalog.Snapshot<List<String>> first = catalog.get();
+        assertEquals(1, first.version());
+        assertEquals("美食,KTV", new String(first.body(), StandardCharsets.UTF_8));
+        // 已加载后读取不再触发加载
+        assertSame(first, catalog.get());
+        assertEquals(1, loads.get());
+
+        // 内容未变化，不发布新版本
+        assertFalse(catalog.refresh());
+        assertSame(first, catalog.get());
+
+        source.set(List.of("美食", "KTV", "丽人"));
+        assertTrue(catalog.refresh());
+        ReferenceCatalog.Snapshot<List<String>> second = catalog.get();
+        assertEquals(2, second.version());
+        assertNotEquals(first.etag(), second.etag());
+        assertTrue(second.etag().startsWith("\"") && second.etag().endsWith("\""));
+    }
+
+    @Test
+    void failedRefreshKeepsPreviousSnapshot() {
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        ReferenceCatalog<String> catalog = new ReferenceCatalog<>("test",
+                () -> {
+                    if (failure.get() != null) {
+                        throw failure.get();
+                    }
+                    return "v1";
+                },
+                s -> s.getBytes(StandardCharsets.UTF_8));
+        ReferenceCatalog.Snapshot<String> first = catalog.get();
+
+        failure.set(new IllegalStateException("db down"));
+        assertThrows(IllegalStateException.class, catalog::refresh);
+        assertSame(first, catalog.get());
+    }
+}
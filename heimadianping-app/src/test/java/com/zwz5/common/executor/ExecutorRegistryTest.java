@@ -0,0 +1,68 @@
+package com.zwz5.common.executor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutorRegistryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorRegistry registry = new ExecutorRegistry(meterRegistry);
+
+    @Test
+    void countsRejectionsAndAdaptsCore() throws Exception {
+        ThreadPoolTaskExecutor executor = registry.create("test", new ExecutorRegistry.PoolSpec(1, 3, 4),
+                null, new ThreadPoolExecutor.AbortPolicy());
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try {
+            // 1 个执行中 + 3 个排队，积压超过队列一半
+            for (int i = 0; i < 4; i++) {
+                executor.execute(blocker);
+            }
+            assertEquals(3, meterRegistry.get("executor.queue.depth").tag("name", "test").gauge().value());
+            registry.adapt();
+            assertEquals(2, executor.getCorePoolSize());
+
+            // 填满队列和最大线程数后再提交会被拒绝并计数
+            for (int i = 0; i < 4; i++) {
+                try {
+                    executor.execute(blocker);
+                } catch (RejectedExecutionException ignored) {
+                }
+            }
+            assertTrue(meterRegistry.get("executor.rejected").tag("name", "test").counter().count() > 0);
+        } finally {
+            release.countDown();
+        }
+        executor.getThreadPoolExecutor().shutdown();
+        assertTrue(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(meterRegistry.get("executor.task.duration").tag("name", "test").timer().count() > 0);
+    }
+
+    @Test
+    void resizeValidatesBounds() {
+        registry.create("resize", new ExecutorRegistry.PoolSpec(1, 2, 10), null, new ThreadPoolExecutor.AbortPolicy());
+        ExecutorRegistry.PoolStatus status = registry.resize("resize", 4, 8);
+        assertEquals(4, status.coreSize());
+        assertEquals(8, status.maxSize());
+        status = registry.resize("resize", 2, 3);
+        assertEquals(2, status.coreSize());
+        assertEquals(3, status.maxSize());
+        assertThrows(IllegalArgumentException.class, () -> registry.resize("resize", 3, 2));
+        assertNull(registry.resize("missing", 1, 1));
+    }
+}
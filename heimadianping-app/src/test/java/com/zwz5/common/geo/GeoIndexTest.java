@@ -0,0 +1,51 @@
+package com.zwz5.common.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoIndexTest {
+
+    @Test
+    void geohashRoundTrip() {
+        // 经典示例：纬度 57.64911，经度 10.40744
+        assertEquals("u4pruydqqvj", GeoUtils.geohash(10.40744, 57.64911, 11));
+        String hash = GeoUtils.geohash(120.149993, 30.334229, 6);
+        double[] b = GeoUtils.bounds(hash);
+        assertTrue(b[0] <= 120.149993 && 120.149993 <= b[2]);
+        assertTrue(b[1] <= 30.334229 && 30.334229 <= b[3]);
+    }
+
+    @Test
+    void distanceMatchesKnownValue() {
+        // 经度相差 0.01 度，纬度 30 度附近约 963 米
+        double d = GeoUtils.distance(120.0, 30.0, 120.01, 30.0);
+        assertEquals(963, d, 2);
+    }
+
+    @Test
+    void gridIndexMatchesBruteForce() {
+        Random random = new Random(42);
+        List<GridIndex.Point> points = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            points.add(new GridIndex.Point(i, 120 + random.nextDouble() * 0.3, 30 + random.nextDouble() * 0.3));
+        }
+        GridIndex index = new GridIndex(points, 0.05);
+        double x = 120.15, y = 30.15, radius = 5000;
+
+        List<GeoHit> expected = new ArrayList<>();
+        for (GridIndex.Point p : points) {
+            double d = GeoUtils.distance(x, y, p.x(), p.y());
+            if (d <= radius) {
+                expected.add(new GeoHit(p.id(), d));
+            }
+        }
+        expected.sort(GeoHit.ORDER);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, index.within(x, y, radius));
+    }
+}
@@ -0,0 +1,46 @@
+package com.zwz5.common.metrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static com.zwz5.common.metrics.CacheMetrics.Result.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CacheMetricsTest {
+
+    @Test
+    void countsResultsPerPrefix() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheMetrics metrics = new CacheMetrics(registry);
+
+        metrics.record("cache:shop:", HIT);
+        metrics.record("cache:shop:", HIT, 3);
+        metrics.record("cache:shop:", NULL_HIT);
+        metrics.record("cache:blog:", MISS, 2);
+        metrics.record("cache:blog:", STALE, 0);
+        metrics.recordRebuild("cache:blog:", System.nanoTime());
+
+        assertEquals(4, registry.get("cache.requests").tags("cache", "cache:shop:", "result", "hit").counter().count());
+        assertEquals(1, registry.get("cache.requests").tags("cache", "cache:shop:", "result", "null").counter().count());
+        assertEquals(2, registry.get("cache.requests").tags("cache", "cache:blog:", "result", "miss").counter().count());
+        assertEquals(0, registry.get("cache.requests").tags("cache", "cache:blog:", "result", "stale").counter().count());
+        assertEquals(1, registry.get("cache.rebuild").tags("cache", "cache:blog:").timer().count());
+    }
+
+    @Test
+    void lockTimerUsesNameTypeAsTag() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            LockMetrics.recordAcquire("order:1001", true, System.nanoTime());
+            LockMetrics.recordAcquire("order:1002", true, System.nanoTime());
+            LockMetrics.recordAcquire("order:1002", false, System.nanoTime());
+
+            assertEquals(2, registry.get("lock.acquire").tags("lock", "order", "result", "acquired").timer().count());
+            assertEquals(1, registry.get("lock.acquire").tags("lock", "order", "result", "failed").timer().count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+}
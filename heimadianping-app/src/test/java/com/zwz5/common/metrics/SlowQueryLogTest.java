@@ -0,0 +1,57 @@
+package com.zwz5.common.metrics;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SlowQueryLogTest {
+
+    @Test
+    void keepsLatestEntriesNewestFirst() {
+        SlowQueryLog log = new SlowQueryLog(3);
+        for (int i = 1; i <= 5; i++) {
+            log.add(query("S" + i));
+        }
+        List<String> statements = log.snapshot().stream().map(SlowQueryLog.SlowQuery::statement).toList();
+        assertEquals(List.of("S5", "S4", "S3"), statements);
+        assertEquals(5, log.total());
+    }
+
+    @Test
+    void partiallyFilled() {
+        SlowQueryLog log = new SlowQueryLog(3);
+        log.add(query("S1"));
+        assertEquals(1, log.snapshot().size());
+    }
+
+    @Test
+    void statementIdAndRows() {
+        assertEquals("UserMapper.selectById", SqlMetricsInterceptor.shortId("com.zwz5.mapper.UserMapper.selectById"));
+        assertEquals("BlogMapper.selectList_mpCount", SqlMetricsInterceptor.shortId("com.zwz5.mapper.BlogMapper.selectList_mpCount"));
+        assertEquals(2, SqlMetricsInterceptor.rows(List.of(1, 2)));
+        assertEquals(3, SqlMetricsInterceptor.rows(3));
+    }
+
+    @Test
+    void paramsMaskedUnlessShown() {
+        Configuration configuration = new Configuration();
+        List<ParameterMapping> mappings = List.of(
+                new ParameterMapping.Builder(configuration, "phone", String.class).build(),
+                new ParameterMapping.Builder(configuration, "id", Long.class).build());
+        BoundSql boundSql = new BoundSql(configuration, "SELECT * FROM tb_user WHERE phone = ? AND id = ?",
+                mappings, Map.of("phone", "13800000000", "id", 7L));
+        assertEquals(List.of("String", "Long"), SqlMetricsInterceptor.params(configuration, boundSql, false));
+        assertEquals(List.of("13800000000", "7"), SqlMetricsInterceptor.params(configuration, boundSql, true));
+    }
+
+    private static SlowQueryLog.SlowQuery query(String statement) {
+        return new SlowQueryLog.SlowQuery(statement, "SELECT 1", List.of(), 300, 1, Instant.now(), "main");
+    }
+}
@@ -0,0 +1,78 @@
+package com.zwz5.common.redis;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisBatchTest {
+
+    /**
+     * 记录每次 pipeline 收到的命令，命令结果为 "方法名:第一个参数"
+     */
+    private static class RecordingTemplate extends StringRedisTemplate {
+
+        final List<List<Object>> pipelines = new ArrayList<>();
+
+        @Override
+        public List<Object> executePipelined(RedisCallback<?> action) {
+            List<Object> results = new ArrayList<>();
+            StringRedisConnection connection = (StringRedisConnection) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[]{StringRedisConnection.class},
+                    (proxy, method, args) -> {
+                        Object key = args[0] instanceof Object[] keys ? keys[0] : args[0];
+                        results.add(method.getName() + ":" + key);
+                        return null;
+                    });
+            action.doInRedis(connection);
+            pipelines.add(results);
+            return results;
+        }
+    }
+
+    @Test
+    void sendsCommandsInOnePipelineAndCompletesFutures() {
+        RecordingTemplate template = new RecordingTemplate();
+        RedisBatch batch = RedisBatch.of(template);
+        CompletableFuture<String> first = batch.add(conn -> conn.set("a", "1"));
+        CompletableFuture<String> second = batch.add(conn -> conn.expire("a", 10));
+        assertFalse(first.isDone());
+
+        batch.flush();
+        assertEquals(1, template.pipelines.size());
+        assertEquals("set:a", first.join());
+        assertEquals("expire:a", second.join());
+        assertTrue(batch.flush().isEmpty());
+        assertEquals(1, template.pipelines.size());
+    }
+
+    @Test
+    void flushesAutomaticallyAtLimit() {
+        RecordingTemplate template = new RecordingTemplate();
+        RedisBatch batch = new RedisBatch(template, 2);
+        for (int i = 0; i < 5; i++) {
+            String key = "feed:" + i;
+            batch.add(conn -> conn.zAdd(key, 1, "10"));
+        }
+        assertEquals(2, template.pipelines.size());
+        batch.flush();
+        assertEquals(List.of(2, 2, 1), template.pipelines.stream().map(List::size).toList());
+    }
+
+    @Test
+    void scopeReturnsResultsInOrder() {
+        RecordingTemplate template = new RecordingTemplate();
+        List<Object> results = RedisBatch.execute(template, batch -> {
+            batch.add(conn -> conn.del("x"));
+            batch.add(conn -> conn.sAdd("y", "1"));
+        });
+        assertEquals(List.of("del:x", "sAdd:y"), results);
+    }
+}
@@ -0,0 +1,33 @@
+package com.zwz5.common.redis;
+
+import com.zwz5.constants.RedisConstants;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RedisMultiKeyTest {
+
+    @Test
+    void matchesRedisClusterKeySlot() {
+        // CLUSTER KEYSLOT 的结果
+        assertEquals(12182, RedisMultiKey.slot("foo"));
+        assertEquals(12739, RedisMultiKey.slot("123456789"));
+        assertEquals(RedisMultiKey.slot("{user1000}.following"), RedisMultiKey.slot("{user1000}.followers"));
+        // 空的 {} 不是 hashtag，按整个 key 计算
+        assertEquals(8363, RedisMultiKey.slot("foo{}{bar}"));
+    }
+
+    @Test
+    void scriptKeysShareSlot() {
+        String tag = RedisConstants.tag(10);
+        int slot = RedisMultiKey.slot(RedisConstants.SECKILL_STOCK_KEY + tag);
+        assertEquals(slot, RedisMultiKey.slot(RedisConstants.SECKILL_ORDER_KEY + tag));
+        assertEquals(slot, RedisMultiKey.slot(RedisConstants.SECKILL_INFO_KEY + tag));
+        String likedKey = RedisConstants.BLOG_LIKED_KEY + RedisConstants.tag(5);
+        String dirtyKey = RedisConstants.BLOG_LIKE_DIRTY_KEY + SlotShards.tagOf(likedKey);
+        assertEquals(RedisMultiKey.slot(likedKey), RedisMultiKey.slot(dirtyKey));
+        assertEquals(RedisMultiKey.slot(dirtyKey),
+                RedisMultiKey.slot(RedisConstants.BLOG_LIKE_FLUSHING_KEY + SlotShards.tagOf(likedKey)));
+    }
+
+}
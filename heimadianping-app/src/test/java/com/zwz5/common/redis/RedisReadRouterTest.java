@@ -0,0 +1,36 @@
+package com.zwz5.common.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RedisReadRouterTest {
+
+    @Test
+    void countsOnlineReplicasWithinLag() {
+        Properties info = new Properties();
+        info.setProperty("role", "master");
+        info.setProperty("connected_slaves", "3");
+        info.setProperty("slave0", "ip=172.30.0.11,port=6381,state=online,offset=1000,lag=0");
+        info.setProperty("slave1", "ip=172.30.0.12,port=6382,state=online,offset=900,lag=5");
+        info.setProperty("slave2", "ip=172.30.0.13,port=6383,state=wait_bgsave,offset=0,lag=0");
+        info.setProperty("master_repl_offset", "1000");
+
+        assertEquals(1, RedisReadRouter.healthyReplicas(info, 2));
+        assertEquals(2, RedisReadRouter.healthyReplicas(info, 5));
+        assertEquals(0, RedisReadRouter.healthyReplicas(new Properties(), 2));
+    }
+
+    @Test
+    void parsesAddressMappings() {
+        Map<String, String> mappings = RedisAddressMappings.parse("172.30.0.10:6380=127.0.0.1:6380, 172.30.0.11:6381=127.0.0.1:6381");
+        assertEquals("127.0.0.1:6381", RedisAddressMappings.map(mappings, "172.30.0.11", 6381));
+        assertEquals("10.0.0.1:6379", RedisAddressMappings.map(mappings, "10.0.0.1", 6379));
+        assertEquals(0, RedisAddressMappings.parse("").size());
+        assertThrows(IllegalArgumentException.class, () -> RedisAddressMappings.parse("172.30.0.10:6380"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.zwz5.common.redis;
+
+import com.zwz5.constants.RedisConstants;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SlotShardsTest {
+
+    @Test
+    void shardKeySharesSlotWithDataKey() {
+        for (long id = 0; id < 1000; id++) {
+            String dataKey = RedisConstants.SECKILL_STOCK_KEY + RedisConstants.tag(id);
+            String shardKey = RedisConstants.USER_SIGN_PENDING_KEY + SlotShards.tagOf(dataKey);
+            assertEquals(RedisMultiKey.slot(dataKey), RedisMultiKey.slot(shardKey));
+        }
+    }
+
+    @Test
+    void oneTagPerSlot() {
+        Set<String> tags = new HashSet<>();
+        Set<Integer> slots = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            String tag = SlotShards.tagOf(String.valueOf(i));
+            tags.add(tag);
+            slots.add(RedisMultiKey.slot(tag));
+        }
+        // 同一个槽的 key 总是得到同一个 tag
+        assertEquals(slots.size(), tags.size());
+    }
+}
@@ -0,0 +1,60 @@
+package com.zwz5.common.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    private void add(long id, String name, String address) {
+        index.upsert(id, name, Map.of(name, 3.0f, address, 1.0f));
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        add(1, "103茶餐厅", "大关路100号");
+        add(2, "蔡馬洪涛烤肉·老北京铜锅涮羊肉", "拱墅区吉如家园");
+        add(3, "新白鹿餐厅(运河上街店)", "台州路2号运河上街购物中心F5");
+        add(4, "Mamala(杭州远洋乐堤港店)", "丽水路58号远洋乐堤港F4");
+        add(5, "茶餐厅", "文一路");
+    }
+
+    @Test
+    void chineseSubstringMatch() {
+        assertEquals(List.of(5L, 1L), index.search("茶餐厅"));
+        assertEquals(List.of(2L), index.search("涮羊肉"));
+        assertTrue(index.search("羊肉串").isEmpty());
+    }
+
+    @Test
+    void nameRanksAboveAddress() {
+        add(6, "运河咖啡", "莫干山路");
+        // 6 的名称命中，3 只有地址命中"运河"两次，名称权重更高
+        List<Long> result = index.search("运河");
+        assertEquals(6L, result.get(0));
+        assertTrue(result.contains(3L));
+    }
+
+    @Test
+    void latinPrefixTypeahead() {
+        assertEquals(List.of(4L), index.search("mam"));
+        assertEquals(List.of(4L), index.search("MAMALA"));
+        assertTrue(index.search("mamx").isEmpty());
+    }
+
+    @Test
+    void upsertAndRemove() {
+        add(1, "103咖啡馆", "大关路100号");
+        assertEquals(List.of(5L), index.search("茶餐厅"));
+        index.remove(5);
+        assertTrue(index.search("茶餐厅").isEmpty());
+        assertEquals(4, index.size());
+    }
+}
@@ -0,0 +1,54 @@
+package com.zwz5.common.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SignBitsTest {
+
+    private static long bitsOf(int... days) {
+        long bits = 0;
+        for (int day : days) {
+            bits |= SignBits.dayMask(day);
+        }
+        return bits;
+    }
+
+    @Test
+    void streakWithinMonth() {
+        long bits = bitsOf(1, 3, 4, 5);
+        assertEquals(3, SignBits.streakEndingAt(bits, 5));
+        assertEquals(0, SignBits.streakEndingAt(bits, 6));
+        assertEquals(1, SignBits.streakEndingAt(bits, 1));
+    }
+
+    @Test
+    void streakAcrossMonths() {
+        // 本月 1~2 号签到，上月（30天）28~30 号签到
+        long current = bitsOf(1, 2);
+        long previous = bitsOf(20, 28, 29, 30);
+        assertEquals(5, SignBits.streak(new long[]{current, previous}, new int[]{2, 30}));
+        // 今天未签到则从今天断开
+        assertEquals(0, SignBits.streak(new long[]{current, previous}, new int[]{3, 30}));
+    }
+
+    @Test
+    void fullMonthsChain() {
+        long full28 = 0;
+        for (int d = 1; d <= 28; d++) {
+            full28 |= SignBits.dayMask(d);
+        }
+        long current = bitsOf(1);
+        long older = bitsOf(31);
+        assertEquals(1 + 28 + 1, SignBits.streak(new long[]{current, full28, older}, new int[]{1, 28, 31}));
+    }
+
+    @Test
+    void countAndDays() {
+        long bits = bitsOf(1, 15, 31);
+        assertEquals(3, SignBits.count(bits));
+        assertEquals(List.of(1, 15, 31), SignBits.days(bits));
+    }
+}
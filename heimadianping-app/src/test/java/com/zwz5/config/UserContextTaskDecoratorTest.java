@@ -0,0 +1,57 @@
+package com.zwz5.config;
+
+import com.zwz5.common.utils.UserHolder;
+import com.zwz5.pojo.dto.UserDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserContextTaskDecoratorTest {
+
+    private final UserContextTaskDecorator decorator = new UserContextTaskDecorator();
+
+    @AfterEach
+    void clear() {
+        UserHolder.removeUser();
+    }
+
+    @Test
+    void propagatesAndClearsUser() throws Exception {
+        UserDTO user = new UserDTO();
+        user.setId(1L);
+        UserHolder.saveUser(user);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AtomicReference<UserDTO> seen = new AtomicReference<>();
+            executor.submit(decorator.decorate(() -> seen.set(UserHolder.getUser()))).get();
+            assertSame(user, seen.get());
+
+            // 同一线程执行下一个任务时不会残留上一个用户
+            UserHolder.removeUser();
+            AtomicReference<UserDTO> leaked = new AtomicReference<>(user);
+            executor.submit(decorator.decorate(() -> leaked.set(UserHolder.getUser()))).get();
+            assertNull(leaked.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void restoresCallerUserWhenRunInline() {
+        UserDTO caller = new UserDTO();
+        caller.setId(1L);
+        UserHolder.saveUser(caller);
+        Runnable task = decorator.decorate(() -> {
+        });
+
+        // CallerRunsPolicy 在提交线程上直接执行任务
+        task.run();
+        assertSame(caller, UserHolder.getUser());
+    }
+}
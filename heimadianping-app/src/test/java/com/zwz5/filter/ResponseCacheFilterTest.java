@@ -0,0 +1,101 @@
+package com.zwz5.filter;
+
+import com.zwz5.common.cache.ResponseCache;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheFilterTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final ResponseCache cache = new ResponseCache(100);
+    private final ResponseCacheFilter filter = new ResponseCacheFilter(cache, List.of(
+            new ResponseCacheFilter.Rule(Pattern.compile("/shop/\\d+"), 60_000, request -> hits.incrementAndGet())
+    ), 5);
+
+    private final FilterChain controller = (request, response) -> {
+        calls.incrementAndGet();
+        response.setContentType("application/json");
+        String body = "/shop/0".equals(((MockHttpServletRequest) request).getRequestURI())
+                ? "{\"success\":false,\"errorMsg\":\"店铺不存在！\"}"
+                : "{\"success\":true,\"data\":{\"id\":1}}";
+        response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+    };
+
+    private MockHttpServletResponse get(String uri, String ifNoneMatch, String token) throws Exception {
+        String[] parts = uri.split("\\?", 2);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", parts[0]);
+        if (parts.length > 1) {
+            for (String param : parts[1].split("&")) {
+                String[] kv = param.split("=", 2);
+                request.addParameter(kv[0], kv[1]);
+            }
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        if (token != null) {
+            request.addHeader("authorization", token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, controller);
+        return response;
+    }
+
+    @Test
+    void servesCachedBytesAndNotModified() throws Exception {
+        MockHttpServletResponse first = get("/shop/1", null, null);
+        String etag = first.getHeader("ETag");
+        assertNotNull(etag);
+        assertEquals("public, max-age=5", first.getHeader("Cache-Control"));
+        assertEquals("Authorization", first.getHeader("Vary"));
+        assertEquals("{\"success\":true,\"data\":{\"id\":1}}", first.getContentAsString());
+
+        MockHttpServletResponse second = get("/shop/1", null, null);
+        assertEquals(200, second.getStatus());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("Authorization", second.getHeader("Vary"));
+        assertEquals(1, calls.get());
+        assertEquals(1, hits.get());
+
+        MockHttpServletResponse notModified = get("/shop/1", etag, null);
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+        assertEquals("Authorization", notModified.getHeader("Vary"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void skipsFailuresAndLoggedInUsers() throws Exception {
+        get("/shop/0", null, null);
+        get("/shop/0", null, null);
+        assertEquals(2, calls.get());
+
+        get("/shop/2", null, "token");
+        get("/shop/2", null, "token");
+        assertEquals(4, calls.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictRemovesAllParameterVariants() throws Exception {
+        get("/shop/1", null, null);
+        get("/shop/1?x=1", null, null);
+        get("/shop/10", null, null);
+        assertEquals(3, cache.size());
+
+        cache.evict("/shop/1");
+        assertEquals(1, cache.size());
+        get("/shop/1", null, null);
+        assertEquals(4, calls.get());
+    }
+}
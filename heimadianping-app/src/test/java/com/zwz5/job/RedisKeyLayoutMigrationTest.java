@@ -0,0 +1,35 @@
+package com.zwz5.job;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RedisKeyLayoutMigrationTest {
+
+    @Test
+    void mapsOldKeysToHashTaggedKeys() {
+        assertEquals("seckill:stock:{10}", RedisKeyLayoutMigration.migratedKey("seckill:stock:10"));
+        assertEquals("seckill:order:{10}", RedisKeyLayoutMigration.migratedKey("seckill:order:10"));
+        assertEquals("blog:like:count:{5}", RedisKeyLayoutMigration.migratedKey("blog:like:count:5"));
+        assertEquals("follow:count:{7}", RedisKeyLayoutMigration.migratedKey("follow:count:7"));
+        assertEquals("sign:{1010}:202510", RedisKeyLayoutMigration.migratedKey("sign:1010:202510"));
+        assertEquals("sign:backup:{1010}:202510", RedisKeyLayoutMigration.migratedKey("sign:backup:1010:202510"));
+        assertEquals("uv:shop:{1}:w202542", RedisKeyLayoutMigration.migratedKey("uv:shop:1:w202542"));
+        assertEquals("uv:shop:{1}:m202510", RedisKeyLayoutMigration.migratedKey("uv:shop:1:m202510"));
+        assertEquals("pv:shop:{1}:20251019", RedisKeyLayoutMigration.migratedKey("pv:shop:1:20251019"));
+        assertEquals("pv:shop:{1}:w202542", RedisKeyLayoutMigration.migratedKey("pv:shop:1:w202542"));
+        assertEquals("pv:shop:{1}:m202510", RedisKeyLayoutMigration.migratedKey("pv:shop:1:m202510"));
+    }
+
+    @Test
+    void ignoresNewAndUnrelatedKeys() {
+        assertNull(RedisKeyLayoutMigration.migratedKey("seckill:stock:{10}"));
+        assertNull(RedisKeyLayoutMigration.migratedKey("sign:pending"));
+        assertNull(RedisKeyLayoutMigration.migratedKey("follows:7:rebuild"));
+        assertNull(RedisKeyLayoutMigration.migratedKey("uv:shop:visited:20251019"));
+        assertNull(RedisKeyLayoutMigration.migratedKey("blog:like:dirty:{5}"));
+        assertNull(RedisKeyLayoutMigration.migratedKey("sign:pending:{5}"));
+        assertNull(RedisKeyLayoutMigration.migratedKey("uv:shop:1:x"));
+    }
+}
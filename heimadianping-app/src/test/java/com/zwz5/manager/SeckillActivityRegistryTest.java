@@ -0,0 +1,72 @@
+package com.zwz5.manager;
+
+import com.zwz5.mapper.SeckillVoucherMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.zwz5.constants.SeckillResultCodeConstants.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeckillActivityRegistryTest {
+
+    private final SeckillActivityRegistry.Activity activity = new SeckillActivityRegistry.Activity(10_000, 20_000);
+
+    @Test
+    void rejectsLocallyOnlyOutsideMargin() {
+        assertEquals(NOT_STARTED, SeckillActivityRegistry.check(activity, 9_000, 50));
+        assertEquals(ENDED, SeckillActivityRegistry.check(activity, 21_000, 50));
+        assertEquals(SUCCESS, SeckillActivityRegistry.check(activity, 15_000, 50));
+    }
+
+    @Test
+    void leavesBoundaryToRedisTime() {
+        // 距离开始、结束都在误差范围内，本地不能确定，交给脚本判断
+        assertEquals(SUCCESS, SeckillActivityRegistry.check(activity, 9_960, 50));
+        assertEquals(SUCCESS, SeckillActivityRegistry.check(activity, 20_040, 50));
+        assertEquals(NOT_STARTED, SeckillActivityRegistry.check(activity, 9_940, 50));
+    }
+
+    @Test
+    void cachesUnknownVoucherForShortTime() throws InterruptedException {
+        AtomicInteger queries = new AtomicInteger();
+        // 只实现 selectById，DB 中没有任何秒杀券
+        SeckillVoucherMapper mapper = (SeckillVoucherMapper) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[]{SeckillVoucherMapper.class}, (proxy, method, args) -> {
+                    if ("selectById".equals(method.getName())) {
+                        queries.incrementAndGet();
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        SeckillActivityRegistry registry = new SeckillActivityRegistry(mapper, null, null);
+        ReflectionTestUtils.setField(registry, "absentTtlMillis", 100L);
+
+        assertNull(registry.get(404L));
+        assertNull(registry.get(404L));
+        assertEquals(1, queries.get());
+
+        Thread.sleep(150);
+        assertNull(registry.get(404L));
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void soldOutMarkExpires() throws InterruptedException {
+        SeckillActivityRegistry registry = new SeckillActivityRegistry(null, null, null);
+        ReflectionTestUtils.setField(registry, "soldOutTtlMillis", 100L);
+
+        assertFalse(registry.isSoldOut(1L));
+        registry.markSoldOut(1L);
+        assertTrue(registry.isSoldOut(1L));
+        assertFalse(registry.isSoldOut(2L));
+
+        Thread.sleep(150);
+        assertFalse(registry.isSoldOut(1L));
+    }
+}
@@ -0,0 +1,41 @@
+package com.zwz5.manager;
+
+import com.zwz5.manager.SeckillOrderTimeoutManager.Action;
+import com.zwz5.manager.SeckillOrderTimeoutManager.TimeoutOrder;
+import com.zwz5.pojo.entity.VoucherOrder;
+import org.junit.jupiter.api.Test;
+
+import static com.zwz5.constants.OrderStatusConstants.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SeckillOrderTimeoutManagerTest {
+
+    @Test
+    void memberRoundTrip() {
+        TimeoutOrder order = new TimeoutOrder(287_305_433_238_175_745L, 10, 1010);
+        assertEquals("287305433238175745:10:1010", order.member());
+        assertEquals(order, TimeoutOrder.parse(order.member()));
+    }
+
+    @Test
+    void decidesByOrderStatus() {
+        assertEquals(Action.CANCEL, SeckillOrderTimeoutManager.decide(order(UNPAID), 0, 1200));
+        // 上次取消后 Redis 归还失败，重试只归还 Redis
+        assertEquals(Action.RESTORE, SeckillOrderTimeoutManager.decide(order(CANCELLED), 0, 1200));
+        assertEquals(Action.SKIP, SeckillOrderTimeoutManager.decide(order(PAID), 0, 1200));
+        assertEquals(Action.SKIP, SeckillOrderTimeoutManager.decide(order(REFUNDED), 0, 1200));
+    }
+
+    @Test
+    void defersMissingOrderUntilGraceEnds() {
+        // 订单可能仍在异步落库，立即归还会导致超卖
+        assertEquals(Action.DEFER, SeckillOrderTimeoutManager.decide(null, 900, 1200));
+        assertEquals(Action.RESTORE, SeckillOrderTimeoutManager.decide(null, 1200, 1200));
+    }
+
+    private static VoucherOrder order(int status) {
+        VoucherOrder order = new VoucherOrder();
+        order.setStatus(status);
+        return order;
+    }
+}
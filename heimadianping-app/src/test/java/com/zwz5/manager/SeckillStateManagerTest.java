@@ -0,0 +1,20 @@
+package com.zwz5.manager;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SeckillStateManagerTest {
+
+    @Test
+    void inFlightOrdersAreNotDrift() {
+        // DB 库存 100，Redis 已扣 10，其中 7 单已落库（DB 库存已扣为 93），3 单在队列中
+        assertEquals(0, SeckillStateManager.drift(93, 90, 10, 7));
+    }
+
+    @Test
+    void lostRedisDeductionIsPositiveDrift() {
+        assertEquals(2, SeckillStateManager.drift(93, 88, 10, 7));
+        assertEquals(-1, SeckillStateManager.drift(93, 91, 10, 7));
+    }
+}
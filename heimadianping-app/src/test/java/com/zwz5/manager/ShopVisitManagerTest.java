@@ -0,0 +1,50 @@
+package com.zwz5.manager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShopVisitManagerTest {
+
+    /**
+     * 第一次 pipeline 失败，之后成功
+     */
+    private static class FlakyTemplate extends StringRedisTemplate {
+
+        int calls;
+
+        @Override
+        public List<Object> executePipelined(RedisCallback<?> action) {
+            if (calls++ == 0) {
+                throw new QueryTimeoutException("redis timeout");
+            }
+            return new ArrayList<>();
+        }
+    }
+
+    @Test
+    void failedFlushRequeuesVisits() {
+        FlakyTemplate template = new FlakyTemplate();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ShopVisitManager manager = new ShopVisitManager(template, registry);
+        ReflectionTestUtils.setField(manager, "bufferCapacity", 100);
+        ReflectionTestUtils.setField(manager, "flushBatchSize", 100);
+        manager.record(1L, "1010");
+        manager.record(2L, "1011");
+
+        assertThrows(QueryTimeoutException.class, manager::flush);
+        assertEquals(2, registry.get("shop.visit.buffer.size").gauge().value());
+
+        assertEquals(2, manager.flush());
+        assertEquals(0, registry.get("shop.visit.buffer.size").gauge().value());
+    }
+}
@@ -0,0 +1,22 @@
+package com.zwz5.mapper;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.zwz5.pojo.entity.VoucherOrder;
+import org.junit.jupiter.api.Test;
+
+import static com.zwz5.constants.OrderStatusConstants.CANCELLED;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoucherOrderMapperTest {
+
+    @Test
+    void activeOrdersExcludeCancelled() {
+        // 超时取消后同一用户可以重新购买，一人一单只统计未取消的订单
+        QueryWrapper<VoucherOrder> wrapper = VoucherOrderMapper.activeOrders(1010L, 10L);
+        String sql = wrapper.getSqlSegment();
+        assertTrue(sql.contains("user_id ="), sql);
+        assertTrue(sql.contains("voucher_id ="), sql);
+        assertTrue(sql.contains("status <>"), sql);
+        assertTrue(wrapper.getParamNameValuePairs().containsValue(CANCELLED));
+    }
+}
@@ -0,0 +1,37 @@
+package com.zwz5.pojo.converter;
+
+import com.zwz5.pojo.dto.UserDTO;
+import com.zwz5.pojo.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UserConverterTest {
+
+    @Test
+    void toDTOCopiesPublicFields() {
+        User user = User.builder().id(1010L).phone("13686869696").nickName("可可今天不吃肉").icon("/imgs/icon.jpg").build();
+        UserDTO dto = UserConverter.toDTO(user);
+        assertEquals(1010L, dto.getId());
+        assertEquals("可可今天不吃肉", dto.getNickName());
+        assertEquals("/imgs/icon.jpg", dto.getIcon());
+        assertNull(UserConverter.toDTO(null));
+    }
+
+    @Test
+    void hashRoundTrip() {
+        UserDTO dto = new UserDTO();
+        dto.setId(1010L);
+        dto.setNickName("user_abc");
+        Map<String, String> hash = UserConverter.toHash(dto);
+        assertEquals("", hash.get("icon"));
+        UserDTO back = UserConverter.fromHash(new HashMap<>(hash));
+        assertEquals(1010L, back.getId());
+        assertEquals("user_abc", back.getNickName());
+        assertEquals("", back.getIcon());
+    }
+}
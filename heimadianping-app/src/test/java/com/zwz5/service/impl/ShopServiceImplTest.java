@@ -0,0 +1,29 @@
+package com.zwz5.service.impl;
+
+import com.zwz5.config.KeysetPagination;
+import com.zwz5.constants.SystemConstants;
+import com.zwz5.exception.CursorException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShopServiceImplTest {
+
+    @Test
+    void searchOffsetFromPageOrCursor() {
+        assertEquals(0, ShopServiceImpl.searchOffset(1, null));
+        assertEquals(SystemConstants.MAX_PAGE_SIZE, ShopServiceImpl.searchOffset(2, null));
+        assertEquals(0, ShopServiceImpl.searchOffset(1, ""));
+        assertEquals(10, ShopServiceImpl.searchOffset(1, KeysetPagination.encode(9, 42)));
+    }
+
+    @Test
+    void rejectsTamperedCursorAndPage() {
+        assertThrows(CursorException.class, () -> ShopServiceImpl.searchOffset(0, null));
+        assertThrows(CursorException.class, () -> ShopServiceImpl.searchOffset(1, KeysetPagination.encode(-5, 42)));
+        assertThrows(CursorException.class,
+                () -> ShopServiceImpl.searchOffset(1, KeysetPagination.encode(Integer.MAX_VALUE, 42)));
+        assertThrows(CursorException.class, () -> ShopServiceImpl.searchOffset(1, "not-a-cursor"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.zwz5.bench;
+
+import com.zwz5.common.cache.LogicalExpireEnvelope;
+import com.zwz5.common.redis.RedisData;
+import com.zwz5.common.utils.JsonUtils;
+import com.zwz5.pojo.entity.Shop;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逻辑过期缓存命中路径：流式解析定位 data 字节 vs 完整反序列化再序列化
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheEnvelopeBenchmark {
+
+    private JsonUtils jsonUtils;
+    private String json;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        jsonUtils = new JsonUtils(BenchData.objectMapper());
+        json = jsonUtils.beanToJson(RedisData.builder()
+                .data(BenchData.shop())
+                .expireTime(LocalDateTime.now().plusDays(1))
+                .build());
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public LogicalExpireEnvelope.Parsed streamingParse() {
+        return LogicalExpireEnvelope.parse(bytes);
+    }
+
+    @Benchmark
+    public String deserializeAndReserialize() {
+        RedisData redisData = jsonUtils.jsonToBean(json, RedisData.class);
+        Shop shop = jsonUtils.convertValue(redisData.getData(), Shop.class);
+        return jsonUtils.beanToJson(shop);
+    }
+}
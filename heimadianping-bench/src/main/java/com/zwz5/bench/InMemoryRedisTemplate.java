@@ -0,0 +1,61 @@
+package com.zwz5.bench;
+
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内的 Redis 替身
+ * 只实现基准用到的 GET/SET/INCR/HGETALL/HMSET/EXPIRE，数据保存在 ConcurrentHashMap 中，
+ * 用来测量业务代码本身的开销，排除网络往返和 Redis 服务端的波动。
+ */
+public class InMemoryRedisTemplate extends StringRedisTemplate {
+
+    private final Map<String, Object> data = new ConcurrentHashMap<>();
+
+    private final ValueOperations<String, String> valueOps = proxy(ValueOperations.class, (method, args) -> switch (method) {
+        case "get" -> (String) data.get((String) args[0]);
+        case "set" -> data.put((String) args[0], args[1]);
+        case "increment" -> (Long) data.merge((String) args[0], args.length > 1 ? (Long) args[1] : 1L,
+                (old, delta) -> (Long) old + (Long) delta);
+        default -> throw new UnsupportedOperationException(method);
+    });
+
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, Object, Object> hashOps = proxy(HashOperations.class, (method, args) -> switch (method) {
+        case "entries" -> data.getOrDefault((String) args[0], Map.of());
+        case "putAll" -> data.put((String) args[0], new ConcurrentHashMap<>((Map<Object, Object>) args[1]));
+        default -> throw new UnsupportedOperationException(method);
+    });
+
+    @Override
+    public ValueOperations<String, String> opsForValue() {
+        return valueOps;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <HK, HV> HashOperations<String, HK, HV> opsForHash() {
+        return (HashOperations<String, HK, HV>) hashOps;
+    }
+
+    @Override
+    public Boolean expire(String key, long timeout, TimeUnit unit) {
+        return data.containsKey(key);
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> handler.handle(method.getName(), args == null ? new Object[0] : args));
+    }
+}
@@ -0,0 +1,71 @@
+package com.zwz5.bench;
+
+import com.zwz5.common.search.InvertedIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 店铺名称检索：倒排索引与逐条 contains 扫描（相当于 LIKE '%name%' 全表扫描）的对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvertedIndexBenchmark {
+
+    private static final String[] PREFIXES = {"老街", "运河", "大关", "湖滨", "西溪", "103", "小巷", "阿婆"};
+    private static final String[] CATEGORIES = {"茶餐厅", "烤肉", "火锅", "KTV", "小龙虾", "海底捞", "mamala", "面馆"};
+    private static final String[] AREAS = {"大关", "拱宸桥", "运河上街", "湖滨", "西溪"};
+    private static final String[] KEYWORDS = {"茶餐厅", "烤肉", "火锅", "KTV", "运河", "小龙虾", "mam", "海底捞"};
+
+    @Param({"10000"})
+    private int shops;
+
+    private InvertedIndex index;
+    private List<String> names;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        index = new InvertedIndex();
+        names = new ArrayList<>(shops);
+        for (int id = 1; id <= shops; id++) {
+            String name = PREFIXES[random.nextInt(PREFIXES.length)]
+                    + CATEGORIES[random.nextInt(CATEGORIES.length)] + "(" + id + "店)";
+            String area = AREAS[random.nextInt(AREAS.length)];
+            index.upsert(id, name, Map.of(name, 3.0f, area, 1.0f));
+            names.add(name);
+        }
+    }
+
+    private String keyword() {
+        String keyword = KEYWORDS[next];
+        next = (next + 1) % KEYWORDS.length;
+        return keyword;
+    }
+
+    @Benchmark
+    public List<Long> index() {
+        return index.search(keyword());
+    }
+
+    @Benchmark
+    public int scan() {
+        String keyword = keyword();
+        int hits = 0;
+        for (String name : names) {
+            if (name.contains(keyword)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
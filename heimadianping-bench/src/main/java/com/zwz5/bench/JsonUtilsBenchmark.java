@@ -0,0 +1,58 @@
+package com.zwz5.bench;
+
+import com.zwz5.common.redis.RedisData;
+import com.zwz5.common.utils.JsonUtils;
+import com.zwz5.pojo.entity.Shop;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonUtils 序列化开销
+ * 逻辑过期缓存读取时要先反序列化 RedisData，再把 data（LinkedHashMap）convertValue 成实体，比直接读实体多一次转换。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonUtilsBenchmark {
+
+    private JsonUtils jsonUtils;
+    private Shop shop;
+    private String shopJson;
+    private RedisData redisData;
+    private String redisDataJson;
+
+    @Setup
+    public void setup() {
+        jsonUtils = new JsonUtils(BenchData.objectMapper());
+        shop = BenchData.shop();
+        shopJson = jsonUtils.beanToJson(shop);
+        redisData = RedisData.builder().data(shop).expireTime(LocalDateTime.now().plusMinutes(30)).build();
+        redisDataJson = jsonUtils.beanToJson(redisData);
+    }
+
+    @Benchmark
+    public String shopToJson() {
+        return jsonUtils.beanToJson(shop);
+    }
+
+    @Benchmark
+    public Shop jsonToShop() {
+        return jsonUtils.jsonToBean(shopJson, Shop.class);
+    }
+
+    @Benchmark
+    public String redisDataToJson() {
+        return jsonUtils.beanToJson(redisData);
+    }
+
+    @Benchmark
+    public Shop jsonToRedisDataShop() {
+        RedisData parsed = jsonUtils.jsonToBean(redisDataJson, RedisData.class);
+        return jsonUtils.convertValue(parsed.getData(), Shop.class);
+    }
+}
@@ -0,0 +1,62 @@
+package com.zwz5.bench;
+
+import com.zwz5.common.utils.SignBits;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 签到位图计算：连续签到、跨月连续签到、签到天数与日期列表
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignBitsBenchmark {
+
+    private long monthBits;
+    private long[] yearBits;
+    private int[] yearDays;
+
+    @Setup
+    public void setup() {
+        // 当月 1~20 号全部签到，其余随机
+        monthBits = 0;
+        for (int day = 1; day <= SignBits.MONTH_BITS; day++) {
+            if (day <= 20 || ThreadLocalRandom.current().nextBoolean()) {
+                monthBits |= SignBits.dayMask(day);
+            }
+        }
+        // 连续签满 12 个月，跨月统计需要遍历全部月份
+        yearBits = new long[12];
+        yearDays = new int[12];
+        for (int i = 0; i < 12; i++) {
+            yearBits[i] = 0x7FFFFFFFL;
+            yearDays[i] = 30;
+        }
+    }
+
+    @Benchmark
+    public int streakEndingAt() {
+        return SignBits.streakEndingAt(monthBits, 20);
+    }
+
+    @Benchmark
+    public int streakAcrossMonths() {
+        return SignBits.streak(yearBits, yearDays);
+    }
+
+    @Benchmark
+    public int count() {
+        return SignBits.count(monthBits);
+    }
+
+    @Benchmark
+    public List<Integer> days() {
+        return SignBits.days(monthBits);
+    }
+}